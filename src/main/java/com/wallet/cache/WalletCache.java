@@ -0,0 +1,183 @@
+package com.wallet.cache;
+
+import com.wallet.config.ReplicaRoutingDataSource;
+import com.wallet.dto.CacheStatisticsDTO;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caches de consultas de itens indexados por carteira. Cada elemento do ehcache guarda
+ * todas as entradas de uma carteira, de modo que uma escrita invalida apenas a carteira afetada.
+ */
+@Component
+public class WalletCache implements MeterBinder {
+
+    public static final String FIND_BY_WALLET_AND_TYPE = "findByWalletAndType";
+    public static final String FIND_BETWEEN_DATES = "findBetweenDates";
+    public static final String SUM_BY_WALLET = "sumByWalletId";
+
+    private static final List<String> NAMES = Arrays.asList(FIND_BY_WALLET_AND_TYPE, FIND_BETWEEN_DATES, SUM_BY_WALLET);
+
+    private final CacheManager cacheManager;
+    private final int maxKeysPerWallet;
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    public WalletCache(CacheManager cacheManager, @Value("${cache.max_keys_per_wallet:32}") int maxKeysPerWallet) {
+        this.cacheManager = cacheManager;
+        this.maxKeysPerWallet = maxKeysPerWallet;
+        NAMES.forEach(n -> counters.put(n, new Counters()));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String name, Long wallet, Object key, Supplier<T> loader) {
+        Counters c = counters.get(name);
+        // o mapa é obtido antes da consulta: se a carteira for invalidada no meio, o valor vai para um mapa descartado
+        Map<Object, Object> entries = entries(cacheManager.getEhcache(name), wallet);
+
+        Object value = entries.get(key);
+        if (value != null) {
+            c.hits.incrementAndGet();
+            return (T) value;
+        }
+
+        c.misses.incrementAndGet();
+        T loaded = loader.get();
+        // uma réplica atrasada recolocaria no cache dados anteriores à última escrita da carteira
+        if (!ReplicaRoutingDataSource.servedByReplica()) {
+            put(entries, key, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Como get, para consultas não bloqueantes: o valor entra no cache quando a consulta termina.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletionStage<T> getAsync(String name, Long wallet, Object key, Supplier<CompletionStage<T>> loader) {
+        Counters c = counters.get(name);
+        Map<Object, Object> entries = entries(cacheManager.getEhcache(name), wallet);
+
+        Object value = entries.get(key);
+        if (value != null) {
+            c.hits.incrementAndGet();
+            return CompletableFuture.completedFuture((T) value);
+        }
+
+        c.misses.incrementAndGet();
+        return loader.get().thenApply(loaded -> {
+            put(entries, key, loaded);
+            return loaded;
+        });
+    }
+
+    /**
+     * Remove as entradas da carteira em todos os caches. Dentro de uma transação a remoção
+     * é repetida após o commit, para que leituras concorrentes não recoloquem dados anteriores a ele.
+     */
+    public void evict(Long wallet) {
+        remove(wallet);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(wallet);
+                }
+            });
+        }
+    }
+
+    public void evictAll(Collection<Long> wallets) {
+        wallets.forEach(this::evict);
+    }
+
+    public List<CacheStatisticsDTO> statistics() {
+        List<CacheStatisticsDTO> list = new ArrayList<>();
+        NAMES.forEach(name -> {
+            Ehcache cache = cacheManager.getEhcache(name);
+            Counters c = counters.get(name);
+
+            CacheStatisticsDTO dto = new CacheStatisticsDTO();
+            dto.setName(name);
+            dto.setWallets(cache.getSize());
+            dto.setHits(c.hits.get());
+            dto.setMisses(c.misses.get());
+            dto.setInvalidations(c.invalidations.get());
+            dto.setEvictions(cache.getStatistics().cacheEvictedCount());
+            dto.setExpirations(cache.getStatistics().cacheExpiredCount());
+            list.add(dto);
+        });
+        return list;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        NAMES.forEach(name -> {
+            Counters c = counters.get(name);
+            FunctionCounter.builder("wallet.cache.gets", c.hits, AtomicLong::get)
+                    .tags("cache", name, "result", "hit").register(registry);
+            FunctionCounter.builder("wallet.cache.gets", c.misses, AtomicLong::get)
+                    .tags("cache", name, "result", "miss").register(registry);
+            FunctionCounter.builder("wallet.cache.invalidations", c.invalidations, AtomicLong::get)
+                    .tags("cache", name).register(registry);
+            Gauge.builder("wallet.cache.wallets", cacheManager, m -> m.getEhcache(name).getSize())
+                    .tags("cache", name).register(registry);
+        });
+    }
+
+    private void remove(Long wallet) {
+        NAMES.forEach(name -> {
+            if (cacheManager.getEhcache(name).remove(wallet)) {
+                counters.get(name).invalidations.incrementAndGet();
+            }
+        });
+    }
+
+    private void put(Map<Object, Object> entries, Object key, Object value) {
+        if (value != null) {
+            if (entries.size() >= maxKeysPerWallet) {
+                entries.clear();
+            }
+            entries.put(key, value);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Object, Object> entries(Ehcache cache, Long wallet) {
+        Element element = cache.get(wallet);
+        if (element != null) {
+            return (Map<Object, Object>) element.getObjectValue();
+        }
+
+        Map<Object, Object> entries = new ConcurrentHashMap<>();
+        Element previous = cache.putIfAbsent(new Element(wallet, entries));
+        return previous == null ? entries : (Map<Object, Object>) previous.getObjectValue();
+    }
+
+    private static class Counters {
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong invalidations = new AtomicLong();
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.wallet.config;
+
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.config.Configuration;
+import org.springframework.cache.ehcache.EhCacheManagerUtils;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.ObjectUtils;
+
+@org.springframework.context.annotation.Configuration
+public class CacheConfig {
+
+    // o ehcache 2 não aceita dois CacheManager com o mesmo nome na JVM, o que acontece com mais de um contexto nos testes
+    @Bean(destroyMethod = "shutdown")
+    public CacheManager ehCacheCacheManager() {
+        Configuration configuration = EhCacheManagerUtils.parseConfiguration(new ClassPathResource("ehcache.xml"));
+        configuration.setName("wallet-" + ObjectUtils.getIdentityHexString(configuration));
+        return new CacheManager(configuration);
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.wallet.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede o tempo de cada método dos serviços e repositórios. Os histogramas de percentis
+ * são ligados por propriedade (management.metrics.distribution.percentiles-histogram.wallet).
+ */
+@Aspect
+@Component
+public class MetricsAspect {
+
+    static final String SERVICE_TIMER = "wallet.service";
+    static final String REPOSITORY_TIMER = "wallet.repository";
+
+    private final MeterRegistry registry;
+    // o timer de sucesso é resolvido uma vez por classe e método para manter o custo por chamada baixo
+    private final Map<Class<?>, Map<Method, Timer>> successTimers = new ConcurrentHashMap<>();
+
+    public MetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(* com.wallet.service.WalletItemService+.*(..))"
+            + " || execution(* com.wallet.service.UserWalletService+.*(..))"
+            + " || execution(* com.wallet.service.UserService+.*(..))")
+    public Object timeService(ProceedingJoinPoint pjp) throws Throwable {
+        return time(SERVICE_TIMER, pjp);
+    }
+
+    @Around("execution(* com.wallet.repository..*Repository+.*(..))")
+    public Object timeRepository(ProceedingJoinPoint pjp) throws Throwable {
+        return time(REPOSITORY_TIMER, pjp);
+    }
+
+    private Object time(String name, ProceedingJoinPoint pjp) throws Throwable {
+        Class<?> type = typeOf(pjp.getTarget());
+        Method method = ((MethodSignature) pjp.getSignature()).getMethod();
+        long start = System.nanoTime();
+        try {
+            Object result = pjp.proceed();
+            successTimers.computeIfAbsent(type, t -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(method, m -> timer(name, type, m, "SUCCESS", "none"))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            timer(name, type, method, "ERROR", e.getClass().getSimpleName())
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    // os repositórios do Spring Data são proxies JDK, identificados pela interface do repositório
+    private static Class<?> typeOf(Object target) {
+        Class<?> type = target.getClass();
+        if (Proxy.isProxyClass(type) && type.getInterfaces().length > 0) {
+            return type.getInterfaces()[0];
+        }
+        return ClassUtils.getUserClass(type);
+    }
+
+    private Timer timer(String name, Class<?> type, Method method, String outcome, String exception) {
+        return Timer.builder(name)
+                .tag("class", type.getSimpleName())
+                .tag("method", method.getName())
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .register(registry);
+    }
+
+}
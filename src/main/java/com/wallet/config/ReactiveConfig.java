@@ -0,0 +1,54 @@
+package com.wallet.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+
+/**
+ * Com reactive.enabled=true as leituras em /reactive/wallet-item usam R2DBC: nenhuma thread fica parada esperando
+ * o banco. O pool é separado do HikariCP, que continua atendendo as escritas e o restante da API.
+ */
+@Configuration
+@ConditionalOnProperty(name = "reactive.enabled", havingValue = "true")
+public class ReactiveConfig {
+
+    // o pool não vira bean: com um ConnectionFactory no contexto o Spring Boot deixa de configurar o DataSource JDBC
+    private ConnectionPool pool;
+
+    @Bean
+    public DatabaseClient reactiveDatabaseClient(@Value("${reactive.url}") String url,
+                                                 @Value("${reactive.username}") String username,
+                                                 @Value("${reactive.password}") String password,
+                                                 @Value("${reactive.pool.max_size}") int maxSize) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        ConnectionFactory factory = ConnectionFactories.get(options);
+
+        pool = new ConnectionPool(ConnectionPoolConfiguration.builder(factory)
+                .name("wallet-reactive")
+                .initialSize(1)
+                .maxSize(maxSize)
+                .maxIdleTime(Duration.ofMinutes(10))
+                .build());
+        return DatabaseClient.create(pool);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (pool != null) {
+            pool.dispose();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.wallet.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Com replica.enabled=true o DataSource da aplicação passa a rotear entre o primário (spring.datasource.*) e as
+ * réplicas de replica.urls. Cada rota tem seu próprio HikariCP, com as métricas hikaricp.* marcadas pelo nome do pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "replica.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    // os pools não viram beans: com mais de um DataSource no contexto o Spring Boot não saberia qual usar
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment, MeterRegistry registry,
+                                 @Value("${replica.urls}") List<String> urls,
+                                 @Value("${replica.username}") String username,
+                                 @Value("${replica.password}") String password,
+                                 @Value("${replica.pool.max_size}") int maxSize,
+                                 @Value("${replica.max_lag_ms}") long maxLagMillis) {
+        if (urls.isEmpty()) {
+            throw new IllegalStateException("replica.enabled exige ao menos uma URL em replica.urls");
+        }
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReplicaRoutingDataSource.PRIMARY, pool(primary, ReplicaRoutingDataSource.PRIMARY, registry));
+
+        List<String> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setJdbcUrl(urls.get(i));
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setMaximumPoolSize(maxSize);
+            replica.setReadOnly(true);
+            replicas.add("replica-" + i);
+            targets.put("replica-" + i, pool(replica, "replica-" + i, registry));
+        }
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(replicas, maxLagMillis, registry);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(targets.get(ReplicaRoutingDataSource.PRIMARY));
+        routing.afterPropertiesSet();
+
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private HikariDataSource pool(HikariDataSource pool, String name, MeterRegistry registry) {
+        pool.setPoolName(name);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        pools.add(pool);
+        return pool;
+    }
+
+    @PreDestroy
+    public void close() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
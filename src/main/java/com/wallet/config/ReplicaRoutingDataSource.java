@@ -0,0 +1,183 @@
+package com.wallet.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Escolhe o pool de cada transação: as somente leitura declaradas nos serviços vão para uma réplica, o resto para
+ * o primário. Quem escreveu lê do primário por replica.max_lag_ms depois do commit, até a réplica alcançar a escrita.
+ * Deve ficar atrás de um LazyConnectionDataSourceProxy, para que a escolha aconteça depois que a transação marcou
+ * se é somente leitura.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    // as transações implícitas dos repositórios do Spring Data também são somente leitura, mas ficam no primário:
+    // jobs e serviços que leem pelo repositório para depois escrever não podem enxergar uma réplica atrasada
+    private static final String REPOSITORY_TRANSACTION = "org.springframework.data.";
+
+    private static final Object REPLICA_READ = new Object();
+    private static final Object WRITERS = new Object();
+
+    private final List<String> replicas;
+    private final long maxLagMillis;
+    private final Map<String, Long> lastWrite = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final Map<String, Counter> routes = new HashMap<>();
+
+    public ReplicaRoutingDataSource(List<String> replicas, long maxLagMillis, MeterRegistry registry) {
+        this.replicas = replicas;
+        this.maxLagMillis = maxLagMillis;
+        routes.put(PRIMARY, Counter.builder("wallet.datasource.routes").tag("route", PRIMARY).register(registry));
+        replicas.forEach(r -> routes.put(r, Counter.builder("wallet.datasource.routes").tag("route", r).register(registry)));
+    }
+
+    /**
+     * Registra o usuário como autor da transação de escrita corrente, além do autenticado na thread: gravações feitas
+     * por outra thread em nome dele (lote do group commit, importação de extrato) também valem para read-your-writes.
+     */
+    public static void writtenBy(String user) {
+        if (user != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            writers().users.add(user);
+        }
+    }
+
+    /**
+     * Usuário autenticado na thread, para ser levado junto quando a gravação acontece em outra thread. Vem do nome
+     * autenticado, sem consultar o banco: buscar o usuário aqui abriria outra transação roteada.
+     */
+    public static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    /**
+     * Indica se a transação corrente está lendo de uma réplica, que pode estar atrás do primário.
+     */
+    public static boolean servedByReplica() {
+        return TransactionSynchronizationManager.hasResource(REPLICA_READ);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String route = route();
+        routes.get(route).increment();
+        return route;
+    }
+
+    private String route() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return PRIMARY;
+        }
+
+        String user = currentUser();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            trackWrites(user);
+            return PRIMARY;
+        }
+
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        if ((name != null && name.startsWith(REPOSITORY_TRANSACTION)) || (user != null && wroteRecently(user))) {
+            return PRIMARY;
+        }
+
+        // o mesmo usuário lê sempre da mesma réplica, para não ver os dados voltarem no tempo entre requisições
+        String replica = replicas.get(user != null
+                ? Math.floorMod(user.hashCode(), replicas.size())
+                : Math.floorMod(next.getAndIncrement(), replicas.size()));
+        markReplicaRead(replica);
+        return replica;
+    }
+
+    // a janela conta do commit: marcada na abertura, uma transação mais longa que max_lag_ms já sairia dela
+    private void trackWrites(String user) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Writers writers = writers();
+        if (user != null) {
+            writers.users.add(user);
+        }
+        if (!writers.tracked) {
+            writers.tracked = true;
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    long now = System.currentTimeMillis();
+                    writers.users.forEach(u -> markWrite(u, now));
+                }
+            });
+        }
+    }
+
+    private static Writers writers() {
+        Writers writers = (Writers) TransactionSynchronizationManager.getResource(WRITERS);
+        if (writers == null) {
+            writers = new Writers();
+            TransactionSynchronizationManager.bindResource(WRITERS, writers);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(WRITERS);
+                }
+            });
+        }
+        return writers;
+    }
+
+    private void markWrite(String user, long now) {
+        if (lastWrite.size() > 10000) {
+            lastWrite.values().removeIf(t -> now - t > maxLagMillis);
+        }
+        lastWrite.put(user, now);
+    }
+
+    private boolean wroteRecently(String user) {
+        Long written = lastWrite.get(user);
+        if (written == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() - written > maxLagMillis) {
+            lastWrite.remove(user, written);
+            return false;
+        }
+        return true;
+    }
+
+    private static void markReplicaRead(String replica) {
+        if (TransactionSynchronizationManager.hasResource(REPLICA_READ) || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(REPLICA_READ, replica);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(REPLICA_READ);
+            }
+        });
+    }
+
+    private static class Writers {
+
+        private final Set<String> users = new HashSet<>();
+        private boolean tracked;
+    }
+}
@@ -0,0 +1,45 @@
+package com.wallet.config;
+
+import com.wallet.util.VirtualThreads;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Com virtual_threads.enabled=true (Java 21+) as requisições do Tomcat e as tarefas assíncronas do Spring MVC
+ * rodam em virtual threads. O limite de concorrência no banco passa a ser só o pool de conexões.
+ */
+@Configuration
+@ConditionalOnProperty(name = "virtual_threads.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    public VirtualThreadsConfig() {
+        if (!VirtualThreads.isSupported()) {
+            throw new IllegalStateException("virtual_threads.enabled exige Java 21 ou superior, versão atual "
+                    + System.getProperty("java.version"));
+        }
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService tomcatVirtualThreadExecutor() {
+        return VirtualThreads.newExecutor("http-virtual-");
+    }
+
+    // o Tomcat não encerra um executor externo, por isso ele é um bean com destroyMethod
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(ExecutorService tomcatVirtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(tomcatVirtualThreadExecutor);
+    }
+
+    // substitui o pool do TaskExecutionAutoConfiguration, usado pelo MVC nas respostas assíncronas (exportação)
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(VirtualThreads.newExecutor("task-virtual-"));
+    }
+}
@@ -0,0 +1,32 @@
+package com.wallet.controller;
+
+import com.wallet.cache.WalletCache;
+import com.wallet.dto.CacheStatisticsDTO;
+import com.wallet.response.Response;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("cache")
+public class CacheController {
+
+    private final WalletCache walletCache;
+
+    @Autowired
+    public CacheController(WalletCache walletCache) {
+        this.walletCache = walletCache;
+    }
+
+    @GetMapping(value = "/statistics")
+    public ResponseEntity<Response<List<CacheStatisticsDTO>>> statistics() {
+        Response<List<CacheStatisticsDTO>> response = new Response<>();
+        response.setData(walletCache.statistics());
+        return ResponseEntity.ok().body(response);
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.wallet.controller;
+
+import com.wallet.dto.ImportJobDTO;
+import com.wallet.importer.ImportJob;
+import com.wallet.importer.StatementFormat;
+import com.wallet.response.Response;
+import com.wallet.service.StatementImportService;
+import com.wallet.service.UserWalletService;
+import com.wallet.util.Util;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("wallet-item/import")
+public class StatementImportController {
+
+    private final StatementImportService service;
+    private final UserWalletService userWalletService;
+
+    @Autowired
+    public StatementImportController(StatementImportService service, UserWalletService userWalletService) {
+        this.service = service;
+        this.userWalletService = userWalletService;
+    }
+
+    @PostMapping(value = "/{wallet}")
+    public ResponseEntity<Response<ImportJobDTO>> create(@PathVariable("wallet") Long wallet,
+                                                         @RequestParam("file") MultipartFile file,
+                                                         @RequestParam(name = "format", defaultValue = "csv") String format) throws IOException {
+
+        Response<ImportJobDTO> response = new Response<>();
+
+        StatementFormat statementFormat = StatementFormat.valuesFrom(format);
+
+        if (!userWalletService.hasAccess(Util.getAuthenticatedUserId(), wallet)) {
+            response.getErrors().add("Voçê não tem acesso a essa carteira");
+        } else if (statementFormat == null) {
+            response.getErrors().add("Para o formato somente são aceitos os valores CSV ou OFX");
+        } else if (file.isEmpty()) {
+            response.getErrors().add("Envie um arquivo de extrato");
+        }
+
+        if (!response.getErrors().isEmpty()) {
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        // o upload é copiado para um arquivo próprio porque o temporário do multipart é removido ao fim da requisição
+        Path copy = Files.createTempFile("statement-", "." + statementFormat.name().toLowerCase());
+        file.transferTo(copy);
+
+        ImportJob job = service.start(wallet, statementFormat, copy);
+
+        response.setData(convertJobToDto(job));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    @GetMapping(value = "/{id}")
+    public ResponseEntity<Response<ImportJobDTO>> findById(@PathVariable("id") String id) {
+
+        Response<ImportJobDTO> response = new Response<>();
+
+        Optional<ImportJob> job = service.findById(id);
+
+        if (!job.isPresent() || !userWalletService.hasAccess(Util.getAuthenticatedUserId(), job.get().getWallet())) {
+            response.getErrors().add("Importação " + id + " não encontrada");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+
+        response.setData(convertJobToDto(job.get()));
+        return ResponseEntity.ok().body(response);
+    }
+
+    private ImportJobDTO convertJobToDto(ImportJob job) {
+        ImportJobDTO dto = new ImportJobDTO();
+        dto.setId(job.getId());
+        dto.setWallet(job.getWallet());
+        dto.setFormat(job.getFormat().name());
+        dto.setStatus(job.getStatus().name());
+        dto.setProgress(job.getProgress());
+        dto.setTotalBytes(job.getTotalBytes());
+        dto.setBytesRead(job.getBytesRead().get());
+        dto.setRowsRead(job.getRowsRead().get());
+        dto.setInserted(job.getInserted().get());
+        dto.setDuplicates(job.getDuplicates().get());
+        dto.setRejected(job.getRejected().get());
+        synchronized (job.getErrors()) {
+            dto.setErrors(new ArrayList<>(job.getErrors()));
+        }
+        dto.setStartedAt(job.getStartedAt());
+        dto.setFinishedAt(job.getFinishedAt());
+        return dto;
+    }
+}
@@ -9,6 +9,7 @@ import com.wallet.service.UserService;
 import com.wallet.util.Bcrypt;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -33,7 +34,14 @@ public class UserController {
             result.getAllErrors().forEach(e -> response.getErrors().add(e.getDefaultMessage()));
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         }
-        User user = service.save(this.convertDtoToEntity(dto));
+        User user;
+        try {
+            user = service.save(this.convertDtoToEntity(dto));
+        } catch (DataIntegrityViolationException e) {
+            // o índice único em users.email barra cadastros concorrentes com o mesmo e-mail
+            response.getErrors().add("E-mail já cadastrado");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
 
         response.setData(this.convertEntityToDto(user));
 
@@ -1,31 +1,54 @@
 package com.wallet.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.dto.PageDTO;
 import com.wallet.dto.WalletItemDTO;
-import com.wallet.entity.UserWallet;
+import com.wallet.dto.WalletSummaryDTO;
 import com.wallet.entity.Wallet;
 import com.wallet.entity.WalletItem;
+import com.wallet.entity.WalletRollup;
+import com.wallet.enums.GranularityEnum;
 import com.wallet.enums.TypeEnum;
 import com.wallet.response.Response;
 import com.wallet.service.UserWalletService;
 import com.wallet.service.WalletItemService;
 import com.wallet.util.Util;
+import com.wallet.util.WalletItemCursor;
+import com.wallet.util.WalletItemExporter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.ObjectError;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.validation.ConstraintViolation;
 import javax.validation.Valid;
+import javax.validation.Validator;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("wallet-item")
@@ -33,15 +56,25 @@ public class WalletItemController {
 
     private final WalletItemService service;
     private final UserWalletService userWalletService;
+    private final ObjectMapper mapper;
+    private final Validator validator;
+
+    @Value("${batch.max_items}")
+    private int batchMaxItems;
 
     @Autowired
-    public WalletItemController(WalletItemService service, UserWalletService userWalletService) {
+    public WalletItemController(WalletItemService service, UserWalletService userWalletService, ObjectMapper mapper, Validator validator) {
         this.service = service;
         this.userWalletService = userWalletService;
+        this.mapper = mapper;
+        this.validator = validator;
     }
 
     private static final Logger log = LoggerFactory.getLogger(WalletItemController.class);
 
+    // sem isso vai o no-store do Spring Security e os clientes não guardam a resposta para revalidar com If-None-Match
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     @PostMapping
     public ResponseEntity<Response<WalletItemDTO>> create(@Valid @RequestBody WalletItemDTO dto, BindingResult result) {
 
@@ -53,56 +86,278 @@ public class WalletItemController {
             return ResponseEntity.badRequest().body(response);
         }
 
+        if (!userWalletService.hasAccess(Util.getAuthenticatedUserId(), dto.getWallet())) {
+            response.getErrors().add("Voçê não tem acesso a essa carteira");
+            return ResponseEntity.badRequest().body(response);
+        }
+
         WalletItem wi = service.save(this.convertDtoToEntity(dto));
 
-        response.setData(this.convertEntityToDto(wi));
+        response.setData(convertEntityToDto(wi));
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @PostMapping(value = "/batch")
+    public ResponseEntity<Response<List<WalletItemDTO>>> createBatch(@RequestBody List<WalletItemDTO> dtos) {
+
+        Response<List<WalletItemDTO>> response = new Response<>();
+
+        if (dtos.isEmpty() || dtos.size() > batchMaxItems) {
+            response.getErrors().add("O lote deve ter entre 1 e " + batchMaxItems + " itens");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        for (int i = 0; i < dtos.size(); i++) {
+            WalletItemDTO dto = dtos.get(i);
+            if (dto.getId() != null) {
+                response.getErrors().add("Item " + i + ": O id não deve ser informado");
+            }
+            Set<ConstraintViolation<WalletItemDTO>> violations = validator.validate(dto);
+            for (ConstraintViolation<WalletItemDTO> v : violations) {
+                response.getErrors().add("Item " + i + ": " + v.getMessage());
+            }
+        }
+
+        if (response.getErrors().isEmpty()) {
+            Long user = Util.getAuthenticatedUserId();
+            dtos.stream().map(WalletItemDTO::getWallet).distinct()
+                    .filter(w -> !userWalletService.hasAccess(user, w))
+                    .forEach(w -> response.getErrors().add("Voçê não tem acesso à carteira " + w));
+        }
+
+        if (!response.getErrors().isEmpty()) {
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        List<WalletItem> items = new ArrayList<>(dtos.size());
+        dtos.forEach(d -> items.add(this.convertDtoToEntity(d)));
+
+        List<WalletItemDTO> saved = new ArrayList<>(items.size());
+        service.saveAll(items).forEach(i -> saved.add(convertEntityToDto(i)));
+
+        response.setData(saved);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
     @GetMapping(value = "/{wallet}")
-    public ResponseEntity<Response<Page<WalletItemDTO>>> findBetweenDates(@PathVariable("wallet") Long wallet,
-                                                                          @RequestParam("startDate") @DateTimeFormat(pattern = "dd-MM-yyyy") Date startDate,
-                                                                          @RequestParam("endDate") @DateTimeFormat(pattern = "dd-MM-yyyy") Date endDate,
-                                                                          @RequestParam(name = "page", defaultValue = "0") int page) {
+    public ResponseEntity<Response<PageDTO<WalletItemDTO>>> findBetweenDates(@PathVariable("wallet") Long wallet,
+                                                                             @RequestParam("startDate") @DateTimeFormat(pattern = "dd-MM-yyyy") Date startDate,
+                                                                             @RequestParam("endDate") @DateTimeFormat(pattern = "dd-MM-yyyy") Date endDate,
+                                                                             @RequestParam(name = "page", defaultValue = "0") int page,
+                                                                             WebRequest request) {
 
-        Response<Page<WalletItemDTO>> response = new Response<>();
+        Response<PageDTO<WalletItemDTO>> response = new Response<>();
 
-        Optional<UserWallet> uw = userWalletService.findByUsersIdAndWalletId(Util.getAuthenticatedUserId(), wallet);
+        if (!userWalletService.hasAccess(Util.getAuthenticatedUserId(), wallet)) {
+            response.getErrors().add("Voçê não tem acesso a essa carteira");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        if (notModified(request, wallet, startDate, endDate, page)) {
+            return null;
+        }
+
+        Page<WalletItemDTO> items = service.findBetweenDates(wallet, startDate, endDate, page);
+        response.setData(convertPageToDto(items));
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(response);
+    }
 
-        if(!uw.isPresent()){
+    @GetMapping(value = "/{wallet}", params = "size")
+    public ResponseEntity<Response<PageDTO<WalletItemDTO>>> findBetweenDatesByCursor(@PathVariable("wallet") Long wallet,
+                                                                                   @RequestParam("startDate") @DateTimeFormat(pattern = "dd-MM-yyyy") Date startDate,
+                                                                                   @RequestParam("endDate") @DateTimeFormat(pattern = "dd-MM-yyyy") Date endDate,
+                                                                                   @RequestParam("size") int size,
+                                                                                   @RequestParam(name = "cursor", required = false) String cursor,
+                                                                                   @RequestParam(name = "count", defaultValue = "false") boolean count,
+                                                                                   WebRequest request) {
+
+        Response<PageDTO<WalletItemDTO>> response = new Response<>();
+
+        if (!userWalletService.hasAccess(Util.getAuthenticatedUserId(), wallet)) {
             response.getErrors().add("Voçê não tem acesso a essa carteira");
             return ResponseEntity.badRequest().body(response);
         }
 
-        Page<WalletItem> items = service.findBetweenDates(wallet, startDate, endDate, page);
-        Page<WalletItemDTO> dto = items.map(i -> this.convertEntityToDto(i));
-        response.setData(dto);
-        return ResponseEntity.ok().body(response);
+        if (notModified(request, wallet, startDate, endDate, size, cursor, count)) {
+            return null;
+        }
+
+        WalletItemCursor position;
+        try {
+            position = cursor == null ? null : WalletItemCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            response.getErrors().add(e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        Slice<WalletItemDTO> items = service.findBetweenDates(wallet, startDate, endDate, position, size);
+        Long total = count ? service.countBetweenDates(wallet, startDate, endDate) : null;
+
+        response.setData(this.convertSliceToDto(items, total));
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(response);
+    }
+
+    @GetMapping(value = "/export/{wallet}")
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable("wallet") Long wallet,
+                                                        @RequestParam("startDate") @DateTimeFormat(pattern = "dd-MM-yyyy") Date startDate,
+                                                        @RequestParam("endDate") @DateTimeFormat(pattern = "dd-MM-yyyy") Date endDate,
+                                                        @RequestParam(name = "format", defaultValue = WalletItemExporter.NDJSON) String format) {
+
+        Response<String> response = new Response<>();
+
+        if (!userWalletService.hasAccess(Util.getAuthenticatedUserId(), wallet)) {
+            response.getErrors().add("Voçê não tem acesso a essa carteira");
+        } else if (!WalletItemExporter.supports(format)) {
+            response.getErrors().add("Formato de exportação inválido: " + format);
+        }
+
+        if (!response.getErrors().isEmpty()) {
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(out -> mapper.writeValue(out, response));
+        }
+
+        StreamingResponseBody body = out -> {
+            BufferedOutputStream buffered = new BufferedOutputStream(out);
+            WalletItemExporter exporter = new WalletItemExporter(format, mapper, buffered);
+            exporter.writeHeader();
+
+            service.exportBetweenDates(wallet, startDate, endDate, i -> {
+                try {
+                    exporter.write(i);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            buffered.flush();
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(WalletItemExporter.contentType(format))).body(body);
     }
 
     @GetMapping(value = "/type/{wallet}")
     public ResponseEntity<Response<List<WalletItemDTO>>> findByWalletIdAndType(@PathVariable("wallet") Long wallet,
-                                                                               @RequestParam("type") String type) {
+                                                                               @RequestParam("type") String type,
+                                                                               WebRequest request) {
 
         log.info("Buscando por carteira {} e tipo {}", wallet, type);
 
         Response<List<WalletItemDTO>> response = new Response<>();
-        List<WalletItem> list = service.findByWalletAndType(wallet, TypeEnum.valuesFrom(type));
 
-        List<WalletItemDTO> dto = new ArrayList<>();
-        list.forEach(i -> dto.add(this.convertEntityToDto(i)));
-        response.setData(dto);
-        return ResponseEntity.ok().body(response);
+        if (!userWalletService.hasAccess(Util.getAuthenticatedUserId(), wallet)) {
+            response.getErrors().add("Voçê não tem acesso a essa carteira");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        if (notModified(request, wallet, type)) {
+            return null;
+        }
+
+        response.setData(service.findByWalletAndType(wallet, TypeEnum.valuesFrom(type)));
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(response);
+    }
+
+    @GetMapping(value = "/type/{wallet}", params = "size")
+    public ResponseEntity<Response<PageDTO<WalletItemDTO>>> findByWalletIdAndTypeByCursor(@PathVariable("wallet") Long wallet,
+                                                                                        @RequestParam("type") String type,
+                                                                                        @RequestParam("size") int size,
+                                                                                        @RequestParam(name = "cursor", required = false) String cursor,
+                                                                                        @RequestParam(name = "count", defaultValue = "false") boolean count,
+                                                                                   WebRequest request) {
+
+        Response<PageDTO<WalletItemDTO>> response = new Response<>();
+
+        if (!userWalletService.hasAccess(Util.getAuthenticatedUserId(), wallet)) {
+            response.getErrors().add("Voçê não tem acesso a essa carteira");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        if (notModified(request, wallet, type, size, cursor, count)) {
+            return null;
+        }
+
+        WalletItemCursor position;
+        try {
+            position = cursor == null ? null : WalletItemCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            response.getErrors().add(e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        TypeEnum typeEnum = TypeEnum.valuesFrom(type);
+        Slice<WalletItemDTO> items = service.findByWalletAndType(wallet, typeEnum, position, size);
+        Long total = count ? service.countByWalletAndType(wallet, typeEnum) : null;
+
+        response.setData(this.convertSliceToDto(items, total));
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(response);
     }
 
     @GetMapping(value = "/total/{wallet}")
-    public ResponseEntity<Response<BigDecimal>> sumByWalletId(@PathVariable("wallet") Long wallet) {
+    public ResponseEntity<Response<BigDecimal>> sumByWalletId(@PathVariable("wallet") Long wallet, WebRequest request) {
 
         Response<BigDecimal> response = new Response<>();
+
+        if (!userWalletService.hasAccess(Util.getAuthenticatedUserId(), wallet)) {
+            response.getErrors().add("Voçê não tem acesso a essa carteira");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        if (notModified(request, wallet)) {
+            return null;
+        }
+
         BigDecimal value = service.sumByWalletId(wallet);
         response.setData(value == null ? BigDecimal.ZERO : value);
 
-        return ResponseEntity.ok().body(response);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(response);
+    }
+
+    @GetMapping(value = "/balance/{wallet}")
+    public ResponseEntity<Response<BigDecimal>> balanceAt(@PathVariable("wallet") Long wallet,
+                                                          @RequestParam("date") @DateTimeFormat(pattern = "dd-MM-yyyy") Date date,
+                                                          WebRequest request) {
+
+        Response<BigDecimal> response = new Response<>();
+
+        if (!userWalletService.hasAccess(Util.getAuthenticatedUserId(), wallet)) {
+            response.getErrors().add("Voçê não tem acesso a essa carteira");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        if (notModified(request, wallet, date)) {
+            return null;
+        }
+
+        response.setData(service.balanceAt(wallet, date));
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(response);
+    }
+
+    @GetMapping(value = "/summary/{wallet}")
+    public ResponseEntity<Response<List<WalletSummaryDTO>>> summary(@PathVariable("wallet") Long wallet,
+                                                                    @RequestParam(name = "granularity", defaultValue = "month") String granularity,
+                                                                    @RequestParam("from") @DateTimeFormat(pattern = "dd-MM-yyyy") Date from,
+                                                                    @RequestParam("to") @DateTimeFormat(pattern = "dd-MM-yyyy") Date to,
+                                                                    WebRequest request) {
+
+        Response<List<WalletSummaryDTO>> response = new Response<>();
+        GranularityEnum granularityEnum = GranularityEnum.valuesFrom(granularity);
+
+        if (!userWalletService.hasAccess(Util.getAuthenticatedUserId(), wallet)) {
+            response.getErrors().add("Voçê não tem acesso a essa carteira");
+        } else if (granularityEnum == null) {
+            response.getErrors().add("Para a granularidade somente são aceitos os valores day ou month");
+        }
+
+        if (!response.getErrors().isEmpty()) {
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        if (notModified(request, wallet, granularityEnum, from, to)) {
+            return null;
+        }
+
+        List<WalletRollup> buckets = service.findSummary(wallet, granularityEnum, from, to);
+
+        response.setData(this.convertRollupsToDto(buckets));
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(response);
     }
 
     @PutMapping
@@ -116,6 +371,8 @@ public class WalletItemController {
             result.addError(new ObjectError("WalletItem", "WalletItem não encontrado"));
         } else if (wi.get().getWallet().getId().compareTo(dto.getWallet()) != 0) {
             result.addError(new ObjectError("WalletItemChanged", "Você não pode alterar a carteira"));
+        } else if (!userWalletService.hasAccess(Util.getAuthenticatedUserId(), dto.getWallet())) {
+            result.addError(new ObjectError("UserWallet", "Voçê não tem acesso a essa carteira"));
         }
 
         if (result.hasErrors()) {
@@ -124,9 +381,16 @@ public class WalletItemController {
             return ResponseEntity.badRequest().body(response);
         }
 
-        WalletItem saved = service.save(this.convertDtoToEntity(dto));
+        // um item arquivado volta para wallet_items e é alterado; excluído no meio tempo, a resposta é a mesma da verificação
+        WalletItem saved;
+        try {
+            saved = service.save(this.convertDtoToEntity(dto));
+        } catch (EmptyResultDataAccessException e) {
+            response.getErrors().add("WalletItem não encontrado");
+            return ResponseEntity.badRequest().body(response);
+        }
 
-        response.setData(this.convertEntityToDto(saved));
+        response.setData(convertEntityToDto(saved));
         return ResponseEntity.ok().body(response);
     }
 
@@ -136,17 +400,56 @@ public class WalletItemController {
 
         Optional<WalletItem> wi = service.findById(walletItemId);
 
-        if (!wi.isPresent()) {
+        // sem acesso à carteira o item é tratado como inexistente
+        if (!wi.isPresent() || !userWalletService.hasAccess(Util.getAuthenticatedUserId(), wi.get().getWallet().getId())) {
             response.getErrors().add("WalletItem de id " + walletItemId + " não encontrada");
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
         }
 
-        service.deleteById(walletItemId);
+        try {
+            service.deleteById(walletItemId);
+        } catch (EmptyResultDataAccessException e) {
+            response.getErrors().add("WalletItem de id " + walletItemId + " não encontrada");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
         response.setData("WalletItem de id "+ walletItemId + " apagada com sucesso");
         return ResponseEntity.ok().body(response);
     }
 
-    private WalletItem convertDtoToEntity(WalletItemDTO dto) {
+    /**
+     * Compara o If-None-Match com o ETag da versão atual da carteira e dos parâmetros. Se forem iguais a resposta
+     * já é um 304 e a consulta nem é feita; senão o ETag vai no cabeçalho da resposta normal.
+     * O ETag é fraco: o Tomcat não comprime respostas com ETag forte, e o corpo com gzip é outra representação.
+     */
+    private boolean notModified(WebRequest request, Long wallet, Object... params) {
+        Optional<Long> version = service.findVersion(wallet);
+        return version.isPresent() && request.checkNotModified("W/\"" + wallet + "-" + version.get() + "-" + Integer.toHexString(Arrays.hashCode(params)) + "\"");
+    }
+
+    // as linhas de ENTRADA e SAIDA do mesmo período viram um único item, na ordem dos períodos
+    List<WalletSummaryDTO> convertRollupsToDto(List<WalletRollup> buckets) {
+        Map<LocalDate, WalletSummaryDTO> periods = new LinkedHashMap<>();
+
+        for (WalletRollup bucket : buckets) {
+            WalletSummaryDTO dto = periods.computeIfAbsent(bucket.getPeriod(), p -> {
+                WalletSummaryDTO d = new WalletSummaryDTO();
+                d.setPeriod(p);
+                return d;
+            });
+            if (bucket.getType() == TypeEnum.EN) {
+                dto.setTotalIn(bucket.getTotal());
+                dto.setCountIn(bucket.getItems());
+            } else {
+                dto.setTotalOut(bucket.getTotal());
+                dto.setCountOut(bucket.getItems());
+            }
+            dto.setBalance(dto.getTotalIn().add(dto.getTotalOut()));
+        }
+
+        return new ArrayList<>(periods.values());
+    }
+
+    WalletItem convertDtoToEntity(WalletItemDTO dto) {
         WalletItem wi = new WalletItem();
         wi.setDate(dto.getDate());
         wi.setDescription(dto.getDescription());
@@ -161,7 +464,20 @@ public class WalletItemController {
         return wi;
     }
 
-    private WalletItemDTO convertEntityToDto(WalletItem wi) {
+    private PageDTO<WalletItemDTO> convertSliceToDto(Slice<WalletItemDTO> items, Long total) {
+        String next = items.hasNext() ? WalletItemCursor.of(items.getContent().get(items.getNumberOfElements() - 1)).encode() : null;
+
+        return new PageDTO<>(items.getContent(), items.getSize(), total, next);
+    }
+
+    // na paginação por offset o next é o número da próxima página
+    static PageDTO<WalletItemDTO> convertPageToDto(Page<WalletItemDTO> items) {
+        String next = items.hasNext() ? String.valueOf(items.getNumber() + 1) : null;
+
+        return new PageDTO<>(items.getContent(), items.getSize(), items.getTotalElements(), next);
+    }
+
+    static WalletItemDTO convertEntityToDto(WalletItem wi) {
         WalletItemDTO dto = new WalletItemDTO();
         dto.setDate(wi.getDate());
         dto.setDescription(wi.getDescription());
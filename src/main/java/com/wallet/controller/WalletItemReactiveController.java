@@ -0,0 +1,85 @@
+package com.wallet.controller;
+
+import com.wallet.dto.PageDTO;
+import com.wallet.dto.WalletItemDTO;
+import com.wallet.enums.TypeEnum;
+import com.wallet.response.Response;
+import com.wallet.service.WalletItemReactiveService;
+import com.wallet.util.Util;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Mesmas leituras do WalletItemController, com as mesmas respostas, sem bloquear threads no banco. O Spring MVC
+ * devolve a thread do Tomcat ao receber o Mono e só escreve a resposta quando a consulta R2DBC termina.
+ */
+@RestController
+@RequestMapping("reactive/wallet-item")
+@ConditionalOnProperty(name = "reactive.enabled", havingValue = "true")
+public class WalletItemReactiveController {
+
+    private final WalletItemReactiveService service;
+
+    @Autowired
+    public WalletItemReactiveController(WalletItemReactiveService service) {
+        this.service = service;
+    }
+
+    @GetMapping(value = "/{wallet}")
+    public Mono<ResponseEntity<Response<PageDTO<WalletItemDTO>>>> findBetweenDates(@PathVariable("wallet") Long wallet,
+                                                                                   @RequestParam("startDate") @DateTimeFormat(pattern = "dd-MM-yyyy") Date startDate,
+                                                                                   @RequestParam("endDate") @DateTimeFormat(pattern = "dd-MM-yyyy") Date endDate,
+                                                                                   @RequestParam(name = "page", defaultValue = "0") int page) {
+
+        return withAccess(wallet, response -> service.findBetweenDates(wallet, startDate, endDate, page).map(items -> {
+            response.setData(WalletItemController.convertPageToDto(items));
+            return ResponseEntity.ok().body(response);
+        }));
+    }
+
+    @GetMapping(value = "/type/{wallet}")
+    public Mono<ResponseEntity<Response<List<WalletItemDTO>>>> findByWalletIdAndType(@PathVariable("wallet") Long wallet,
+                                                                                     @RequestParam("type") String type) {
+
+        return withAccess(wallet, response -> service.findByWalletAndType(wallet, TypeEnum.valuesFrom(type)).map(list -> {
+            response.setData(list);
+            return ResponseEntity.ok().body(response);
+        }));
+    }
+
+    @GetMapping(value = "/total/{wallet}")
+    public Mono<ResponseEntity<Response<BigDecimal>>> sumByWalletId(@PathVariable("wallet") Long wallet) {
+
+        return withAccess(wallet, response -> service.sumByWalletId(wallet).defaultIfEmpty(BigDecimal.ZERO).map(value -> {
+            response.setData(value);
+            return ResponseEntity.ok().body(response);
+        }));
+    }
+
+    // o usuário é lido aqui, na thread da requisição, onde está o SecurityContext
+    private <T> Mono<ResponseEntity<Response<T>>> withAccess(Long wallet, Function<Response<T>, Mono<ResponseEntity<Response<T>>>> query) {
+        Long user = Util.getAuthenticatedUserId();
+        Response<T> response = new Response<>();
+
+        return service.hasAccess(user, wallet).flatMap(access -> {
+            if (!access) {
+                response.getErrors().add("Voçê não tem acesso a essa carteira");
+                return Mono.just(ResponseEntity.badRequest().body(response));
+            }
+            return query.apply(response);
+        });
+    }
+}
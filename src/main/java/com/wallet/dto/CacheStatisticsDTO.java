@@ -0,0 +1,16 @@
+package com.wallet.dto;
+
+import lombok.Data;
+
+@Data
+public class CacheStatisticsDTO {
+
+    private String name;
+    private long wallets;
+    private long hits;
+    private long misses;
+    private long invalidations;
+    private long evictions;
+    private long expirations;
+
+}
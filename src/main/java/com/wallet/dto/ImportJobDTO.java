@@ -0,0 +1,29 @@
+package com.wallet.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.util.Date;
+import java.util.List;
+
+@Data
+public class ImportJobDTO {
+
+    private String id;
+    private Long wallet;
+    private String format;
+    private String status;
+    private int progress;
+    private long totalBytes;
+    private long bytesRead;
+    private long rowsRead;
+    private long inserted;
+    private long duplicates;
+    private long rejected;
+    private List<String> errors;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy HH:mm:ss", locale = "pt-BR", timezone = "Brazil/East")
+    private Date startedAt;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy HH:mm:ss", locale = "pt-BR", timezone = "Brazil/East")
+    private Date finishedAt;
+
+}
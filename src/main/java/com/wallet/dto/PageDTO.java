@@ -0,0 +1,21 @@
+package com.wallet.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageDTO<T> {
+
+    private List<T> content;
+    private int size;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long total;
+    private String next;
+
+}
@@ -1,6 +1,7 @@
 package com.wallet.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.Data;
 import org.hibernate.validator.constraints.Length;
 
@@ -10,6 +11,7 @@ import java.math.BigDecimal;
 import java.util.Date;
 
 @Data
+@JsonSerialize(using = WalletItemDTOSerializer.class)
 public class WalletItemDTO {
 
     private Long id;
@@ -0,0 +1,87 @@
+package com.wallet.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+
+/**
+ * Serializa o WalletItemDTO sem introspecção: nomes de campo pré-codificados e a data formatada por um
+ * DateTimeFormatter imutável, no mesmo formato do @JsonFormat do DTO (que continua valendo na leitura).
+ */
+public class WalletItemDTOSerializer extends StdSerializer<WalletItemDTO> {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy").withZone(ZoneId.of("Brazil/East"));
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString WALLET = new SerializedString("wallet");
+    private static final SerializedString DATE = new SerializedString("date");
+    private static final SerializedString TYPE = new SerializedString("type");
+    private static final SerializedString DESCRIPTION = new SerializedString("description");
+    private static final SerializedString VALUE = new SerializedString("value");
+
+    // os itens de uma página costumam repetir a data, então guarda a última formatada
+    private volatile FormattedDate last = new FormattedDate(Long.MIN_VALUE, null);
+
+    public WalletItemDTOSerializer() {
+        super(WalletItemDTO.class);
+    }
+
+    @Override
+    public void serialize(WalletItemDTO dto, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(dto);
+        gen.writeFieldName(ID);
+        writeNumber(gen, dto.getId());
+        gen.writeFieldName(WALLET);
+        writeNumber(gen, dto.getWallet());
+        gen.writeFieldName(DATE);
+        if (dto.getDate() == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(format(dto.getDate()));
+        }
+        gen.writeFieldName(TYPE);
+        gen.writeString(dto.getType());
+        gen.writeFieldName(DESCRIPTION);
+        gen.writeString(dto.getDescription());
+        gen.writeFieldName(VALUE);
+        gen.writeNumber(dto.getValue());
+        gen.writeEndObject();
+    }
+
+    private String format(Date date) {
+        long millis = date.getTime();
+        FormattedDate cached = last;
+        if (cached.millis == millis) {
+            return cached.text;
+        }
+        String text = DATE_FORMAT.format(Instant.ofEpochMilli(millis));
+        last = new FormattedDate(millis, text);
+        return text;
+    }
+
+    private static void writeNumber(JsonGenerator gen, Long value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    private static final class FormattedDate {
+
+        private final long millis;
+        private final String text;
+
+        private FormattedDate(long millis, String text) {
+            this.millis = millis;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.wallet.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+public class WalletSummaryDTO {
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy")
+    private LocalDate period;
+    private BigDecimal totalIn = BigDecimal.ZERO;
+    private BigDecimal totalOut = BigDecimal.ZERO;
+    private BigDecimal balance = BigDecimal.ZERO;
+    private long countIn;
+    private long countOut;
+
+}
@@ -0,0 +1,41 @@
+package com.wallet.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+import java.io.Serializable;
+
+/**
+ * Hash de conteúdo dos lançamentos já importados por carteira, usado para descartar duplicados.
+ */
+@Entity
+@Table(name = "import_hash")
+@IdClass(ImportHash.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportHash implements Serializable {
+
+    private static final long serialVersionUID = -3322514795618476117L;
+
+    @Id
+    private Long wallet;
+    @Id
+    private String hash;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private static final long serialVersionUID = 6207454217745380212L;
+
+        private Long wallet;
+        private String hash;
+    }
+}
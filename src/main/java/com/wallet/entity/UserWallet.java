@@ -6,14 +6,15 @@ import javax.persistence.*;
 import java.io.Serializable;
 
 @Entity
-@Table(name = "users_wallet")
+@Table(name = "users_wallet", indexes = @Index(name = "users_wallet_users_wallet_uk", columnList = "users, wallet", unique = true))
 @Data
 public class UserWallet implements Serializable {
 
     private static final long serialVersionUID = -8104860055294069590L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_wallet_id_seq")
+    @SequenceGenerator(name = "users_wallet_id_seq", sequenceName = "users_wallet_id_seq", allocationSize = 50)
     private Long id;
     @JoinColumn(name = "users", referencedColumnName = "id")
     @ManyToOne(fetch = FetchType.LAZY)
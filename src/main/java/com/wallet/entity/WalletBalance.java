@@ -0,0 +1,39 @@
+package com.wallet.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Saldo materializado de uma carteira, mantido a cada escrita em wallet_items.
+ * O campo balance espelha o resultado de {@code select sum(value)} da carteira, e version
+ * aumenta a cada escrita, servindo de ETag para as leituras da carteira.
+ */
+@Entity
+@Table(name = "wallet_balance")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletBalance implements Serializable {
+
+    private static final long serialVersionUID = 3514270735806318231L;
+
+    @Id
+    private Long wallet;
+    @NotNull
+    private BigDecimal balance;
+    @NotNull
+    private BigDecimal totalIn;
+    @NotNull
+    private BigDecimal totalOut;
+    @ColumnDefault("0")
+    private long version;
+}
@@ -0,0 +1,49 @@
+package com.wallet.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Saldo de uma carteira ao final do dia {@code date}, gravado no último dia de cada mês. Lançamentos
+ * retroativos corrigem os checkpoints a partir da data do lançamento.
+ */
+@Entity
+// a PK gerada pelo Hibernate segue a ordem alfabética (date, wallet); no PostgreSQL a PK do V8 já é (wallet, date)
+@Table(name = "wallet_checkpoint", indexes = @Index(name = "wallet_checkpoint_wallet_date_idx", columnList = "wallet, date"))
+@IdClass(WalletCheckpoint.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletCheckpoint implements Serializable {
+
+    private static final long serialVersionUID = -6581839244402271934L;
+
+    @Id
+    private Long wallet;
+    @Id
+    private LocalDate date;
+    @NotNull
+    private BigDecimal balance;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private static final long serialVersionUID = 4457419805337913560L;
+
+        private Long wallet;
+        private LocalDate date;
+    }
+}
@@ -12,7 +12,9 @@ import java.math.BigDecimal;
 import java.util.Date;
 
 @Entity
-@Table(name = "wallet_items")
+@Table(name = "wallet_items", indexes = {
+        @Index(name = "wallet_items_wallet_date_idx", columnList = "wallet, date, id"),
+        @Index(name = "wallet_items_wallet_type_date_idx", columnList = "wallet, type, date, id")})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -21,7 +23,8 @@ public class WalletItem implements Serializable {
     private static final long serialVersionUID = -1796790346218894235L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wallet_items_id_seq")
+    @SequenceGenerator(name = "wallet_items_id_seq", sequenceName = "wallet_items_id_seq", allocationSize = 50)
     private Long id;
     @JoinColumn(name = "wallet", referencedColumnName = "id")
     @ManyToOne(fetch = FetchType.LAZY)
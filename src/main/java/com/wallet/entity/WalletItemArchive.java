@@ -0,0 +1,46 @@
+package com.wallet.entity;
+
+import com.wallet.enums.TypeEnum;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Lançamento antigo movido de wallet_items pelo WalletItemArchiveJob, com o mesmo id. As leituras do
+ * WalletItemReadRepository cobrem as duas tabelas; alterações e exclusões devolvem o lançamento a wallet_items antes.
+ */
+@Entity
+@Table(name = "wallet_items_archive", indexes = {
+        @Index(name = "wallet_items_archive_wallet_date_idx", columnList = "wallet, date, id"),
+        @Index(name = "wallet_items_archive_wallet_type_date_idx", columnList = "wallet, type, date, id")})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletItemArchive implements Serializable {
+
+    private static final long serialVersionUID = 4127683512990187412L;
+
+    @Id
+    private Long id;
+    private Long wallet;
+    @NotNull
+    private Date date;
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private TypeEnum type;
+    @NotNull
+    private String description;
+    @NotNull
+    private BigDecimal value;
+}
@@ -0,0 +1,61 @@
+package com.wallet.entity;
+
+import com.wallet.enums.GranularityEnum;
+import com.wallet.enums.TypeEnum;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Soma e quantidade de lançamentos de uma carteira por dia ou mês e tipo, mantidas a cada escrita em
+ * wallet_items como o saldo materializado. O período é o primeiro dia do dia/mês.
+ */
+@Entity
+@Table(name = "wallet_rollup")
+@IdClass(WalletRollup.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletRollup implements Serializable {
+
+    private static final long serialVersionUID = 5290637916215447203L;
+
+    @Id
+    private Long wallet;
+    @Id
+    @Enumerated(EnumType.STRING)
+    private GranularityEnum granularity;
+    @Id
+    private LocalDate period;
+    @Id
+    @Enumerated(EnumType.STRING)
+    private TypeEnum type;
+    @NotNull
+    private BigDecimal total;
+    @NotNull
+    private Long items;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private static final long serialVersionUID = -2436170470815342918L;
+
+        private Long wallet;
+        private GranularityEnum granularity;
+        private LocalDate period;
+        private TypeEnum type;
+    }
+}
@@ -0,0 +1,33 @@
+package com.wallet.enums;
+
+import java.time.LocalDate;
+
+public enum GranularityEnum {
+
+    DAY("day"),
+    MONTH("month");
+
+    private final String value;
+
+    GranularityEnum(String value) {
+        this.value = value;
+    }
+
+    public String getValue(){
+        return this.value;
+    }
+
+    // início do período ao qual a data pertence
+    public LocalDate truncate(LocalDate date) {
+        return this == MONTH ? date.withDayOfMonth(1) : date;
+    }
+
+    public static GranularityEnum valuesFrom(String value){
+        for (GranularityEnum g: values()){
+            if(value.equalsIgnoreCase(g.getValue())){
+                return g;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,161 @@
+package com.wallet.importer;
+
+import com.wallet.enums.TypeEnum;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Extrato em CSV com cabeçalho. Colunas reconhecidas: date/data, description/descricao, value/valor e,
+ * opcionalmente, type/tipo (ENTRADA ou SAIDA). Sem a coluna de tipo o sinal do valor define o lançamento.
+ * Cabeçalhos separados por ';' indicam o formato brasileiro, com vírgula decimal.
+ */
+public class CsvStatementParser implements StatementParser {
+
+    private static final DateTimeFormatter[] DATE_FORMATS = {
+            DateTimeFormatter.ofPattern("dd-MM-yyyy"),
+            DateTimeFormatter.ofPattern("dd/MM/yyyy"),
+            DateTimeFormatter.ISO_LOCAL_DATE
+    };
+
+    private final BufferedReader reader;
+    private char delimiter;
+    private int dateColumn = -1;
+    private int descriptionColumn = -1;
+    private int valueColumn = -1;
+    private int typeColumn = -1;
+    private long line;
+
+    public CsvStatementParser(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    @Override
+    public StatementRow next() throws IOException {
+        if (line == 0) {
+            readHeader();
+        }
+
+        String raw;
+        do {
+            raw = reader.readLine();
+            line++;
+            if (raw == null) {
+                return null;
+            }
+        } while (raw.trim().isEmpty());
+
+        List<String> fields = split(raw);
+        try {
+            LocalDate date = parseDate(field(fields, dateColumn));
+            BigDecimal value = parseValue(field(fields, valueColumn));
+            TypeEnum type = typeColumn < 0 || field(fields, typeColumn).isEmpty() ? null : TypeEnum.valuesFrom(field(fields, typeColumn));
+
+            if (typeColumn >= 0 && !field(fields, typeColumn).isEmpty() && type == null) {
+                throw new StatementParseException("Tipo inválido: " + field(fields, typeColumn));
+            }
+            return StatementParser.toRow(date, value, type, field(fields, descriptionColumn));
+        } catch (StatementParseException e) {
+            throw new StatementParseException("Linha " + line + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void readHeader() throws IOException {
+        String header = reader.readLine();
+        line++;
+        if (header == null) {
+            throw new IOException("Arquivo CSV vazio");
+        }
+        if (!header.isEmpty() && header.charAt(0) == '\uFEFF') {
+            header = header.substring(1);
+        }
+        delimiter = header.indexOf(';') >= 0 ? ';' : ',';
+
+        List<String> columns = split(header);
+        for (int i = 0; i < columns.size(); i++) {
+            String column = columns.get(i).trim().toLowerCase(Locale.ROOT);
+            if (column.equals("date") || column.equals("data")) {
+                dateColumn = i;
+            } else if (column.equals("description") || column.equals("descricao") || column.equals("descrição")) {
+                descriptionColumn = i;
+            } else if (column.equals("value") || column.equals("valor")) {
+                valueColumn = i;
+            } else if (column.equals("type") || column.equals("tipo")) {
+                typeColumn = i;
+            }
+        }
+
+        if (dateColumn < 0 || descriptionColumn < 0 || valueColumn < 0) {
+            throw new IOException("O cabeçalho do CSV deve conter as colunas date, description e value");
+        }
+    }
+
+    private List<String> split(String raw) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < raw.length() && raw.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private String field(List<String> fields, int index) {
+        if (index >= fields.size()) {
+            throw new StatementParseException("Quantidade de colunas inválida");
+        }
+        return fields.get(index).trim();
+    }
+
+    private LocalDate parseDate(String value) {
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(value, format);
+            } catch (DateTimeParseException e) {
+                // tenta o próximo formato
+            }
+        }
+        throw new StatementParseException("Data inválida: " + value);
+    }
+
+    private BigDecimal parseValue(String value) {
+        String normalized = delimiter == ';' ? value.replace(".", "").replace(',', '.') : value;
+        try {
+            return new BigDecimal(normalized);
+        } catch (NumberFormatException e) {
+            throw new StatementParseException("Valor inválido: " + value);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.wallet.importer;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estado de uma importação de extrato, atualizado pela thread de importação e lido pelas consultas de progresso.
+ */
+@Getter
+public class ImportJob {
+
+    private static final int MAX_ERRORS = 100;
+
+    public enum Status { PENDING, RUNNING, DONE, FAILED }
+
+    private final String id;
+    private final Long wallet;
+    private final StatementFormat format;
+    private final long totalBytes;
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong inserted = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+    private volatile Status status = Status.PENDING;
+    private volatile Date startedAt;
+    private volatile Date finishedAt;
+
+    public ImportJob(String id, Long wallet, StatementFormat format, long totalBytes) {
+        this.id = id;
+        this.wallet = wallet;
+        this.format = format;
+        this.totalBytes = totalBytes;
+    }
+
+    public int getProgress() {
+        if (status == Status.DONE) {
+            return 100;
+        }
+        return totalBytes <= 0 ? 0 : (int) Math.min(99, bytesRead.get() * 100 / totalBytes);
+    }
+
+    public void addError(String error) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(error);
+        }
+    }
+
+    public void start() {
+        startedAt = new Date();
+        status = Status.RUNNING;
+    }
+
+    public void finish(Status result) {
+        finishedAt = new Date();
+        status = result;
+    }
+
+    public boolean isFinished() {
+        return status == Status.DONE || status == Status.FAILED;
+    }
+}
@@ -0,0 +1,123 @@
+package com.wallet.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * Extrato OFX (SGML 1.x ou XML 2.x). O arquivo é lido como uma sequência de tags, o que também cobre
+ * arquivos gerados em uma única linha e tags sem fechamento. Cada bloco STMTTRN vira um lançamento,
+ * usando DTPOSTED, TRNAMT e MEMO (ou NAME na ausência de MEMO).
+ */
+public class OfxStatementParser implements StatementParser {
+
+    private static final DateTimeFormatter OFX_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final BufferedReader reader;
+    private final StringBuilder token = new StringBuilder();
+    private long transactions;
+
+    public OfxStatementParser(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    @Override
+    public StatementRow next() throws IOException {
+        String tag;
+        while ((tag = nextTag()) != null) {
+            if (tag.equals("STMTTRN")) {
+                transactions++;
+                return readTransaction();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private StatementRow readTransaction() throws IOException {
+        String posted = null;
+        String amount = null;
+        String memo = null;
+        String name = null;
+
+        String tag;
+        while ((tag = nextTag()) != null && !tag.equals("/STMTTRN")) {
+            switch (tag) {
+                case "DTPOSTED":
+                    posted = readText();
+                    break;
+                case "TRNAMT":
+                    amount = readText();
+                    break;
+                case "MEMO":
+                    memo = readText();
+                    break;
+                case "NAME":
+                    name = readText();
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        try {
+            if (posted == null || posted.length() < 8 || amount == null) {
+                throw new StatementParseException("DTPOSTED e TRNAMT são obrigatórios");
+            }
+            LocalDate date = LocalDate.parse(posted.substring(0, 8), OFX_DATE);
+            BigDecimal value = new BigDecimal(amount.replace(',', '.'));
+
+            return StatementParser.toRow(date, value, null, memo != null && !memo.isEmpty() ? memo : name);
+        } catch (DateTimeParseException | NumberFormatException | StatementParseException e) {
+            throw new StatementParseException("Transação " + transactions + ": " + e.getMessage(), e);
+        }
+    }
+
+    private String nextTag() throws IOException {
+        int c;
+        while ((c = reader.read()) != -1 && c != '<') {
+            // ignora o conteúdo fora das tags de interesse
+        }
+        if (c == -1) {
+            return null;
+        }
+
+        token.setLength(0);
+        while ((c = reader.read()) != -1 && c != '>') {
+            token.append((char) c);
+        }
+        return token.toString().trim().toUpperCase(Locale.ROOT);
+    }
+
+    // lê o valor até a próxima tag, deixando o '<' para a próxima leitura
+    private String readText() throws IOException {
+        token.setLength(0);
+        int c;
+        while (true) {
+            reader.mark(1);
+            c = reader.read();
+            if (c == -1) {
+                break;
+            }
+            if (c == '<') {
+                reader.reset();
+                break;
+            }
+            token.append((char) c);
+        }
+        return unescape(token.toString().trim());
+    }
+
+    private static String unescape(String value) {
+        return value.replace("&lt;", "<").replace("&gt;", ">").replace("&amp;", "&");
+    }
+}
@@ -0,0 +1,16 @@
+package com.wallet.importer;
+
+public enum StatementFormat {
+
+    CSV,
+    OFX;
+
+    public static StatementFormat valuesFrom(String value) {
+        for (StatementFormat f : values()) {
+            if (f.name().equalsIgnoreCase(value)) {
+                return f;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,14 @@
+package com.wallet.importer;
+
+public class StatementParseException extends RuntimeException {
+
+    private static final long serialVersionUID = 2911857232365472148L;
+
+    public StatementParseException(String message) {
+        super(message);
+    }
+
+    public StatementParseException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,44 @@
+package com.wallet.importer;
+
+import com.wallet.enums.TypeEnum;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+
+/**
+ * Lê um extrato sequencialmente, um lançamento por chamada, sem carregar o arquivo em memória.
+ */
+public interface StatementParser extends Closeable {
+
+    int MAX_DESCRIPTION = 500;
+    BigDecimal MAX_VALUE = new BigDecimal("99999999.99");
+
+    /**
+     * @return o próximo lançamento ou null no fim do arquivo
+     * @throws StatementParseException se o lançamento corrente for inválido; a leitura pode continuar
+     */
+    StatementRow next() throws IOException;
+
+    static StatementParser of(StatementFormat format, Reader reader) {
+        return format == StatementFormat.OFX ? new OfxStatementParser(reader) : new CsvStatementParser(reader);
+    }
+
+    static StatementRow toRow(LocalDate date, BigDecimal signedValue, TypeEnum type, String description) {
+        if (description == null || description.trim().isEmpty()) {
+            throw new StatementParseException("Descrição vazia");
+        }
+        BigDecimal value = signedValue.abs().setScale(2, RoundingMode.HALF_UP);
+        if (value.compareTo(MAX_VALUE) > 0) {
+            throw new StatementParseException("Valor fora do limite: " + signedValue.toPlainString());
+        }
+        String trimmed = description.trim();
+        TypeEnum resolved = type != null ? type : signedValue.signum() < 0 ? TypeEnum.SD : TypeEnum.EN;
+
+        // como nos demais lançamentos, saídas ficam negativas e o saldo é a soma dos valores
+        return new StatementRow(date, resolved, resolved == TypeEnum.SD ? value.negate() : value, trimmed.length() > MAX_DESCRIPTION ? trimmed.substring(0, MAX_DESCRIPTION) : trimmed);
+    }
+}
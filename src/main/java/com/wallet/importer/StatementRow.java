@@ -0,0 +1,48 @@
+package com.wallet.importer;
+
+import com.wallet.enums.TypeEnum;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+
+/**
+ * Lançamento lido de um extrato. O valor é negativo nas saídas (SD) e positivo nas entradas, qualquer que
+ * seja o sinal no arquivo quando o tipo vem explícito.
+ */
+@Getter
+public class StatementRow {
+
+    private final LocalDate date;
+    private final TypeEnum type;
+    private final BigDecimal value;
+    private final String description;
+    private final String hash;
+
+    public StatementRow(LocalDate date, TypeEnum type, BigDecimal value, String description) {
+        this.date = date;
+        this.type = type;
+        this.value = value;
+        this.description = description;
+        this.hash = hash(date, value, description);
+    }
+
+    // hash do conteúdo usado para descartar lançamentos já importados na carteira
+    private static String hash(LocalDate date, BigDecimal signedValue, String description) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = digest.digest((date + "|" + signedValue.toPlainString() + "|" + description).getBytes(StandardCharsets.UTF_8));
+
+            StringBuilder hex = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
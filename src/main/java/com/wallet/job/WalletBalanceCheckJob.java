@@ -0,0 +1,51 @@
+package com.wallet.job;
+
+import com.wallet.entity.WalletBalance;
+import com.wallet.repository.WalletBalanceRepository;
+import com.wallet.service.WalletBalanceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class WalletBalanceCheckJob {
+
+    private static final Logger log = LoggerFactory.getLogger(WalletBalanceCheckJob.class);
+    private static final int PAGE_SIZE = 500;
+
+    private final WalletBalanceRepository repository;
+    private final WalletBalanceService service;
+
+    @Autowired
+    public WalletBalanceCheckJob(WalletBalanceRepository repository, WalletBalanceService service) {
+        this.repository = repository;
+        this.service = service;
+    }
+
+    @Scheduled(cron = "${balance.check.cron:-}")
+    public void run() {
+        int checked = 0;
+        int repaired = 0;
+        Page<WalletBalance> page = repository.findAll(PageRequest.of(0, PAGE_SIZE, Sort.by("wallet")));
+
+        while (true) {
+            for (WalletBalance balance : page) {
+                checked++;
+                if (!service.verify(balance.getWallet())) {
+                    repaired++;
+                }
+            }
+            if (!page.hasNext()) {
+                break;
+            }
+            page = repository.findAll(page.nextPageable());
+        }
+
+        log.info("Verificação de saldos concluída: {} carteiras, {} corrigidas", checked, repaired);
+    }
+}
@@ -0,0 +1,54 @@
+package com.wallet.job;
+
+import com.wallet.entity.Wallet;
+import com.wallet.repository.WalletRepository;
+import com.wallet.service.WalletCheckpointService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Grava o checkpoint de saldo do último mês fechado de cada carteira. Rodar mais de uma vez no mês não
+ * tem efeito, e uma carteira sem checkpoints recebe todos os meses desde o primeiro lançamento.
+ */
+@Component
+public class WalletCheckpointJob {
+
+    private static final Logger log = LoggerFactory.getLogger(WalletCheckpointJob.class);
+    private static final int PAGE_SIZE = 500;
+
+    private final WalletRepository repository;
+    private final WalletCheckpointService service;
+
+    @Autowired
+    public WalletCheckpointJob(WalletRepository repository, WalletCheckpointService service) {
+        this.repository = repository;
+        this.service = service;
+    }
+
+    @Scheduled(cron = "${checkpoint.cron:-}")
+    public void run() {
+        LocalDate until = LocalDate.now().withDayOfMonth(1).minusDays(1);
+        int created = 0;
+        Page<Wallet> page = repository.findAll(PageRequest.of(0, PAGE_SIZE, Sort.by("id")));
+
+        while (true) {
+            for (Wallet wallet : page) {
+                created += service.checkpoint(wallet.getId(), until);
+            }
+            if (!page.hasNext()) {
+                break;
+            }
+            page = repository.findAll(page.nextPageable());
+        }
+
+        log.info("Checkpoints de saldo até {} concluídos: {} gravados", until, created);
+    }
+}
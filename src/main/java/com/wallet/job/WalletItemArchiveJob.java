@@ -0,0 +1,75 @@
+package com.wallet.job;
+
+import com.wallet.service.WalletItemArchiveService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Move para wallet_items_archive os lançamentos de meses anteriores aos últimos archive.after_months, em lotes de
+ * archive.batch_size com archive.pause_ms entre eles, para não disputar o banco com as requisições.
+ * Com archive.after_months=0 não faz nada.
+ */
+@Component
+public class WalletItemArchiveJob {
+
+    private static final Logger log = LoggerFactory.getLogger(WalletItemArchiveJob.class);
+
+    private final WalletItemArchiveService service;
+    private final int afterMonths;
+    private final int batchSize;
+    private final long pauseMillis;
+
+    @Autowired
+    public WalletItemArchiveJob(WalletItemArchiveService service,
+                                @Value("${archive.after_months:0}") int afterMonths,
+                                @Value("${archive.batch_size:1000}") int batchSize,
+                                @Value("${archive.pause_ms:200}") long pauseMillis) {
+        this.service = service;
+        this.afterMonths = afterMonths;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+    }
+
+    @Scheduled(cron = "${archive.cron:-}")
+    public void run() {
+        if (afterMonths <= 0) {
+            return;
+        }
+
+        LocalDate before = LocalDate.now().withDayOfMonth(1).minusMonths(afterMonths);
+        log.info("Arquivamento dos lançamentos anteriores a {} concluído: {} movidos", before, archive(before));
+    }
+
+    /**
+     * Arquiva em lotes tudo o que for anterior a before e devolve quantos lançamentos foram movidos.
+     */
+    public long archive(LocalDate before) {
+        // o primeiro bloco do otimizador pooled numa sequence nova tem ids negativos
+        long lastId = Long.MIN_VALUE;
+        long archived = 0;
+
+        while (true) {
+            List<Long> ids = service.archive(before, lastId, batchSize);
+            archived += ids.size();
+            if (ids.size() < batchSize) {
+                return archived;
+            }
+            lastId = ids.get(ids.size() - 1);
+
+            try {
+                Thread.sleep(pauseMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Arquivamento interrompido em {} lançamentos, até o id {}", archived, lastId);
+                return archived;
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.wallet.job;
+
+import com.wallet.service.WalletItemPartitionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Mantém as partições mensais de wallet_items: cria as de partition.months_ahead meses à frente e, com
+ * partition.retention_months maior que zero, desanexa as que só cobrem meses mais antigos que isso e que o
+ * arquivamento já esvaziou. Roda também na subida da aplicação, em todas as instâncias: cada criação ou detach
+ * espera o advisory lock e confere de novo as partições. Sem a tabela particionada (H2, schema do Hibernate) não faz nada.
+ */
+@Component
+public class WalletItemPartitionJob {
+
+    private static final Logger log = LoggerFactory.getLogger(WalletItemPartitionJob.class);
+
+    private final WalletItemPartitionService service;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    @Autowired
+    public WalletItemPartitionJob(WalletItemPartitionService service,
+                                  @Value("${partition.months_ahead:3}") int monthsAhead,
+                                  @Value("${partition.retention_months:0}") int retentionMonths) {
+        this.service = service;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${partition.cron:-}")
+    public void run() {
+        if (!service.isPartitioned()) {
+            return;
+        }
+
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        int created = 0;
+        for (LocalDate missing : service.findMissingMonths(month, month.plusMonths(monthsAhead))) {
+            if (service.createMonth(missing)) {
+                created++;
+            }
+        }
+
+        List<String> expired = retentionMonths > 0 ? service.findExpired(month.minusMonths(retentionMonths)) : Collections.emptyList();
+        List<String> detached = new ArrayList<>();
+        for (String name : expired) {
+            try {
+                if (service.detach(name)) {
+                    detached.add(name);
+                }
+            } catch (IllegalStateException e) {
+                log.warn(e.getMessage());
+            }
+        }
+
+        log.info("Partições de wallet_items: {} criadas, {} desanexadas {}", created, detached.size(), detached);
+    }
+}
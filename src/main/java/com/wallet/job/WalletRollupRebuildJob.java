@@ -0,0 +1,52 @@
+package com.wallet.job;
+
+import com.wallet.entity.Wallet;
+import com.wallet.repository.WalletRepository;
+import com.wallet.service.WalletRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recalcula do zero os totais por período de todas as carteiras. Desligado por padrão; os totais são mantidos
+ * a cada escrita e a reconstrução só é necessária após cargas feitas por fora da aplicação.
+ */
+@Component
+public class WalletRollupRebuildJob {
+
+    private static final Logger log = LoggerFactory.getLogger(WalletRollupRebuildJob.class);
+    private static final int PAGE_SIZE = 500;
+
+    private final WalletRepository repository;
+    private final WalletRollupService service;
+
+    @Autowired
+    public WalletRollupRebuildJob(WalletRepository repository, WalletRollupService service) {
+        this.repository = repository;
+        this.service = service;
+    }
+
+    @Scheduled(cron = "${rollup.rebuild.cron:-}")
+    public void run() {
+        int rebuilt = 0;
+        Page<Wallet> page = repository.findAll(PageRequest.of(0, PAGE_SIZE, Sort.by("id")));
+
+        while (true) {
+            for (Wallet wallet : page) {
+                service.rebuild(wallet.getId());
+                rebuilt++;
+            }
+            if (!page.hasNext()) {
+                break;
+            }
+            page = repository.findAll(page.nextPageable());
+        }
+
+        log.info("Reconstrução dos totais por período concluída: {} carteiras", rebuilt);
+    }
+}
@@ -0,0 +1,118 @@
+package com.wallet.repository;
+
+import com.wallet.entity.Wallet;
+import com.wallet.entity.WalletItem;
+import com.wallet.enums.TypeEnum;
+import com.wallet.importer.StatementRow;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Acesso JDBC usado pela importação de extratos. No PostgreSQL os lançamentos entram por COPY em uma
+ * tabela temporária e são mesclados em wallet_items em um único comando; nos demais bancos a importação
+ * usa o insert em lote do JPA e as consultas de hash abaixo.
+ */
+@Repository
+public class StatementImportRepository {
+
+    private static final String CREATE_STAGING = "create temp table if not exists wallet_items_staging (" +
+            "wallet integer, date date, type varchar(2), description varchar(500), value numeric(10,2), hash varchar(64)" +
+            ") on commit delete rows";
+
+    private static final String COPY_STAGING = "copy wallet_items_staging (wallet, date, type, description, value, hash) from stdin with (format csv)";
+
+    private static final String MERGE_STAGING = "with staged as (" +
+            "  select distinct on (hash) wallet, date, type, description, value, hash from wallet_items_staging" +
+            "), new_hashes as (" +
+            "  insert into import_hash (wallet, hash) select wallet, hash from staged on conflict do nothing returning hash" +
+            ") " +
+            "insert into wallet_items (id, wallet, date, type, description, value) " +
+            "select nextval('wallet_items_id_seq'), s.wallet, s.date, s.type, s.description, s.value from staged s join new_hashes n on n.hash = s.hash " +
+            "returning id, date, type, value";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private volatile Boolean postgres;
+
+    @Autowired
+    public StatementImportRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    public boolean supportsCopy() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) c -> "PostgreSQL".equals(c.getMetaData().getDatabaseProductName()));
+        }
+        return postgres;
+    }
+
+    /**
+     * Deve ser chamado dentro de uma transação. Retorna os itens efetivamente inseridos, sem a descrição.
+     */
+    public List<WalletItem> copyAndMerge(Long wallet, List<StatementRow> rows) {
+        return jdbcTemplate.execute((ConnectionCallback<List<WalletItem>>) c -> {
+            try (Statement st = c.createStatement()) {
+                st.execute(CREATE_STAGING);
+            }
+
+            StringBuilder csv = new StringBuilder(rows.size() * 96);
+            for (StatementRow row : rows) {
+                csv.append(wallet).append(',').append(row.getDate()).append(',').append(row.getType().name()).append(',')
+                        .append('"').append(row.getDescription().replace("\"", "\"\"")).append('"').append(',')
+                        .append(row.getValue().toPlainString()).append(',').append(row.getHash()).append('\n');
+            }
+
+            CopyManager copyManager = c.unwrap(PGConnection.class).getCopyAPI();
+            try {
+                copyManager.copyIn(COPY_STAGING, new StringReader(csv.toString()));
+            } catch (IOException e) {
+                throw new SQLException("Falha no COPY do extrato", e);
+            }
+
+            Wallet reference = new Wallet();
+            reference.setId(wallet);
+
+            List<WalletItem> inserted = new ArrayList<>();
+            try (Statement st = c.createStatement(); ResultSet rs = st.executeQuery(MERGE_STAGING)) {
+                while (rs.next()) {
+                    inserted.add(new WalletItem(rs.getLong(1), reference, rs.getDate(2), TypeEnum.valueOf(rs.getString(3)), null, rs.getBigDecimal(4)));
+                }
+            }
+            return inserted;
+        });
+    }
+
+    public Set<String> findExistingHashes(Long wallet, Collection<String> hashes) {
+        if (hashes.isEmpty()) {
+            return new HashSet<>();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("wallet", wallet).addValue("hashes", hashes);
+
+        return new HashSet<>(namedJdbcTemplate.queryForList("select hash from import_hash where wallet = :wallet and hash in (:hashes)", params, String.class));
+    }
+
+    public void saveHashes(Long wallet, Collection<String> hashes) {
+        List<Object[]> args = new ArrayList<>(hashes.size());
+        hashes.forEach(h -> args.add(new Object[]{wallet, h}));
+
+        jdbcTemplate.batchUpdate("insert into import_hash (wallet, hash) values (?, ?)", args);
+    }
+}
@@ -2,11 +2,21 @@ package com.wallet.repository;
 
 import com.wallet.entity.UserWallet;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserWalletRepository extends JpaRepository<UserWallet, Long> {
 
-    Optional<UserWallet> findByUsersIdAndWalletId(Long user, Long wallet);
+    @Query("select uw from UserWallet uw where uw.users.id = :user and uw.wallet.id = :wallet")
+    Optional<UserWallet> findByUsersIdAndWalletId(@Param("user") Long user, @Param("wallet") Long wallet);
+
+    @Query("select uw.wallet.id from UserWallet uw where uw.users.id = :user")
+    List<Long> findWalletIdsByUsersId(@Param("user") Long user);
+
+    @Query("select uw.users.id from UserWallet uw where uw.id = :id")
+    Optional<Long> findUsersIdById(@Param("id") Long id);
 
 }
@@ -0,0 +1,28 @@
+package com.wallet.repository;
+
+import com.wallet.entity.WalletBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.LockModeType;
+import java.math.BigDecimal;
+import java.util.Optional;
+
+public interface WalletBalanceRepository extends JpaRepository<WalletBalance, Long>, WalletBalanceRepositoryCustom {
+
+    @Modifying
+    @Query(value = "update WalletBalance b set b.balance = b.balance + :totalIn + :totalOut, " +
+            "b.totalIn = b.totalIn + :totalIn, b.totalOut = b.totalOut + :totalOut, b.version = b.version + 1 where b.wallet = :wallet")
+    int addToBalance(@Param("wallet") Long wallet, @Param("totalIn") BigDecimal totalIn, @Param("totalOut") BigDecimal totalOut);
+
+    @Query(value = "select b.version from WalletBalance b where b.wallet = :wallet")
+    Optional<Long> findVersion(@Param("wallet") Long wallet);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(value = "select b from WalletBalance b where b.wallet = :wallet")
+    Optional<WalletBalance> findByWalletForUpdate(@Param("wallet") Long wallet);
+
+}
@@ -0,0 +1,9 @@
+package com.wallet.repository;
+
+import com.wallet.entity.WalletBalance;
+
+public interface WalletBalanceRepositoryCustom {
+
+    boolean insertIfAbsent(WalletBalance balance);
+
+}
@@ -0,0 +1,44 @@
+package com.wallet.repository;
+
+import com.wallet.entity.WalletBalance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class WalletBalanceRepositoryImpl implements WalletBalanceRepositoryCustom {
+
+    private static final String INSERT = "insert into wallet_balance (wallet, balance, total_in, total_out, version) values (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean postgres;
+
+    /**
+     * Cria a linha de saldo se ninguém criou antes; devolve false quando ela já existia, inclusive se foi criada
+     * por uma transação concorrente que acabou de confirmar. Deve ser chamado dentro de uma transação.
+     */
+    @Override
+    public boolean insertIfAbsent(WalletBalance b) {
+        Object[] args = {b.getWallet(), b.getBalance(), b.getTotalIn(), b.getTotalOut(), b.getVersion()};
+
+        if (postgres()) {
+            return jdbcTemplate.update(INSERT + " on conflict (wallet) do nothing", args) > 0;
+        }
+
+        // sem upsert portável; no H2 a falha de uma instrução não desfaz a transação
+        try {
+            return jdbcTemplate.update(INSERT, args) > 0;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private boolean postgres() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) c -> "PostgreSQL".equals(c.getMetaData().getDatabaseProductName()));
+        }
+        return postgres;
+    }
+}
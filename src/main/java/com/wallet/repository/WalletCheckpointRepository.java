@@ -0,0 +1,23 @@
+package com.wallet.repository;
+
+import com.wallet.entity.WalletCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+public interface WalletCheckpointRepository extends JpaRepository<WalletCheckpoint, WalletCheckpoint.Key> {
+
+    Optional<WalletCheckpoint> findFirstByWalletAndDateLessThanEqualOrderByDateDesc(Long wallet, LocalDate date);
+
+    Optional<WalletCheckpoint> findFirstByWalletOrderByDateDesc(Long wallet);
+
+    @Modifying
+    @Query(value = "update WalletCheckpoint c set c.balance = c.balance + :delta where c.wallet = :wallet and c.date >= :date")
+    int addFromDate(@Param("wallet") Long wallet, @Param("date") LocalDate date, @Param("delta") BigDecimal delta);
+
+}
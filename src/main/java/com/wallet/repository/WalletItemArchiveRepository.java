@@ -0,0 +1,30 @@
+package com.wallet.repository;
+
+import com.wallet.entity.WalletItemArchive;
+import com.wallet.enums.TypeEnum;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Somas dos lançamentos arquivados, com a mesma forma das do WalletItemRepository: quem recalcula saldo,
+ * checkpoints ou totais a partir dos itens soma as duas.
+ */
+public interface WalletItemArchiveRepository extends JpaRepository<WalletItemArchive, Long>, WalletItemArchiveRepositoryCustom {
+
+    @Query(value = "select sum(wa.value) from WalletItemArchive wa where wa.wallet = :wallet and wa.type = :type")
+    BigDecimal sumByWalletIdAndType(@Param("wallet") Long wallet, @Param("type") TypeEnum type);
+    @Query(value = "select sum(wa.value) from WalletItemArchive wa where wa.wallet = :wallet and wa.date >= :start and wa.date < :end")
+    BigDecimal sumBetweenDates(@Param("wallet") Long wallet, @Param("start") Date start, @Param("end") Date end);
+    @Query(value = "select sum(wa.value) from WalletItemArchive wa where wa.wallet = :wallet and wa.date < :end")
+    BigDecimal sumBeforeDate(@Param("wallet") Long wallet, @Param("end") Date end);
+    @Query(value = "select min(wa.date) from WalletItemArchive wa where wa.wallet = :wallet")
+    Date findFirstDate(@Param("wallet") Long wallet);
+    @Query(value = "select wa.date, wa.type, sum(wa.value), count(wa) from WalletItemArchive wa where wa.wallet = :wallet group by wa.date, wa.type")
+    List<Object[]> sumByDateAndType(@Param("wallet") Long wallet);
+
+}
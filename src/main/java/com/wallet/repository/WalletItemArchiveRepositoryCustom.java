@@ -0,0 +1,12 @@
+package com.wallet.repository;
+
+import java.util.Date;
+import java.util.List;
+
+public interface WalletItemArchiveRepositoryCustom {
+
+    List<Long> lockArchivable(Date before, long afterId, int limit);
+    int moveToArchive(List<Long> ids, Date before);
+    boolean restore(Long id);
+
+}
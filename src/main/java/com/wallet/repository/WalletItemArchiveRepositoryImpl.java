@@ -0,0 +1,69 @@
+package com.wallet.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.Date;
+import java.util.List;
+
+public class WalletItemArchiveRepositoryImpl implements WalletItemArchiveRepositoryCustom {
+
+    // pela chave primária, em ordem de id: o lote seguinte continua do último id, sem reler o que já foi visto
+    private static final String LOCK_ARCHIVABLE = "select id from wallet_items where date < ? and id > ? order by id limit ? for update";
+
+    // a data repetida no filtro deixa o PostgreSQL podar as partições de wallet_items
+    private static final String COPY = "insert into wallet_items_archive (id, wallet, date, type, description, value) " +
+            "select id, wallet, date, type, description, value from wallet_items where id in (:ids) and date < :before";
+
+    private static final String DELETE = "delete from wallet_items where id in (:ids) and date < :before";
+
+    private static final String LOCK_ARCHIVED = "select id from wallet_items_archive where id = ? for update";
+    private static final String RESTORE = "insert into wallet_items (id, wallet, date, type, description, value) " +
+            "select id, wallet, date, type, description, value from wallet_items_archive where id = ?";
+    private static final String DELETE_ARCHIVED = "delete from wallet_items_archive where id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    /**
+     * Ids de um lote de lançamentos anteriores a before, travados até o fim da transação para que uma alteração
+     * concorrente não se perca entre a cópia e a exclusão. Deve ser chamado dentro de uma transação.
+     */
+    @Override
+    public List<Long> lockArchivable(Date before, long afterId, int limit) {
+        return jdbcTemplate.queryForList(LOCK_ARCHIVABLE, Long.class, before, afterId, limit);
+    }
+
+    /**
+     * Copia os lançamentos para wallet_items_archive e os remove de wallet_items, na transação do chamador.
+     */
+    @Override
+    public int moveToArchive(List<Long> ids, Date before) {
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids).addValue("before", before);
+        int copied = namedJdbcTemplate.update(COPY, params);
+        int deleted = namedJdbcTemplate.update(DELETE, params);
+        if (copied != deleted) {
+            throw new IllegalStateException("Arquivamento inconsistente: " + copied + " copiados, " + deleted + " removidos");
+        }
+        return deleted;
+    }
+
+    /**
+     * Devolve um lançamento arquivado para wallet_items, na transação do chamador, e indica se ele estava no arquivo.
+     * A linha do arquivo é travada antes: de duas restaurações concorrentes, a segunda não encontra mais nada.
+     */
+    @Override
+    public boolean restore(Long id) {
+        if (jdbcTemplate.queryForList(LOCK_ARCHIVED, Long.class, id).isEmpty()) {
+            return false;
+        }
+        jdbcTemplate.update(RESTORE, id);
+        jdbcTemplate.update(DELETE_ARCHIVED, id);
+        return true;
+    }
+}
@@ -0,0 +1,134 @@
+package com.wallet.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Partições mensais de wallet_items no PostgreSQL (migrations V10 a V13). Nos demais bancos, e no PostgreSQL
+ * com o schema gerado pelo Hibernate, a tabela não é particionada e {@link #isPartitioned()} devolve false.
+ */
+@Repository
+public class WalletItemPartitionRepository {
+
+    public static final String DEFAULT_PARTITION = "wallet_items_default";
+
+    private static final String PARTITIONED = "select exists (select 1 from pg_partitioned_table where partrelid = to_regclass('wallet_items'))";
+    private static final String PARTITIONS = "select c.relname, pg_get_expr(c.relpartbound, c.oid) from pg_inherits i " +
+            "join pg_class c on c.oid = i.inhrelid where i.inhparent = to_regclass('wallet_items') order by c.relname";
+    private static final String DEFAULT_HAS_ROWS = "select exists (select 1 from " + DEFAULT_PARTITION + " where date >= ? and date < ?)";
+    private static final String MOVE_FROM_DEFAULT = "insert into wallet_items select * from " + DEFAULT_PARTITION + " where date >= ? and date < ?";
+    private static final String DELETE_FROM_DEFAULT = "delete from " + DEFAULT_PARTITION + " where date >= ? and date < ?";
+    // chave do advisory lock da manutenção de partições, a mesma em todas as instâncias
+    private static final long LOCK_KEY = 0x77616c6c6574L;
+
+    private static final Pattern BOUNDS = Pattern.compile("FOR VALUES FROM \\((.+?)\\) TO \\((.+?)\\)");
+    private static final DateTimeFormatter NAME = DateTimeFormatter.ofPattern("'wallet_items_'yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean postgres;
+
+    @Autowired
+    public WalletItemPartitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean isPartitioned() {
+        return postgres() && jdbcTemplate.queryForObject(PARTITIONED, Boolean.class);
+    }
+
+    public List<Partition> findAll() {
+        return jdbcTemplate.query(PARTITIONS, (rs, i) -> partition(rs.getString(1), rs.getString(2)));
+    }
+
+    /**
+     * Cria a partição do mês. Se a partição default já recebeu lançamentos desse mês, ela é desanexada enquanto
+     * eles são movidos; deve ser chamado dentro de uma transação.
+     */
+    public void create(LocalDate month) {
+        Date from = Date.valueOf(month);
+        Date to = Date.valueOf(month.plusMonths(1));
+        boolean move = jdbcTemplate.queryForObject(DEFAULT_HAS_ROWS, Boolean.class, from, to);
+
+        if (move) {
+            jdbcTemplate.execute("alter table wallet_items detach partition " + DEFAULT_PARTITION);
+        }
+        jdbcTemplate.execute(String.format("create table %s partition of wallet_items for values from ('%s') to ('%s')",
+                month.format(NAME), from, to));
+        if (move) {
+            jdbcTemplate.update(MOVE_FROM_DEFAULT, from, to);
+            jdbcTemplate.update(DELETE_FROM_DEFAULT, from, to);
+            jdbcTemplate.execute("alter table wallet_items attach partition " + DEFAULT_PARTITION + " default");
+        }
+    }
+
+    /**
+     * Serializa a manutenção de partições entre as instâncias até o fim da transação; deve ser chamado dentro de uma.
+     */
+    public void lock() {
+        jdbcTemplate.execute("select pg_advisory_xact_lock(" + LOCK_KEY + ")");
+    }
+
+    /**
+     * Tira a partição de wallet_items; a tabela continua existindo, fora das leituras da aplicação.
+     */
+    public void detach(String name) {
+        jdbcTemplate.execute("alter table wallet_items detach partition " + quote(name));
+    }
+
+    public boolean hasRows(String name) {
+        return jdbcTemplate.queryForObject("select exists (select 1 from " + quote(name) + ")", Boolean.class);
+    }
+
+    private static String quote(String name) {
+        return "\"" + name.replace("\"", "\"\"") + "\"";
+    }
+
+    private boolean postgres() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) c -> "PostgreSQL".equals(c.getMetaData().getDatabaseProductName()));
+        }
+        return postgres;
+    }
+
+    private static Partition partition(String name, String bound) {
+        Matcher m = BOUNDS.matcher(bound);
+        if (!m.matches()) {
+            return new Partition(name, null, null, true);
+        }
+        return new Partition(name, bound(m.group(1)), bound(m.group(2)), false);
+    }
+
+    // MINVALUE/MAXVALUE viram null
+    private static LocalDate bound(String value) {
+        return value.startsWith("'") ? LocalDate.parse(value.substring(1, value.length() - 1)) : null;
+    }
+
+    /**
+     * Intervalo [from, to) de uma partição; from null para a que começa em MINVALUE, como wallet_items_history.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Partition {
+
+        private final String name;
+        private final LocalDate from;
+        private final LocalDate to;
+        private final boolean defaultPartition;
+
+        public boolean covers(LocalDate date) {
+            return !defaultPartition && (from == null || !from.isAfter(date)) && (to == null || to.isAfter(date));
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.wallet.repository;
+
+import com.wallet.dto.WalletItemDTO;
+import com.wallet.enums.TypeEnum;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Leituras de lançamentos direto em DTO, pelo JdbcTemplate: sem entidades, proxies de Wallet nem
+ * contexto de persistência. As escritas continuam no WalletItemRepository. Cada consulta cobre wallet_items
+ * e wallet_items_archive, para onde o WalletItemArchiveJob move os lançamentos antigos.
+ */
+@Repository
+public class WalletItemReadRepository {
+
+    private static final String COLUMNS = "select wi.id, wi.wallet, wi.date, wi.type, wi.description, wi.value from ";
+    private static final String BETWEEN_DATES = "where wi.wallet = ? and wi.date >= ? and wi.date <= ? ";
+    private static final String BY_TYPE = "where wi.wallet = ? and wi.type = ? ";
+    private static final String AFTER = "and (wi.date > ? or (wi.date = ? and wi.id > ?)) ";
+    private static final String ORDER = "order by date, id ";
+
+    private static final String FIND_BETWEEN_DATES = limited(COLUMNS, BETWEEN_DATES) + ORDER + "limit ? offset ?";
+    private static final String FIND_BETWEEN_DATES_FIRST = limited(COLUMNS, BETWEEN_DATES) + ORDER + "limit ?";
+    private static final String FIND_BETWEEN_DATES_ALL = union(COLUMNS, BETWEEN_DATES) + ORDER;
+    private static final String FIND_BETWEEN_DATES_AFTER = limited(COLUMNS, BETWEEN_DATES + AFTER) + ORDER + "limit ?";
+    private static final String COUNT_BETWEEN_DATES = total("count(*)", BETWEEN_DATES);
+    private static final String FIND_BY_TYPE = union(COLUMNS, BY_TYPE);
+    private static final String FIND_BY_TYPE_FIRST = limited(COLUMNS, BY_TYPE) + ORDER + "limit ?";
+    private static final String FIND_BY_TYPE_AFTER = limited(COLUMNS, BY_TYPE + AFTER) + ORDER + "limit ?";
+    private static final String COUNT_BY_TYPE = total("count(*)", BY_TYPE);
+    private static final String SUM = "select sum(t.total) from (" + union("select sum(wi.value) as total from ", "where wi.wallet = ? ") + ") t";
+
+    // a data sai como Timestamp, o mesmo tipo que o Hibernate devolvia para a entidade
+    private static final RowMapper<WalletItemDTO> ROW_MAPPER = (rs, i) -> {
+        WalletItemDTO dto = new WalletItemDTO();
+        dto.setId(rs.getLong(1));
+        dto.setWallet(rs.getLong(2));
+        dto.setDate(rs.getTimestamp(3));
+        dto.setType(TypeEnum.valueOf(rs.getString(4)).getValue());
+        dto.setDescription(rs.getString(5));
+        dto.setValue(rs.getBigDecimal(6));
+        return dto;
+    };
+
+    private static final int EXPORT_FETCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate exportTemplate;
+
+    @Autowired
+    public WalletItemReadRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        // no PostgreSQL o fetch size só vale dentro de uma transação; fora dela o driver lê o resultado inteiro
+        this.exportTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.exportTemplate.setFetchSize(EXPORT_FETCH_SIZE);
+    }
+
+    public Page<WalletItemDTO> findBetweenDates(Long wallet, Date start, Date end, Pageable pageable) {
+        List<WalletItemDTO> content = jdbcTemplate.query(FIND_BETWEEN_DATES, ROW_MAPPER, limited(new Object[]{wallet, start, end},
+                pageable.getOffset() + pageable.getPageSize(), pageable.getPageSize(), pageable.getOffset()));
+
+        // como no Spring Data, a contagem só roda quando a página não basta para deduzir o total
+        if (content.size() < pageable.getPageSize() && (pageable.getOffset() == 0 || !content.isEmpty())) {
+            return new PageImpl<>(content, pageable, pageable.getOffset() + content.size());
+        }
+        return new PageImpl<>(content, pageable, countBetweenDates(wallet, start, end));
+    }
+
+    public List<WalletItemDTO> findBetweenDates(Long wallet, Date start, Date end, int limit) {
+        return jdbcTemplate.query(FIND_BETWEEN_DATES_FIRST, ROW_MAPPER, limited(new Object[]{wallet, start, end}, limit, limit));
+    }
+
+    public List<WalletItemDTO> findBetweenDatesAfter(Long wallet, Date start, Date end, Date lastDate, Long lastId, int limit) {
+        return jdbcTemplate.query(FIND_BETWEEN_DATES_AFTER, ROW_MAPPER, limited(new Object[]{wallet, start, end, lastDate, lastDate, lastId}, limit, limit));
+    }
+
+    /**
+     * Entrega os lançamentos do período em ordem, um a um, lidos aos poucos do banco. Deve ser chamado dentro de
+     * uma transação para o resultado não ser carregado inteiro.
+     */
+    public void exportBetweenDates(Long wallet, Date start, Date end, Consumer<WalletItemDTO> consumer) {
+        exportTemplate.query(FIND_BETWEEN_DATES_ALL, (RowCallbackHandler) rs -> consumer.accept(ROW_MAPPER.mapRow(rs, rs.getRow())),
+                args(new Object[]{wallet, start, end}));
+    }
+
+    public long countBetweenDates(Long wallet, Date start, Date end) {
+        return jdbcTemplate.queryForObject(COUNT_BETWEEN_DATES, Long.class, args(new Object[]{wallet, start, end}));
+    }
+
+    public List<WalletItemDTO> findByType(Long wallet, TypeEnum type) {
+        return jdbcTemplate.query(FIND_BY_TYPE, ROW_MAPPER, args(new Object[]{wallet, type.name()}));
+    }
+
+    public List<WalletItemDTO> findByType(Long wallet, TypeEnum type, int limit) {
+        return jdbcTemplate.query(FIND_BY_TYPE_FIRST, ROW_MAPPER, limited(new Object[]{wallet, type.name()}, limit, limit));
+    }
+
+    public List<WalletItemDTO> findByTypeAfter(Long wallet, TypeEnum type, Date lastDate, Long lastId, int limit) {
+        return jdbcTemplate.query(FIND_BY_TYPE_AFTER, ROW_MAPPER, limited(new Object[]{wallet, type.name(), lastDate, lastDate, lastId}, limit, limit));
+    }
+
+    public long countByType(Long wallet, TypeEnum type) {
+        return jdbcTemplate.queryForObject(COUNT_BY_TYPE, Long.class, args(new Object[]{wallet, type.name()}));
+    }
+
+    public BigDecimal sumByWalletId(Long wallet) {
+        return jdbcTemplate.queryForObject(SUM, BigDecimal.class, args(new Object[]{wallet}));
+    }
+
+    // o mesmo filtro nas duas tabelas
+    private static String union(String select, String where) {
+        return select + "wallet_items wi " + where + "union all " + select + "wallet_items_archive wi " + where;
+    }
+
+    // cada tabela já ordenada e cortada no índice: o PostgreSQL não leva o limit externo para dentro do union all
+    // e, sem isso, ordena todos os lançamentos do filtro para devolver uma página
+    private static String limited(String select, String where) {
+        return "(" + select + "wallet_items wi " + where + "order by wi.date, wi.id limit ?) union all ("
+                + select + "wallet_items_archive wi " + where + "order by wi.date, wi.id limit ?) ";
+    }
+
+    private static String total(String aggregate, String where) {
+        return "select (select " + aggregate + " from wallet_items wi " + where + ") + (select " + aggregate + " from wallet_items_archive wi " + where + ")";
+    }
+
+    // os parâmetros do filtro se repetem para a segunda tabela; em limited, cada cópia leva o limit da sua tabela
+    // e o limit e o offset da página vêm no final
+    private static Object[] args(Object[] filter, Object... tail) {
+        Object[] args = new Object[filter.length * 2 + tail.length];
+        System.arraycopy(filter, 0, args, 0, filter.length);
+        System.arraycopy(filter, 0, args, filter.length, filter.length);
+        System.arraycopy(tail, 0, args, filter.length * 2, tail.length);
+        return args;
+    }
+
+    private static Object[] limited(Object[] filter, long limit, Object... tail) {
+        Object[] args = new Object[filter.length * 2 + 2 + tail.length];
+        System.arraycopy(filter, 0, args, 0, filter.length);
+        args[filter.length] = limit;
+        System.arraycopy(filter, 0, args, filter.length + 1, filter.length);
+        args[filter.length * 2 + 1] = limit;
+        System.arraycopy(tail, 0, args, filter.length * 2 + 2, tail.length);
+        return args;
+    }
+}
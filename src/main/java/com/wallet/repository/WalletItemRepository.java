@@ -5,18 +5,41 @@ import com.wallet.enums.TypeEnum;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import javax.persistence.LockModeType;
+
 import java.math.BigDecimal;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
-public interface WalletItemRepository extends JpaRepository<WalletItem, Long> {
+public interface WalletItemRepository extends JpaRepository<WalletItem, Long>, WalletItemRepositoryCustom {
 
-    Page<WalletItem> findAllByWalletIdAndDateGreaterThanEqualAndDateLessThanEqual(Long wallet, Date init, Date end, Pageable pageable);
-    List<WalletItem> findByWalletIdAndType(Long wallet, TypeEnum typeEnum);
+    // consultas derivadas com WalletId fazem left join com wallet e filtram pela tabela juntada, o que impede
+    // o uso do índice (wallet, date, id) no H2; em JPQL o filtro vai direto na coluna wallet
+    @Query(value = "select wi from WalletItem wi where wi.wallet.id = :wallet and wi.date >= :init and wi.date <= :end",
+            countQuery = "select count(wi) from WalletItem wi where wi.wallet.id = :wallet and wi.date >= :init and wi.date <= :end")
+    Page<WalletItem> findAllByWalletIdAndDateGreaterThanEqualAndDateLessThanEqual(@Param("wallet") Long wallet, @Param("init") Date init, @Param("end") Date end, Pageable pageable);
+    @Query(value = "select wi from WalletItem wi where wi.wallet.id = :wallet and wi.type = :type")
+    List<WalletItem> findByWalletIdAndType(@Param("wallet") Long wallet, @Param("type") TypeEnum typeEnum);
     @Query(value = "select sum(value) from WalletItem wi where wi.wallet.id = :wallet")
     BigDecimal sumByWalletId(@Param("wallet") Long wallet);
+    @Query(value = "select sum(value) from WalletItem wi where wi.wallet.id = :wallet and wi.type = :type")
+    BigDecimal sumByWalletIdAndType(@Param("wallet") Long wallet, @Param("type") TypeEnum type);
+    @Query(value = "select sum(wi.value) from WalletItem wi where wi.wallet.id = :wallet and wi.date >= :start and wi.date < :end")
+    BigDecimal sumBetweenDates(@Param("wallet") Long wallet, @Param("start") Date start, @Param("end") Date end);
+    @Query(value = "select sum(wi.value) from WalletItem wi where wi.wallet.id = :wallet and wi.date < :end")
+    BigDecimal sumBeforeDate(@Param("wallet") Long wallet, @Param("end") Date end);
+    @Query(value = "select min(wi.date) from WalletItem wi where wi.wallet.id = :wallet")
+    Date findFirstDate(@Param("wallet") Long wallet);
+    @Query(value = "select wi.date, wi.type, sum(wi.value), count(wi) from WalletItem wi where wi.wallet.id = :wallet group by wi.date, wi.type")
+    List<Object[]> sumByDateAndType(@Param("wallet") Long wallet);
+    // travado até o fim da transação: o arquivamento e outras alterações do mesmo lançamento esperam
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(value = "select wi from WalletItem wi where wi.id = :id")
+    Optional<WalletItem> findForUpdate(@Param("id") Long id);
 
 }
@@ -0,0 +1,11 @@
+package com.wallet.repository;
+
+import com.wallet.entity.WalletItem;
+
+import java.util.List;
+
+public interface WalletItemRepositoryCustom {
+
+    List<WalletItem> saveInBatches(List<WalletItem> items);
+
+}
@@ -0,0 +1,39 @@
+package com.wallet.repository;
+
+import com.wallet.entity.Wallet;
+import com.wallet.entity.WalletItem;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+public class WalletItemRepositoryImpl implements WalletItemRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    @Override
+    @Transactional
+    public List<WalletItem> saveInBatches(List<WalletItem> items) {
+        for (int i = 0; i < items.size(); i++) {
+            WalletItem wi = items.get(i);
+            wi.setWallet(entityManager.getReference(Wallet.class, wi.getWallet().getId()));
+            entityManager.persist(wi);
+
+            // o flush a cada lote envia um único batch JDBC e o clear mantém o contexto de persistência pequeno
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        return items;
+    }
+}
@@ -0,0 +1,24 @@
+package com.wallet.repository;
+
+import com.wallet.entity.WalletRollup;
+import com.wallet.enums.GranularityEnum;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface WalletRollupRepository extends JpaRepository<WalletRollup, WalletRollup.Key>, WalletRollupRepositoryCustom {
+
+    @Query(value = "select r from WalletRollup r where r.wallet = :wallet and r.granularity = :granularity " +
+            "and r.period >= :from and r.period <= :to and r.items > 0 order by r.period, r.type")
+    List<WalletRollup> findBuckets(@Param("wallet") Long wallet, @Param("granularity") GranularityEnum granularity,
+                                   @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query(value = "delete from WalletRollup r where r.wallet = :wallet")
+    int deleteByWallet(@Param("wallet") Long wallet);
+
+}
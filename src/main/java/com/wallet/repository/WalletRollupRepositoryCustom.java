@@ -0,0 +1,11 @@
+package com.wallet.repository;
+
+import com.wallet.entity.WalletRollup;
+
+import java.util.Collection;
+
+public interface WalletRollupRepositoryCustom {
+
+    void addAll(Collection<WalletRollup> deltas);
+
+}
@@ -0,0 +1,62 @@
+package com.wallet.repository;
+
+import com.wallet.entity.WalletRollup;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class WalletRollupRepositoryImpl implements WalletRollupRepositoryCustom {
+
+    private static final String UPSERT = "insert into wallet_rollup (total, items, wallet, granularity, period, type) values (?, ?, ?, ?, ?, ?) " +
+            "on conflict (wallet, granularity, period, type) do update " +
+            "set total = wallet_rollup.total + excluded.total, items = wallet_rollup.items + excluded.items";
+
+    private static final String UPDATE = "update wallet_rollup set total = total + ?, items = items + ? " +
+            "where wallet = ? and granularity = ? and period = ? and type = ?";
+
+    private static final String INSERT = "insert into wallet_rollup (total, items, wallet, granularity, period, type) values (?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean postgres;
+
+    /**
+     * Soma os deltas às linhas existentes, criando as que faltam. Deve ser chamado dentro de uma transação.
+     */
+    @Override
+    public void addAll(Collection<WalletRollup> deltas) {
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach(d -> args.add(new Object[]{d.getTotal(), d.getItems(), d.getWallet(), d.getGranularity().name(),
+                Date.valueOf(d.getPeriod()), d.getType().name()}));
+
+        if (postgres()) {
+            jdbcTemplate.batchUpdate(UPSERT, args);
+            return;
+        }
+
+        // sem upsert portável, os períodos que ainda não existiam são inseridos depois do update
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE, args);
+        List<Object[]> missing = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missing.add(args.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT, missing);
+        }
+    }
+
+    private boolean postgres() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) c -> "PostgreSQL".equals(c.getMetaData().getDatabaseProductName()));
+        }
+        return postgres;
+    }
+}
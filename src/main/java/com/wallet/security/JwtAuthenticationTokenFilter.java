@@ -1,6 +1,10 @@
 package com.wallet.security;
 
+import com.wallet.security.utils.JwtClaims;
 import com.wallet.security.utils.JwtTokenUtil;
+import io.jsonwebtoken.JwtException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -17,6 +21,8 @@ import java.io.IOException;
 
 public class JwtAuthenticationTokenFilter extends OncePerRequestFilter {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationTokenFilter.class);
+
     private static final String AUTH_HEADER = "Authorization";
     private static final String BEARER_PREFIX = "Bearer ";
 
@@ -28,17 +34,21 @@ public class JwtAuthenticationTokenFilter extends OncePerRequestFilter {
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
-        String token = request.getHeader(AUTH_HEADER);
-        if (token != null && token.startsWith(BEARER_PREFIX)) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+        String header = request.getHeader(AUTH_HEADER);
+
+        if (header != null && header.startsWith(BEARER_PREFIX) && SecurityContextHolder.getContext().getAuthentication() == null) {
+            JwtClaims claims = null;
+            try {
+                claims = jwtTokenUtil.getClaims(header.substring(BEARER_PREFIX.length()));
+            } catch (JwtException | IllegalArgumentException e) {
+                log.debug("Token JWT inválido: {}", e.getMessage());
+            }
 
-            if (jwtTokenUtil.validToken(token)) {
+            if (claims != null && claims.getUsername() != null) {
+                // tokens emitidos antes do claim "id" ainda precisam consultar o usuário
+                UserDetails userDetails = claims.getId() != null
+                        ? new JwtUser(claims.getId(), claims.getUsername(), null)
+                        : this.userDetailsService.loadUserByUsername(claims.getUsername());
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -10,7 +10,6 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -32,9 +31,6 @@ public class AuthenticationController {
     @Autowired
     private JwtTokenUtil jwtTokenUtil;
 
-    @Autowired
-    private UserDetailsService userDetailsService;
-
 
     @PostMapping
     public ResponseEntity<Response<TokenDTO>> gerarTokenJwt(
@@ -51,7 +47,7 @@ public class AuthenticationController {
                 authenticationDto.getEmail(), authenticationDto.getPassword()));
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(authenticationDto.getEmail());
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
         String token = jwtTokenUtil.getToken(userDetails);
         response.setData(new TokenDTO(token));
 
@@ -23,7 +23,7 @@ public class JwtUserDetailsServiceImpl implements UserDetailsService {
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        Optional<User> user = userService.findByEmail(email);
+        Optional<User> user = userService.findForAuthentication(email);
 
         if (user.isPresent()) {
             return JwtUserFactory.create(user.get());
@@ -0,0 +1,21 @@
+package com.wallet.security.utils;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Date;
+
+@Getter
+@AllArgsConstructor
+public class JwtClaims {
+
+    private final Long id;
+    private final String username;
+    private final Date created;
+    private final Date expiration;
+
+    public boolean isExpired() {
+        return expiration != null && expiration.before(new Date());
+    }
+
+}
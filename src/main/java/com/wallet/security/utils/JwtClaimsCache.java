@@ -0,0 +1,100 @@
+package com.wallet.security.utils;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache LRU dos claims de tokens já verificados, indexado pelo SHA-256 do token.
+ * A entrada vale até a expiração do token.
+ */
+@Component
+public class JwtClaimsCache implements MeterBinder {
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final Map<String, JwtClaims> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public JwtClaimsCache(@Value("${jwt.cache.max_entries:10000}") int maxEntries) {
+        this.entries = new LinkedHashMap<String, JwtClaims>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, JwtClaims> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public JwtClaims get(String token) {
+        String key = digest(token);
+        JwtClaims claims;
+        synchronized (entries) {
+            claims = entries.get(key);
+            if (claims != null && claims.isExpired()) {
+                entries.remove(key);
+                claims = null;
+            }
+        }
+        if (claims == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return claims;
+    }
+
+    public void put(String token, JwtClaims claims) {
+        if (claims.getExpiration() == null) {
+            return;
+        }
+        String key = digest(token);
+        synchronized (entries) {
+            entries.put(key, claims);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("jwt.cache.gets", hits, AtomicLong::get).tags("result", "hit").register(registry);
+        FunctionCounter.builder("jwt.cache.gets", misses, AtomicLong::get).tags("result", "miss").register(registry);
+        Gauge.builder("jwt.cache.size", this, JwtClaimsCache::size).register(registry);
+    }
+
+    private static String digest(String token) {
+        byte[] hash = SHA256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getEncoder().encodeToString(hash);
+    }
+
+}
@@ -4,18 +4,22 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 
+import com.wallet.security.JwtUser;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
 
 @Component
 public class JwtTokenUtil {
 
     static final String CLAIM_KEY_USERNAME = "sub";
+    static final String CLAIM_KEY_ID = "id";
     static final String CLAIM_KEY_ROLE = "role";
     static final String CLAIM_KEY_AUDIENCE = "audience";
     static final String CLAIM_KEY_CREATED = "created";
@@ -26,39 +30,46 @@ public class JwtTokenUtil {
     @Value("${jwt.expiration}")
     private Long expiration;
 
+    private final JwtClaimsCache claimsCache;
 
-    public String getUsernameFromToken(String token) {
-        String username;
-        try {
-            Claims claims = getClaimsFromToken(token);
-            username = claims.getSubject();
-        } catch (Exception e) {
-            username = null;
-        }
-        return username;
+    public JwtTokenUtil(JwtClaimsCache claimsCache) {
+        this.claimsCache = claimsCache;
     }
 
 
-    public Date getExpirationDateFromToken(String token) {
-        Date expiration;
-        try {
-            Claims claims = getClaimsFromToken(token);
-            expiration = claims.getExpiration();
-        } catch (Exception e) {
-            expiration = null;
+    /**
+     * Verifica assinatura e expiração do token uma única vez e devolve os claims.
+     * Tokens já verificados são servidos pelo cache até expirarem.
+     *
+     * @throws JwtException se o token for inválido ou estiver expirado
+     */
+    public JwtClaims getClaims(String token) {
+        JwtClaims claims = claimsCache.get(token);
+        if (claims == null) {
+            claims = parseToken(token);
+            claimsCache.put(token, claims);
         }
-        return expiration;
+        return claims;
     }
 
 
-    public boolean validToken(String token) {
-        return !expiredToken(token);
+    public JwtClaims parseToken(String token) {
+        if (token == null || token.isEmpty()) {
+            throw new MalformedJwtException("Token não informado");
+        }
+        Claims claims = Jwts.parser().setSigningKey(secret).parseClaimsJws(token).getBody();
+        Long created = claims.get(CLAIM_KEY_CREATED, Long.class);
+        return new JwtClaims(claims.get(CLAIM_KEY_ID, Long.class), claims.getSubject(),
+                created == null ? null : new Date(created), claims.getExpiration());
     }
 
 
     public String getToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
         claims.put(CLAIM_KEY_USERNAME, userDetails.getUsername());
+        if (userDetails instanceof JwtUser) {
+            claims.put(CLAIM_KEY_ID, ((JwtUser) userDetails).getId());
+        }
         claims.put(CLAIM_KEY_CREATED, new Date());
         //userDetails.getAuthorities().forEach(authority -> claims.put(CLAIM_KEY_ROLE, authority.getAuthority()));
 
@@ -66,31 +77,11 @@ public class JwtTokenUtil {
     }
 
 
-    private Claims getClaimsFromToken(String token) {
-        Claims claims;
-        try {
-            claims = Jwts.parser().setSigningKey(secret).parseClaimsJws(token).getBody();
-        } catch (Exception e) {
-            claims = null;
-        }
-        return claims;
-    }
-
-
     private Date generateExpirationDate() {
         return new Date(System.currentTimeMillis() + expiration * 1000);
     }
 
 
-    private boolean expiredToken(String token) {
-        Date expirationDate = this.getExpirationDateFromToken(token);
-        if (expirationDate == null) {
-            return false;
-        }
-        return expirationDate.before(new Date());
-    }
-
-
     private String generateToken(Map<String, Object> claims) {
         return Jwts.builder().setClaims(claims).setExpiration(generateExpirationDate())
                 .signWith(SignatureAlgorithm.HS512, secret).compact();
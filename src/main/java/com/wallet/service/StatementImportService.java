@@ -0,0 +1,14 @@
+package com.wallet.service;
+
+import com.wallet.importer.ImportJob;
+import com.wallet.importer.StatementFormat;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+public interface StatementImportService {
+
+    ImportJob start(Long wallet, StatementFormat format, Path file);
+    Optional<ImportJob> findById(String id);
+
+}
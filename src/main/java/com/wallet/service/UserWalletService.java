@@ -2,11 +2,18 @@ package com.wallet.service;
 
 import com.wallet.entity.UserWallet;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
 
 public interface UserWalletService {
 
     UserWallet save(UserWallet userWallet);
     Optional<UserWallet> findByUsersIdAndWalletId(Long user, Long wallet);
+    boolean hasAccess(Long user, Long wallet);
+    // mesma regra e mesmo cache, mas a lista de carteiras do usuário vem de uma consulta assíncrona
+    CompletionStage<Boolean> hasAccess(Long user, Long wallet, Function<Long, CompletionStage<List<Long>>> loader);
+    void evict(Long user);
 
 }
@@ -0,0 +1,18 @@
+package com.wallet.service;
+
+import com.wallet.entity.WalletBalance;
+import com.wallet.entity.WalletItem;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface WalletBalanceService {
+
+    Optional<WalletBalance> findByWalletId(Long wallet);
+    Optional<Long> findVersion(Long wallet);
+    void initialize(Long wallet);
+    void apply(WalletItem previous, WalletItem current);
+    void applyAll(List<WalletItem> created);
+    boolean verify(Long wallet);
+
+}
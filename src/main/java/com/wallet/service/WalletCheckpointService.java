@@ -0,0 +1,16 @@
+package com.wallet.service;
+
+import com.wallet.entity.WalletItem;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface WalletCheckpointService {
+
+    void apply(WalletItem previous, WalletItem current);
+    void applyAll(List<WalletItem> created);
+    int checkpoint(Long wallet, LocalDate until);
+    BigDecimal balanceAt(Long wallet, LocalDate date);
+
+}
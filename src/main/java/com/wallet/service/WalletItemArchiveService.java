@@ -0,0 +1,10 @@
+package com.wallet.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface WalletItemArchiveService {
+
+    List<Long> archive(LocalDate before, long afterId, int size);
+
+}
@@ -0,0 +1,14 @@
+package com.wallet.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface WalletItemPartitionService {
+
+    boolean isPartitioned();
+    List<LocalDate> findMissingMonths(LocalDate from, LocalDate until);
+    boolean createMonth(LocalDate month);
+    List<String> findExpired(LocalDate before);
+    boolean detach(String name);
+
+}
@@ -0,0 +1,19 @@
+package com.wallet.service;
+
+import com.wallet.dto.WalletItemDTO;
+import com.wallet.enums.TypeEnum;
+import org.springframework.data.domain.Page;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+
+public interface WalletItemReactiveService {
+
+    Mono<Boolean> hasAccess(Long user, Long wallet);
+    Mono<Page<WalletItemDTO>> findBetweenDates(Long wallet, Date start, Date end, int page);
+    Mono<List<WalletItemDTO>> findByWalletAndType(Long wallet, TypeEnum typeEnum);
+    Mono<BigDecimal> sumByWalletId(Long wallet);
+
+}
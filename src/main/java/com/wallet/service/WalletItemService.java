@@ -1,20 +1,35 @@
 package com.wallet.service;
 
+import com.wallet.dto.WalletItemDTO;
 import com.wallet.entity.WalletItem;
+import com.wallet.entity.WalletRollup;
+import com.wallet.enums.GranularityEnum;
 import com.wallet.enums.TypeEnum;
+import com.wallet.util.WalletItemCursor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.math.BigDecimal;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface WalletItemService {
 
     WalletItem save(WalletItem walletItem);
-    Page<WalletItem> findBetweenDates(Long wallet, Date start, Date end, int page);
-    List<WalletItem> findByWalletAndType(Long wallet, TypeEnum typeEnum);
+    List<WalletItem> saveAll(List<WalletItem> walletItems);
+    Page<WalletItemDTO> findBetweenDates(Long wallet, Date start, Date end, int page);
+    Slice<WalletItemDTO> findBetweenDates(Long wallet, Date start, Date end, WalletItemCursor cursor, int size);
+    long countBetweenDates(Long wallet, Date start, Date end);
+    void exportBetweenDates(Long wallet, Date start, Date end, Consumer<WalletItemDTO> consumer);
+    List<WalletItemDTO> findByWalletAndType(Long wallet, TypeEnum typeEnum);
+    Slice<WalletItemDTO> findByWalletAndType(Long wallet, TypeEnum typeEnum, WalletItemCursor cursor, int size);
+    long countByWalletAndType(Long wallet, TypeEnum typeEnum);
     BigDecimal sumByWalletId(Long wallet);
+    Optional<Long> findVersion(Long wallet);
+    List<WalletRollup> findSummary(Long wallet, GranularityEnum granularity, Date start, Date end);
+    BigDecimal balanceAt(Long wallet, Date date);
     Optional<WalletItem> findById(Long id);
     void deleteById(Long id);
 
@@ -0,0 +1,17 @@
+package com.wallet.service;
+
+import com.wallet.entity.WalletItem;
+import com.wallet.entity.WalletRollup;
+import com.wallet.enums.GranularityEnum;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface WalletRollupService {
+
+    void apply(WalletItem previous, WalletItem current);
+    void applyAll(List<WalletItem> created);
+    void rebuild(Long wallet);
+    List<WalletRollup> findBuckets(Long wallet, GranularityEnum granularity, LocalDate from, LocalDate to);
+
+}
@@ -0,0 +1,188 @@
+package com.wallet.service.impl;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Junta as gravações enviadas por várias threads numa janela de tempo/tamanho e grava o lote de uma vez.
+ * Não há thread própria: a primeira chamada que encontra a fila sem líder grava o lote na sua própria thread
+ * e as demais esperam pelo resultado, sem segurar conexão (por isso o open-in-view fica desligado). Cada
+ * chamada de {@link #submit} recebe o próprio resultado ou a própria exceção. A espera usa ReentrantLock e não
+ * synchronized, que no Java 21 prende a thread portadora quando a chamada roda numa virtual thread.
+ */
+class GroupCommitQueue<T, R> {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitQueue.class);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Deque<Pending<T, R>> queue = new ArrayDeque<>();
+    private final int maxBatch;
+    private final long maxWaitNanos;
+    private final Function<List<T>, List<R>> batchWriter;
+    private final Function<T, R> singleWriter;
+    private final DistributionSummary batchSize;
+    private final Timer batchTime;
+    private boolean leading;
+
+    GroupCommitQueue(String name, int maxBatch, long maxWaitMicros, Function<List<T>, List<R>> batchWriter,
+                     Function<T, R> singleWriter, MeterRegistry registry) {
+        this.maxBatch = Math.max(maxBatch, 1);
+        this.maxWaitNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(maxWaitMicros, 0));
+        this.batchWriter = batchWriter;
+        this.singleWriter = singleWriter;
+        this.batchSize = DistributionSummary.builder("wallet.group_commit.batch_size").tag("queue", name).register(registry);
+        this.batchTime = Timer.builder("wallet.group_commit.batch_time").tag("queue", name).register(registry);
+    }
+
+    R submit(T item) {
+        Pending<T, R> pending = new Pending<>(item);
+        lock.lock();
+        try {
+            queue.add(pending);
+            if (queue.size() >= maxBatch) {
+                changed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+        try {
+            while (true) {
+                List<Pending<T, R>> batch;
+                lock.lockInterruptibly();
+                try {
+                    while (!pending.done && leading) {
+                        changed.await();
+                    }
+                    if (pending.done) {
+                        return pending.get();
+                    }
+                    leading = true;
+                    batch = collect();
+                } finally {
+                    lock.unlock();
+                }
+                try {
+                    write(batch);
+                } finally {
+                    lock.lock();
+                    try {
+                        leading = false;
+                        changed.signalAll();
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            lock.lock();
+            try {
+                // só desiste se o item ainda não entrou num lote, senão o resultado seria perdido sem aviso
+                if (queue.remove(pending)) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrompido aguardando a gravação agrupada", e);
+                }
+                // o lote já está sendo gravado por outra thread
+                while (!pending.done) {
+                    changed.awaitUninterruptibly();
+                }
+            } finally {
+                lock.unlock();
+            }
+            Thread.currentThread().interrupt();
+            return pending.get();
+        }
+    }
+
+    // a janela começa quando o líder assume: sob carga o lote enche antes do prazo, com pouca carga espera no máximo maxWait
+    private List<Pending<T, R>> collect() throws InterruptedException {
+        long deadline = System.nanoTime() + maxWaitNanos;
+        try {
+            while (queue.size() < maxBatch) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                changed.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            leading = false;
+            changed.signalAll();
+            throw e;
+        }
+        List<Pending<T, R>> batch = new ArrayList<>(Math.min(queue.size(), maxBatch));
+        while (batch.size() < maxBatch && !queue.isEmpty()) {
+            batch.add(queue.poll());
+        }
+        return batch;
+    }
+
+    private void write(List<Pending<T, R>> batch) {
+        List<T> items = new ArrayList<>(batch.size());
+        batch.forEach(p -> items.add(p.item));
+
+        long start = System.nanoTime();
+        try {
+            List<R> results = batchWriter.apply(items);
+            batchTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batchSize.record(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).complete(results.get(i), null);
+            }
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).complete(null, e);
+                return;
+            }
+            // um item inválido desfaz a transação do lote inteiro; cada item é regravado sozinho para só ele receber o erro
+            log.warn("Lote de {} gravações falhou, gravando um a um: {}", batch.size(), e.getMessage());
+            for (Pending<T, R> p : batch) {
+                try {
+                    p.complete(singleWriter.apply(p.item), null);
+                } catch (RuntimeException single) {
+                    p.complete(null, single);
+                }
+            }
+        } catch (Error e) {
+            batch.forEach(p -> p.complete(null, new IllegalStateException("Falha na gravação agrupada", e)));
+            throw e;
+        }
+    }
+
+    private static class Pending<T, R> {
+
+        private final T item;
+        private volatile boolean done;
+        private R result;
+        private RuntimeException error;
+
+        private Pending(T item) {
+            this.item = item;
+        }
+
+        private void complete(R result, RuntimeException error) {
+            this.result = result;
+            this.error = error;
+            this.done = true;
+        }
+
+        private R get() {
+            if (error != null) {
+                throw error;
+            }
+            return result;
+        }
+    }
+}
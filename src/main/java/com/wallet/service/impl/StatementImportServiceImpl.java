@@ -0,0 +1,215 @@
+package com.wallet.service.impl;
+
+import com.wallet.cache.WalletCache;
+import com.wallet.config.ReplicaRoutingDataSource;
+import com.wallet.entity.Wallet;
+import com.wallet.entity.WalletItem;
+import com.wallet.importer.CountingInputStream;
+import com.wallet.importer.ImportJob;
+import com.wallet.importer.StatementFormat;
+import com.wallet.importer.StatementParseException;
+import com.wallet.importer.StatementParser;
+import com.wallet.importer.StatementRow;
+import com.wallet.repository.StatementImportRepository;
+import com.wallet.service.StatementImportService;
+import com.wallet.service.WalletBalanceService;
+import com.wallet.service.WalletCheckpointService;
+import com.wallet.service.WalletItemService;
+import com.wallet.service.WalletRollupService;
+import com.wallet.util.VirtualThreads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class StatementImportServiceImpl implements StatementImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementImportServiceImpl.class);
+    private static final long FINISHED_JOB_TTL = TimeUnit.HOURS.toMillis(1);
+
+    private final StatementImportRepository repository;
+    private final WalletItemService walletItemService;
+    private final WalletBalanceService balanceService;
+    private final WalletRollupService rollupService;
+    private final WalletCheckpointService checkpointService;
+    private final WalletCache walletCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${import.chunk_size}")
+    private int chunkSize;
+
+    @Autowired
+    public StatementImportServiceImpl(StatementImportRepository repository, WalletItemService walletItemService,
+                                      WalletBalanceService balanceService, WalletRollupService rollupService,
+                                      WalletCheckpointService checkpointService, WalletCache walletCache,
+                                      TransactionTemplate transactionTemplate, @Value("${import.concurrency}") int concurrency,
+                                      @Value("${virtual_threads.enabled}") boolean virtualThreads) {
+        this.repository = repository;
+        this.walletItemService = walletItemService;
+        this.balanceService = balanceService;
+        this.rollupService = rollupService;
+        this.checkpointService = checkpointService;
+        this.walletCache = walletCache;
+        this.transactionTemplate = transactionTemplate;
+        // o pool fixo continua limitando quantas importações gravam ao mesmo tempo, com ou sem virtual threads
+        ThreadFactory threadFactory = virtualThreads ? VirtualThreads.factory("statement-import-") : new CustomizableThreadFactory("statement-import-");
+        this.executor = Executors.newFixedThreadPool(concurrency, threadFactory);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public ImportJob start(Long wallet, StatementFormat format, Path file) {
+        removeExpiredJobs();
+
+        long size;
+        try {
+            size = Files.size(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), wallet, format, size);
+        jobs.put(job.getId(), job);
+
+        // a importação grava em outra thread, sem o usuário autenticado: ele vai junto para o read-your-writes
+        String user = ReplicaRoutingDataSource.currentUser();
+        executor.execute(() -> run(job, file, user));
+        return job;
+    }
+
+    @Override
+    public Optional<ImportJob> findById(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    private void run(ImportJob job, Path file, String user) {
+        job.start();
+        try (StatementParser parser = StatementParser.of(job.getFormat(), new InputStreamReader(
+                new CountingInputStream(new BufferedInputStream(Files.newInputStream(file)), job.getBytesRead()), StandardCharsets.UTF_8))) {
+
+            List<StatementRow> chunk = new ArrayList<>(chunkSize);
+            while (true) {
+                StatementRow row;
+                try {
+                    row = parser.next();
+                } catch (StatementParseException e) {
+                    job.getRejected().incrementAndGet();
+                    job.addError(e.getMessage());
+                    continue;
+                }
+                if (row == null) {
+                    break;
+                }
+
+                job.getRowsRead().incrementAndGet();
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    load(job, chunk, user);
+                    chunk.clear();
+                }
+            }
+            load(job, chunk, user);
+
+            job.finish(ImportJob.Status.DONE);
+            log.info("Importação {} da carteira {} concluída: {} inseridos, {} duplicados, {} rejeitados",
+                    job.getId(), job.getWallet(), job.getInserted(), job.getDuplicates(), job.getRejected());
+        } catch (Exception e) {
+            log.error("Falha na importação {} da carteira {}", job.getId(), job.getWallet(), e);
+            job.addError(e.getMessage());
+            job.finish(ImportJob.Status.FAILED);
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Não foi possível remover o arquivo temporário {}", file, e);
+            }
+        }
+    }
+
+    // cada bloco é gravado em sua própria transação, então uma importação interrompida mantém o que já foi gravado
+    // e pode ser reenviada: os lançamentos já gravados são descartados pelo hash
+    private void load(ImportJob job, List<StatementRow> chunk, String user) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        int inserted = transactionTemplate.execute(status -> {
+            ReplicaRoutingDataSource.writtenBy(user);
+            return repository.supportsCopy()
+                    ? loadByCopy(job.getWallet(), chunk)
+                    : loadByBatch(job.getWallet(), chunk);
+        });
+
+        job.getInserted().addAndGet(inserted);
+        job.getDuplicates().addAndGet(chunk.size() - inserted);
+    }
+
+    private int loadByCopy(Long wallet, List<StatementRow> chunk) {
+        List<WalletItem> inserted = repository.copyAndMerge(wallet, chunk);
+
+        balanceService.applyAll(inserted);
+        rollupService.applyAll(inserted);
+        checkpointService.applyAll(inserted);
+        walletCache.evict(wallet);
+        return inserted.size();
+    }
+
+    private int loadByBatch(Long wallet, List<StatementRow> chunk) {
+        Map<String, StatementRow> unique = new LinkedHashMap<>();
+        chunk.forEach(r -> unique.putIfAbsent(r.getHash(), r));
+
+        Set<String> existing = repository.findExistingHashes(wallet, unique.keySet());
+        unique.keySet().removeAll(existing);
+        if (unique.isEmpty()) {
+            return 0;
+        }
+
+        repository.saveHashes(wallet, unique.keySet());
+
+        List<WalletItem> items = new ArrayList<>(unique.size());
+        for (StatementRow row : unique.values()) {
+            Wallet w = new Wallet();
+            w.setId(wallet);
+            items.add(new WalletItem(null, w, java.sql.Date.valueOf(row.getDate()), row.getType(), row.getDescription(), row.getValue()));
+        }
+
+        return walletItemService.saveAll(items).size();
+    }
+
+    private void removeExpiredJobs() {
+        long now = System.currentTimeMillis();
+        jobs.values().removeIf(j -> j.isFinished() && now - j.getFinishedAt().getTime() > FINISHED_JOB_TTL);
+    }
+}
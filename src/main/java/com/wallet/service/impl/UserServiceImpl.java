@@ -8,6 +8,7 @@ import com.wallet.service.UserService;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class UserServiceImpl implements UserService {
@@ -22,9 +23,17 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<User> findByEmail(String email) {
         // TODO Auto-generated method stub
         return repository.findByEmailEquals(email);
     }
-    
+
+    // sempre no primário, pela transação do repositório: o cadastro é anônimo e não abre a janela de
+    // read-your-writes, então um login logo depois dele não acharia o usuário numa réplica atrasada
+    @Override
+    public Optional<User> findForAuthentication(String email) {
+        return repository.findByEmailEquals(email);
+    }
+
 }
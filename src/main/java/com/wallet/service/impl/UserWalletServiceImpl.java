@@ -4,27 +4,118 @@ import com.wallet.entity.UserWallet;
 import com.wallet.repository.UserWalletRepository;
 import com.wallet.service.UserWalletService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 @Service
 public class UserWalletServiceImpl implements UserWalletService {
 
     UserWalletRepository userWalletRepository;
 
+    // usuário -> ids ordenados das carteiras que ele acessa, carregado sob demanda
+    private final Map<Long, long[]> walletsByUser;
+    private final AtomicLong generation = new AtomicLong();
+
     @Autowired
-    public UserWalletServiceImpl(UserWalletRepository userWalletRepository) {
+    public UserWalletServiceImpl(UserWalletRepository userWalletRepository,
+                                 @Value("${authorization.cache.max_users:10000}") int maxUsers) {
         this.userWalletRepository = userWalletRepository;
+        this.walletsByUser = new LinkedHashMap<Long, long[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, long[]> eldest) {
+                return size() > maxUsers;
+            }
+        };
     }
 
     @Override
     public UserWallet save(UserWallet userWallet) {
-        return userWalletRepository.save(userWallet);
+        // numa alteração, o dono anterior também perde o que estava em cache
+        Optional<Long> previous = userWallet.getId() == null ? Optional.empty() : userWalletRepository.findUsersIdById(userWallet.getId());
+        UserWallet saved = userWalletRepository.save(userWallet);
+        previous.ifPresent(this::evict);
+        if (saved.getUsers() != null) {
+            evict(saved.getUsers().getId());
+        }
+        return saved;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<UserWallet> findByUsersIdAndWalletId(Long user, Long wallet) {
         return userWalletRepository.findByUsersIdAndWalletId(user, wallet);
     }
+
+    @Override
+    public boolean hasAccess(Long user, Long wallet) {
+        if (user == null || wallet == null) {
+            return false;
+        }
+        return Arrays.binarySearch(walletsOf(user), wallet) >= 0;
+    }
+
+    @Override
+    public CompletionStage<Boolean> hasAccess(Long user, Long wallet, Function<Long, CompletionStage<List<Long>>> loader) {
+        if (user == null || wallet == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        long[] wallets = cached(user);
+        if (wallets != null) {
+            return CompletableFuture.completedFuture(Arrays.binarySearch(wallets, wallet) >= 0);
+        }
+
+        long loadedAt = generation.get();
+        return loader.apply(user).thenApply(ids -> Arrays.binarySearch(store(user, ids, loadedAt), wallet) >= 0);
+    }
+
+    @Override
+    public void evict(Long user) {
+        synchronized (walletsByUser) {
+            generation.incrementAndGet();
+            walletsByUser.remove(user);
+        }
+    }
+
+    private long[] walletsOf(Long user) {
+        long[] wallets = cached(user);
+        if (wallets != null) {
+            return wallets;
+        }
+
+        long loadedAt = generation.get();
+        return store(user, userWalletRepository.findWalletIdsByUsersId(user), loadedAt);
+    }
+
+    private long[] cached(Long user) {
+        synchronized (walletsByUser) {
+            return walletsByUser.get(user);
+        }
+    }
+
+    private long[] store(Long user, List<Long> ids, long loadedAt) {
+        long[] wallets = new long[ids.size()];
+        for (int i = 0; i < wallets.length; i++) {
+            wallets[i] = ids.get(i);
+        }
+        Arrays.sort(wallets);
+
+        synchronized (walletsByUser) {
+            // uma invalidação durante a consulta pode ter tornado o resultado obsoleto
+            if (generation.get() == loadedAt) {
+                walletsByUser.put(user, wallets);
+            }
+        }
+        return wallets;
+    }
 }
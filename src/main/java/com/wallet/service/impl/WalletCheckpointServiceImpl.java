@@ -0,0 +1,161 @@
+package com.wallet.service.impl;
+
+import com.wallet.entity.WalletCheckpoint;
+import com.wallet.entity.WalletItem;
+import com.wallet.repository.WalletBalanceRepository;
+import com.wallet.repository.WalletCheckpointRepository;
+import com.wallet.repository.WalletItemArchiveRepository;
+import com.wallet.repository.WalletItemRepository;
+import com.wallet.service.WalletCheckpointService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+@Service
+public class WalletCheckpointServiceImpl implements WalletCheckpointService {
+
+    private static final Comparator<WalletCheckpoint.Key> ORDER = Comparator.comparing(WalletCheckpoint.Key::getWallet)
+            .thenComparing(WalletCheckpoint.Key::getDate);
+
+    private final WalletCheckpointRepository repository;
+    private final WalletItemRepository walletItemRepository;
+    private final WalletItemArchiveRepository archiveRepository;
+    private final WalletBalanceRepository balanceRepository;
+
+    @Autowired
+    public WalletCheckpointServiceImpl(WalletCheckpointRepository repository, WalletItemRepository walletItemRepository,
+                                       WalletItemArchiveRepository archiveRepository, WalletBalanceRepository balanceRepository) {
+        this.repository = repository;
+        this.walletItemRepository = walletItemRepository;
+        this.archiveRepository = archiveRepository;
+        this.balanceRepository = balanceRepository;
+    }
+
+    @Override
+    @Transactional
+    public void apply(WalletItem previous, WalletItem current) {
+        Map<WalletCheckpoint.Key, BigDecimal> deltas = new TreeMap<>(ORDER);
+
+        if (previous != null) {
+            addDelta(deltas, previous, previous.getValue().negate());
+        }
+        if (current != null) {
+            addDelta(deltas, current, current.getValue());
+        }
+
+        applyDeltas(deltas);
+    }
+
+    @Override
+    @Transactional
+    public void applyAll(List<WalletItem> created) {
+        Map<WalletCheckpoint.Key, BigDecimal> deltas = new TreeMap<>(ORDER);
+        created.forEach(wi -> addDelta(deltas, wi, wi.getValue()));
+
+        applyDeltas(deltas);
+    }
+
+    // só os checkpoints a partir da data do lançamento mudam; lançamentos do mês corrente não encontram nenhum
+    private void applyDeltas(Map<WalletCheckpoint.Key, BigDecimal> deltas) {
+        deltas.forEach((key, delta) -> {
+            if (delta.signum() != 0) {
+                repository.addFromDate(key.getWallet(), key.getDate(), delta);
+            }
+        });
+    }
+
+    /**
+     * Grava os checkpoints de fim de mês que faltam até {@code until}, continuando do último existente.
+     */
+    @Override
+    @Transactional
+    public int checkpoint(Long wallet, LocalDate until) {
+        // as escritas atualizam o saldo antes dos checkpoints, então o lock no saldo impede que um lançamento
+        // retroativo concorrente fique fora do checkpoint que está sendo criado
+        balanceRepository.findByWalletForUpdate(wallet);
+
+        Optional<WalletCheckpoint> last = repository.findFirstByWalletOrderByDateDesc(wallet);
+        LocalDate previous;
+        BigDecimal balance;
+
+        if (last.isPresent()) {
+            previous = last.get().getDate();
+            balance = last.get().getBalance();
+        } else {
+            Date first = findFirstDate(wallet);
+            if (first == null) {
+                return 0;
+            }
+            previous = toLocalDate(first).minusDays(1);
+            balance = BigDecimal.ZERO;
+        }
+
+        int created = 0;
+        for (LocalDate end = endOfMonth(previous.plusDays(1)); !end.isAfter(until); end = endOfMonth(end.plusDays(1))) {
+            balance = balance.add(sumBetweenDates(wallet, toDate(previous.plusDays(1)), toDate(end.plusDays(1))));
+            repository.save(new WalletCheckpoint(wallet, end, balance));
+            previous = end;
+            created++;
+        }
+        return created;
+    }
+
+    /**
+     * Saldo ao final do dia: o checkpoint mais próximo antes da data mais a soma dos lançamentos depois dele.
+     */
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public BigDecimal balanceAt(Long wallet, LocalDate date) {
+        Date end = toDate(date.plusDays(1));
+        Optional<WalletCheckpoint> checkpoint = repository.findFirstByWalletAndDateLessThanEqualOrderByDateDesc(wallet, date);
+
+        if (!checkpoint.isPresent()) {
+            return orZero(walletItemRepository.sumBeforeDate(wallet, end)).add(orZero(archiveRepository.sumBeforeDate(wallet, end)));
+        }
+        BigDecimal delta = sumBetweenDates(wallet, toDate(checkpoint.get().getDate().plusDays(1)), end);
+        return checkpoint.get().getBalance().add(delta);
+    }
+
+    private static void addDelta(Map<WalletCheckpoint.Key, BigDecimal> deltas, WalletItem item, BigDecimal value) {
+        deltas.merge(new WalletCheckpoint.Key(item.getWallet().getId(), toLocalDate(item.getDate())), value, BigDecimal::add);
+    }
+
+    // lançamentos antigos podem estar em wallet_items_archive; as somas e a primeira data cobrem as duas tabelas
+    private BigDecimal sumBetweenDates(Long wallet, Date start, Date end) {
+        return orZero(walletItemRepository.sumBetweenDates(wallet, start, end)).add(orZero(archiveRepository.sumBetweenDates(wallet, start, end)));
+    }
+
+    private Date findFirstDate(Long wallet) {
+        Date archived = archiveRepository.findFirstDate(wallet);
+        Date hot = walletItemRepository.findFirstDate(wallet);
+        return archived == null || (hot != null && hot.before(archived)) ? hot : archived;
+    }
+
+    private static LocalDate endOfMonth(LocalDate date) {
+        return date.withDayOfMonth(date.lengthOfMonth());
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    private static Date toDate(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO : value;
+    }
+}
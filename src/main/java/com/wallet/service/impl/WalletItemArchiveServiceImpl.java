@@ -0,0 +1,42 @@
+package com.wallet.service.impl;
+
+import com.wallet.repository.WalletItemArchiveRepository;
+import com.wallet.service.WalletItemArchiveService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+@Service
+public class WalletItemArchiveServiceImpl implements WalletItemArchiveService {
+
+    private final WalletItemArchiveRepository repository;
+
+    @Autowired
+    public WalletItemArchiveServiceImpl(WalletItemArchiveRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Move um lote de até size lançamentos anteriores a before, com id maior que afterId, para wallet_items_archive.
+     * Cada lote é uma transação: interrompido no meio, o arquivamento recomeça do que ficou em wallet_items.
+     * Saldo, totais e checkpoints não mudam, os lançamentos só trocam de tabela.
+     */
+    @Override
+    @Transactional
+    public List<Long> archive(LocalDate before, long afterId, int size) {
+        Date limit = Date.from(before.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        List<Long> ids = repository.lockArchivable(limit, afterId, size);
+
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        repository.moveToArchive(ids, limit);
+        return ids;
+    }
+}
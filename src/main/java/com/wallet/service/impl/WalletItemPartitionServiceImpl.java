@@ -0,0 +1,96 @@
+package com.wallet.service.impl;
+
+import com.wallet.repository.WalletItemPartitionRepository;
+import com.wallet.repository.WalletItemPartitionRepository.Partition;
+import com.wallet.service.WalletItemPartitionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class WalletItemPartitionServiceImpl implements WalletItemPartitionService {
+
+    private final WalletItemPartitionRepository repository;
+
+    @Autowired
+    public WalletItemPartitionServiceImpl(WalletItemPartitionRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public boolean isPartitioned() {
+        return repository.isPartitioned();
+    }
+
+    /**
+     * Meses de from até until, inclusive, sem partição própria. Meses ainda cobertos por wallet_items_history
+     * não contam: ela é anexada com o intervalo fechado no V13.
+     */
+    @Override
+    public List<LocalDate> findMissingMonths(LocalDate from, LocalDate until) {
+        List<Partition> partitions = repository.findAll();
+        List<LocalDate> missing = new ArrayList<>();
+
+        for (LocalDate month = from.withDayOfMonth(1); !month.isAfter(until); month = month.plusMonths(1)) {
+            LocalDate m = month;
+            if (partitions.stream().noneMatch(p -> p.covers(m))) {
+                missing.add(month);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Cria a partição do mês e devolve false se outra instância já a criou enquanto esta esperava o lock.
+     */
+    @Override
+    @Transactional
+    public boolean createMonth(LocalDate month) {
+        LocalDate first = month.withDayOfMonth(1);
+        repository.lock();
+        if (repository.findAll().stream().anyMatch(p -> p.covers(first))) {
+            return false;
+        }
+        repository.create(first);
+        return true;
+    }
+
+    /**
+     * Partições que só guardam datas anteriores a before, da mais antiga para a mais nova. A default nunca expira.
+     */
+    @Override
+    public List<String> findExpired(LocalDate before) {
+        return repository.findAll().stream()
+                .filter(p -> !p.isDefaultPartition() && p.getTo() != null && !p.getTo().isAfter(before))
+                .sorted(Comparator.comparing(Partition::getTo))
+                .map(Partition::getName)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Desanexa a partição expirada e devolve false se outra instância já a desanexou. Só desanexa partições que o
+     * arquivamento já esvaziou: lançamentos desanexados sairiam do saldo conferido, da reconstrução dos totais e das
+     * leituras sem passar por wallet_items_archive. A verificação é feita depois do detach, que trava a partição,
+     * para que uma inclusão concorrente não escape; com lançamentos, a transação é desfeita.
+     */
+    @Override
+    @Transactional
+    public boolean detach(String name) {
+        repository.lock();
+        if (repository.findAll().stream().noneMatch(p -> p.getName().equals(name))) {
+            return false;
+        }
+        repository.detach(name);
+        if (repository.hasRows(name)) {
+            throw new IllegalStateException("A partição " + name + " ainda tem lançamentos não arquivados; "
+                    + "archive.after_months deve cobrir partition.retention_months");
+        }
+        return true;
+    }
+}
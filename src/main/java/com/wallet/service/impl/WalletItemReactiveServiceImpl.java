@@ -0,0 +1,165 @@
+package com.wallet.service.impl;
+
+import com.wallet.cache.WalletCache;
+import com.wallet.dto.WalletItemDTO;
+import com.wallet.enums.TypeEnum;
+import com.wallet.service.UserWalletService;
+import com.wallet.service.WalletItemReactiveService;
+import io.r2dbc.spi.Row;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Leituras de itens por R2DBC. Usa os mesmos caches do WalletItemService, com as mesmas chaves e os mesmos tipos de
+ * valor (WalletItemDTO), então um valor carregado por um caminho serve ao outro e as escritas invalidam os dois.
+ */
+@Service
+@ConditionalOnProperty(name = "reactive.enabled", havingValue = "true")
+public class WalletItemReactiveServiceImpl implements WalletItemReactiveService {
+
+    private static final String COLUMNS = "id, wallet, date, type, description, value";
+    private static final String BETWEEN_DATES = "wallet = :wallet and date >= :start and date <= :end";
+
+    private final DatabaseClient client;
+    private final UserWalletService userWalletService;
+    private final WalletCache walletCache;
+
+    @Value("${pagination.items_per_page}")
+    private int itemsPerPage;
+
+    @Autowired
+    public WalletItemReactiveServiceImpl(DatabaseClient client, UserWalletService userWalletService, WalletCache walletCache) {
+        this.client = client;
+        this.userWalletService = userWalletService;
+        this.walletCache = walletCache;
+    }
+
+    @Override
+    public Mono<Boolean> hasAccess(Long user, Long wallet) {
+        return Mono.fromCompletionStage(() -> userWalletService.hasAccess(user, wallet, u ->
+                client.sql("select wallet from users_wallet where users = :user")
+                        .bind("user", u)
+                        .map(row -> row.get("wallet", Long.class))
+                        .all().collectList().toFuture()));
+    }
+
+    @Override
+    public Mono<Page<WalletItemDTO>> findBetweenDates(Long wallet, Date start, Date end, int page) {
+        PageRequest pg = PageRequest.of(page, itemsPerPage, Sort.by("date", "id"));
+
+        return cached(WalletCache.FIND_BETWEEN_DATES, wallet, Arrays.asList(start.getTime(), end.getTime(), page), () ->
+                client.sql(limited(BETWEEN_DATES) + "order by date, id limit :limit offset :offset")
+                        .bind("wallet", wallet)
+                        .bind("start", toLocalDateTime(start))
+                        .bind("end", toLocalDateTime(end))
+                        .bind("rows", pg.getOffset() + pg.getPageSize())
+                        .bind("limit", pg.getPageSize())
+                        .bind("offset", pg.getOffset())
+                        .map(WalletItemReactiveServiceImpl::toDto)
+                        .all().collectList()
+                        .flatMap(content -> total(content, pg, wallet, start, end)
+                                .map(total -> (Page<WalletItemDTO>) new PageImpl<>(content, pg, total))));
+    }
+
+    @Override
+    public Mono<List<WalletItemDTO>> findByWalletAndType(Long wallet, TypeEnum typeEnum) {
+        if (typeEnum == null) {
+            return Mono.just(Collections.emptyList());
+        }
+
+        return cached(WalletCache.FIND_BY_WALLET_AND_TYPE, wallet, typeEnum, () ->
+                client.sql(union("wallet = :wallet and type = :type"))
+                        .bind("wallet", wallet)
+                        .bind("type", typeEnum.name())
+                        .map(WalletItemReactiveServiceImpl::toDto)
+                        .all().collectList());
+    }
+
+    @Override
+    public Mono<BigDecimal> sumByWalletId(Long wallet) {
+        // como no WalletItemService, o saldo mantido em wallet_balance evita somar os itens
+        return cached(WalletCache.SUM_BY_WALLET, wallet, wallet, () ->
+                client.sql("select balance from wallet_balance where wallet = :wallet")
+                        .bind("wallet", wallet)
+                        .map(row -> Optional.ofNullable(row.get("balance", BigDecimal.class)))
+                        .one()
+                        .switchIfEmpty(Mono.defer(() -> client.sql("select sum(t.total) from (select sum(value) as total from wallet_items where wallet = :wallet "
+                                + "union all select sum(value) from wallet_items_archive where wallet = :wallet) t")
+                                .bind("wallet", wallet)
+                                .map(row -> Optional.ofNullable(row.get(0, BigDecimal.class)))
+                                .one()))
+                        .flatMap(Mono::justOrEmpty));
+    }
+
+    // o count só é feito quando a página não permite deduzir o total, como no Spring Data
+    private Mono<Long> total(List<WalletItemDTO> content, PageRequest pg, Long wallet, Date start, Date end) {
+        if (content.size() < pg.getPageSize() && (pg.getOffset() == 0 || !content.isEmpty())) {
+            return Mono.just(pg.getOffset() + content.size());
+        }
+
+        return client.sql("select (select count(*) from wallet_items where " + BETWEEN_DATES + ") + (select count(*) from wallet_items_archive where " + BETWEEN_DATES + ")")
+                .bind("wallet", wallet)
+                .bind("start", toLocalDateTime(start))
+                .bind("end", toLocalDateTime(end))
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    // como no WalletItemReadRepository, as leituras cobrem os lançamentos arquivados
+    private static String union(String where) {
+        return "select " + COLUMNS + " from wallet_items where " + where + " union all select " + COLUMNS + " from wallet_items_archive where " + where + " ";
+    }
+
+    // cada tabela cortada em :rows pelo índice, em vez de ordenar todo o período para montar a página
+    private static String limited(String where) {
+        return "(select " + COLUMNS + " from wallet_items where " + where + " order by date, id limit :rows) union all (select "
+                + COLUMNS + " from wallet_items_archive where " + where + " order by date, id limit :rows) ";
+    }
+
+    private <T> Mono<T> cached(String name, Long wallet, Object key, Supplier<Mono<T>> loader) {
+        return Mono.fromCompletionStage(() -> walletCache.getAsync(name, wallet, key, () -> loader.get().toFuture()));
+    }
+
+    // mesmo mapeamento do WalletItemReadRepository
+    private static WalletItemDTO toDto(Row row) {
+        WalletItemDTO dto = new WalletItemDTO();
+        dto.setId(row.get("id", Long.class));
+        dto.setWallet(row.get("wallet", Long.class));
+        dto.setDate(toDate(row.get("date")));
+        dto.setType(TypeEnum.valueOf(row.get("type", String.class)).getValue());
+        dto.setDescription(row.get("description", String.class));
+        dto.setValue(row.get("value", BigDecimal.class));
+        return dto;
+    }
+
+    // a coluna é date no PostgreSQL e timestamp no schema gerado pelo Hibernate
+    private static Date toDate(Object value) {
+        if (value instanceof LocalDate) {
+            return Timestamp.valueOf(((LocalDate) value).atStartOfDay());
+        }
+        return Timestamp.valueOf((LocalDateTime) value);
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return new Timestamp(date.getTime()).toLocalDateTime();
+    }
+}
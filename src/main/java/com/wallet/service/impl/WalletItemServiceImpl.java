@@ -1,67 +1,318 @@
 package com.wallet.service.impl;
 
+import com.wallet.cache.WalletCache;
+import com.wallet.config.ReplicaRoutingDataSource;
+import com.wallet.dto.WalletItemDTO;
+import com.wallet.entity.Wallet;
+import com.wallet.entity.WalletBalance;
 import com.wallet.entity.WalletItem;
+import com.wallet.entity.WalletItemArchive;
+import com.wallet.entity.WalletRollup;
+import com.wallet.enums.GranularityEnum;
 import com.wallet.enums.TypeEnum;
+import com.wallet.repository.WalletItemArchiveRepository;
+import com.wallet.repository.WalletItemReadRepository;
 import com.wallet.repository.WalletItemRepository;
+import com.wallet.service.WalletBalanceService;
+import com.wallet.service.WalletCheckpointService;
 import com.wallet.service.WalletItemService;
+import com.wallet.service.WalletRollupService;
+import com.wallet.util.WalletItemCursor;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import springfox.documentation.annotations.Cacheable;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.annotation.PostConstruct;
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
 public class WalletItemServiceImpl implements WalletItemService {
 
     WalletItemRepository repository;
+    WalletItemArchiveRepository archiveRepository;
+    WalletItemReadRepository readRepository;
+    WalletBalanceService balanceService;
+    WalletRollupService rollupService;
+    WalletCheckpointService checkpointService;
+    WalletCache walletCache;
+    TransactionTemplate transactionTemplate;
+    MeterRegistry registry;
+    private GroupCommitQueue<Submission, WalletItem> groupCommit;
 
     @Value("${pagination.items_per_page}")
     private int itemsPerPage;
 
+    @Value("${pagination.max_items_per_page}")
+    private int maxItemsPerPage;
+
+    @Value("${group_commit.enabled}")
+    private boolean groupCommitEnabled;
+
+    @Value("${group_commit.max_batch}")
+    private int groupCommitMaxBatch;
+
+    @Value("${group_commit.max_wait_us}")
+    private long groupCommitMaxWaitMicros;
+
     @Autowired
-    public WalletItemServiceImpl(WalletItemRepository repository) {
+    public WalletItemServiceImpl(WalletItemRepository repository, WalletItemArchiveRepository archiveRepository, WalletItemReadRepository readRepository,
+                                 WalletBalanceService balanceService, WalletRollupService rollupService,
+                                 WalletCheckpointService checkpointService, WalletCache walletCache,
+                                 TransactionTemplate transactionTemplate, MeterRegistry registry) {
         this.repository = repository;
+        this.archiveRepository = archiveRepository;
+        this.readRepository = readRepository;
+        this.balanceService = balanceService;
+        this.rollupService = rollupService;
+        this.checkpointService = checkpointService;
+        this.walletCache = walletCache;
+        this.transactionTemplate = transactionTemplate;
+        this.registry = registry;
+    }
+
+    @PostConstruct
+    public void startGroupCommit() {
+        if (groupCommitEnabled) {
+            groupCommit = new GroupCommitQueue<>("wallet-item-group-commit", groupCommitMaxBatch, groupCommitMaxWaitMicros,
+                    this::saveSubmitted, this::saveAlone, registry);
+        }
     }
 
     @Override
-    @CacheEvict(value = "findByWalletandType", allEntries = true)
     public WalletItem save(WalletItem walletItem) {
-        return repository.save(walletItem);
+        // inclusões fora de uma transação do chamador podem dividir o commit com as de outras requisições
+        if (groupCommit != null && walletItem.getId() == null && !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return groupCommit.submit(new Submission(walletItem, ReplicaRoutingDataSource.currentUser()));
+        }
+        return transactionTemplate.execute(s -> saveOne(walletItem));
+    }
+
+    private WalletItem saveOne(WalletItem walletItem) {
+        // sem o lançamento, o merge do save viraria uma inclusão e o valor entraria duas vezes no saldo
+        WalletItem previous = walletItem.getId() == null ? null : lockCurrent(walletItem.getId()).map(this::copyOf)
+                .orElseThrow(() -> notFound(walletItem.getId()));
+        WalletItem saved = repository.save(walletItem);
+
+        balanceService.apply(previous, saved);
+        rollupService.apply(previous, saved);
+        checkpointService.apply(previous, saved);
+        if (previous != null) {
+            walletCache.evict(previous.getWallet().getId());
+        }
+        walletCache.evict(saved.getWallet().getId());
+        return saved;
+    }
+
+    // o lote roda na thread do líder: os autores das demais inclusões são registrados para o read-your-writes
+    private List<WalletItem> saveSubmitted(List<Submission> submitted) {
+        return transactionTemplate.execute(s -> {
+            submitted.forEach(sub -> ReplicaRoutingDataSource.writtenBy(sub.user));
+            return saveBatch(submitted.stream().map(sub -> sub.item).collect(Collectors.toList()));
+        });
+    }
+
+    // o id gerado na transação desfeita do lote não existe no banco, o item volta a ser uma inclusão
+    private WalletItem saveAlone(Submission submitted) {
+        submitted.item.setId(null);
+        return transactionTemplate.execute(s -> {
+            ReplicaRoutingDataSource.writtenBy(submitted.user);
+            return saveOne(submitted.item);
+        });
+    }
+
+    @Override
+    @Transactional
+    public List<WalletItem> saveAll(List<WalletItem> walletItems) {
+        return saveBatch(walletItems);
+    }
+
+    private List<WalletItem> saveBatch(List<WalletItem> walletItems) {
+        List<WalletItem> saved = repository.saveInBatches(walletItems);
+
+        balanceService.applyAll(saved);
+        rollupService.applyAll(saved);
+        checkpointService.applyAll(saved);
+        walletCache.evictAll(saved.stream().map(wi -> wi.getWallet().getId()).collect(Collectors.toSet()));
+        return saved;
     }
 
     @Override
-    public Page<WalletItem> findBetweenDates(Long wallet, Date start, Date end, int page) {
-        PageRequest pg = PageRequest.of(page, itemsPerPage);
+    @Transactional(readOnly = true)
+    public Page<WalletItemDTO> findBetweenDates(Long wallet, Date start, Date end, int page) {
+        PageRequest pg = PageRequest.of(page, itemsPerPage, Sort.by("date", "id"));
 
-        return repository.findAllByWalletIdAndDateGreaterThanEqualAndDateLessThanEqual(wallet, start, end, pg);
+        return walletCache.get(WalletCache.FIND_BETWEEN_DATES, wallet, Arrays.asList(start.getTime(), end.getTime(), page),
+                () -> readRepository.findBetweenDates(wallet, start, end, pg));
     }
 
     @Override
-    @Cacheable(value = "findByWalletAndType")
-    public List<WalletItem> findByWalletAndType(Long wallet, TypeEnum typeEnum) {
-        return repository.findByWalletIdAndType(wallet, typeEnum);
+    @Transactional(readOnly = true)
+    public Slice<WalletItemDTO> findBetweenDates(Long wallet, Date start, Date end, WalletItemCursor cursor, int size) {
+        int limit = limit(size);
+
+        List<WalletItemDTO> items = cursor == null
+                ? readRepository.findBetweenDates(wallet, start, end, limit + 1)
+                : readRepository.findBetweenDatesAfter(wallet, start, end, cursor.getDate(), cursor.getId(), limit + 1);
+
+        return toSlice(items, limit);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public long countBetweenDates(Long wallet, Date start, Date end) {
+        return readRepository.countBetweenDates(wallet, start, end);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportBetweenDates(Long wallet, Date start, Date end, Consumer<WalletItemDTO> consumer) {
+        readRepository.exportBetweenDates(wallet, start, end, consumer);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<WalletItemDTO> findByWalletAndType(Long wallet, TypeEnum typeEnum) {
+        return walletCache.get(WalletCache.FIND_BY_WALLET_AND_TYPE, wallet, typeEnum,
+                () -> readRepository.findByType(wallet, typeEnum));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<WalletItemDTO> findByWalletAndType(Long wallet, TypeEnum typeEnum, WalletItemCursor cursor, int size) {
+        int limit = limit(size);
+
+        List<WalletItemDTO> items = cursor == null
+                ? readRepository.findByType(wallet, typeEnum, limit + 1)
+                : readRepository.findByTypeAfter(wallet, typeEnum, cursor.getDate(), cursor.getId(), limit + 1);
+
+        return toSlice(items, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countByWalletAndType(Long wallet, TypeEnum typeEnum) {
+        return readRepository.countByType(wallet, typeEnum);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public BigDecimal sumByWalletId(Long wallet) {
-        return repository.sumByWalletId(wallet);
+        return walletCache.get(WalletCache.SUM_BY_WALLET, wallet, wallet, () -> balanceService.findByWalletId(wallet)
+                .map(WalletBalance::getBalance)
+                .orElseGet(() -> readRepository.sumByWalletId(wallet)));
     }
 
+    @Override
+    // lida da mesma réplica que os dados, para o ETag nunca ser mais novo que o conteúdo
+    @Transactional(readOnly = true)
+    public Optional<Long> findVersion(Long wallet) {
+        return balanceService.findVersion(wallet);
+    }
+
+    @Override
+    public List<WalletRollup> findSummary(Long wallet, GranularityEnum granularity, Date start, Date end) {
+        return rollupService.findBuckets(wallet, granularity, toLocalDate(start), toLocalDate(end));
+    }
+
+    @Override
+    public BigDecimal balanceAt(Long wallet, Date date) {
+        return checkpointService.balanceAt(wallet, toLocalDate(date));
+    }
+
+    /**
+     * Procura em wallet_items e, se o lançamento já foi arquivado, em wallet_items_archive.
+     */
     @Override
     public Optional<WalletItem> findById(Long id) {
-        return repository.findById(id);
+        Optional<WalletItem> item = repository.findById(id);
+        return item.isPresent() ? item : archiveRepository.findById(id).map(WalletItemServiceImpl::fromArchive);
     }
 
     @Override
-    @CacheEvict(value = "findByWalletandType", allEntries = true)
+    @Transactional
     public void deleteById(Long id) {
-        repository.deleteById(id);
+        WalletItem current = lockCurrent(id).orElseThrow(() -> notFound(id));
+        WalletItem previous = copyOf(current);
+        repository.delete(current);
+
+        balanceService.apply(previous, null);
+        rollupService.apply(previous, null);
+        checkpointService.apply(previous, null);
+        walletCache.evict(previous.getWallet().getId());
+    }
+
+    /**
+     * Trava o lançamento até o fim da transação. Um lançamento arquivado, inclusive pelo arquivamento que travava a
+     * linha enquanto esta transação esperava, volta antes para wallet_items; saldo e totais já o contam, então só
+     * a alteração ou a exclusão muda os valores. Se ainda for antigo, o próximo arquivamento o move de novo.
+     */
+    private Optional<WalletItem> lockCurrent(Long id) {
+        Optional<WalletItem> current = repository.findForUpdate(id);
+        if (!current.isPresent() && archiveRepository.restore(id)) {
+            current = repository.findForUpdate(id);
+        }
+        return current;
+    }
+
+    private static EmptyResultDataAccessException notFound(Long id) {
+        return new EmptyResultDataAccessException("WalletItem de id " + id + " não encontrado", 1);
+    }
+
+    private static WalletItem fromArchive(WalletItemArchive archived) {
+        Wallet wallet = new Wallet();
+        wallet.setId(archived.getWallet());
+        return new WalletItem(archived.getId(), wallet, archived.getDate(), archived.getType(), archived.getDescription(), archived.getValue());
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    private int limit(int size) {
+        return Math.min(Math.max(size, 1), maxItemsPerPage);
+    }
+
+    // um item além do limite é buscado apenas para saber se existe próxima página, sem query de count
+    private Slice<WalletItemDTO> toSlice(List<WalletItemDTO> items, int limit) {
+        boolean hasNext = items.size() > limit;
+        List<WalletItemDTO> content = hasNext ? items.subList(0, limit) : items;
+
+        return new SliceImpl<>(content, PageRequest.of(0, limit), hasNext);
+    }
+
+    // o merge do save sobrescreve a instância gerenciada, por isso o estado anterior é copiado antes
+    private WalletItem copyOf(WalletItem wi) {
+        return new WalletItem(wi.getId(), wi.getWallet(), wi.getDate(), wi.getType(), wi.getDescription(), wi.getValue());
+    }
+
+    // a inclusão e quem a pediu, que não é o usuário da thread que grava o lote
+    private static class Submission {
+
+        private final WalletItem item;
+        private final String user;
+
+        private Submission(WalletItem item, String user) {
+            this.item = item;
+            this.user = user;
+        }
     }
 }
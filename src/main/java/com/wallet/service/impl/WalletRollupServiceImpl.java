@@ -0,0 +1,121 @@
+package com.wallet.service.impl;
+
+import com.wallet.entity.WalletItem;
+import com.wallet.entity.WalletRollup;
+import com.wallet.enums.GranularityEnum;
+import com.wallet.enums.TypeEnum;
+import com.wallet.repository.WalletBalanceRepository;
+import com.wallet.repository.WalletItemArchiveRepository;
+import com.wallet.repository.WalletItemRepository;
+import com.wallet.repository.WalletRollupRepository;
+import com.wallet.service.WalletRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+@Service
+public class WalletRollupServiceImpl implements WalletRollupService {
+
+    // as linhas são sempre atualizadas na mesma ordem para escritas concorrentes não se travarem
+    private static final Comparator<WalletRollup.Key> ORDER = Comparator.comparing(WalletRollup.Key::getWallet)
+            .thenComparing(WalletRollup.Key::getGranularity)
+            .thenComparing(WalletRollup.Key::getPeriod)
+            .thenComparing(WalletRollup.Key::getType);
+
+    private final WalletRollupRepository repository;
+    private final WalletItemRepository walletItemRepository;
+    private final WalletItemArchiveRepository archiveRepository;
+    private final WalletBalanceRepository balanceRepository;
+
+    @Autowired
+    public WalletRollupServiceImpl(WalletRollupRepository repository, WalletItemRepository walletItemRepository,
+                                   WalletItemArchiveRepository archiveRepository, WalletBalanceRepository balanceRepository) {
+        this.repository = repository;
+        this.walletItemRepository = walletItemRepository;
+        this.archiveRepository = archiveRepository;
+        this.balanceRepository = balanceRepository;
+    }
+
+    @Override
+    @Transactional
+    public void apply(WalletItem previous, WalletItem current) {
+        Map<WalletRollup.Key, WalletRollup> deltas = new TreeMap<>(ORDER);
+
+        if (previous != null) {
+            addDelta(deltas, previous.getWallet().getId(), previous.getDate(), previous.getType(), previous.getValue().negate(), -1);
+        }
+        if (current != null) {
+            addDelta(deltas, current.getWallet().getId(), current.getDate(), current.getType(), current.getValue(), 1);
+        }
+
+        applyDeltas(deltas);
+    }
+
+    @Override
+    @Transactional
+    public void applyAll(List<WalletItem> created) {
+        Map<WalletRollup.Key, WalletRollup> deltas = new TreeMap<>(ORDER);
+        created.forEach(wi -> addDelta(deltas, wi.getWallet().getId(), wi.getDate(), wi.getType(), wi.getValue(), 1));
+
+        applyDeltas(deltas);
+    }
+
+    @Override
+    @Transactional
+    public void rebuild(Long wallet) {
+        // as escritas atualizam o saldo antes dos totais, então o lock no saldo serializa a reconstrução com elas
+        balanceRepository.findByWalletForUpdate(wallet);
+        repository.deleteByWallet(wallet);
+
+        Map<WalletRollup.Key, WalletRollup> rollups = new TreeMap<>(ORDER);
+        // um mesmo dia pode ter lançamentos nas duas tabelas; addDelta soma as linhas da mesma chave
+        List<Object[]> rows = new ArrayList<>(walletItemRepository.sumByDateAndType(wallet));
+        rows.addAll(archiveRepository.sumByDateAndType(wallet));
+        for (Object[] row : rows) {
+            addDelta(rollups, wallet, (Date) row[0], (TypeEnum) row[1], (BigDecimal) row[2], (Long) row[3]);
+        }
+        if (!rollups.isEmpty()) {
+            repository.addAll(rollups.values());
+        }
+    }
+
+    @Override
+    public List<WalletRollup> findBuckets(Long wallet, GranularityEnum granularity, LocalDate from, LocalDate to) {
+        return repository.findBuckets(wallet, granularity, granularity.truncate(from), to);
+    }
+
+    private void applyDeltas(Map<WalletRollup.Key, WalletRollup> deltas) {
+        // alterações que não mudam o período, o tipo nem o valor se anulam
+        List<WalletRollup> changed = deltas.values().stream()
+                .filter(r -> r.getItems() != 0 || r.getTotal().signum() != 0)
+                .collect(Collectors.toList());
+
+        if (!changed.isEmpty()) {
+            repository.addAll(changed);
+        }
+    }
+
+    private static void addDelta(Map<WalletRollup.Key, WalletRollup> deltas, Long wallet, Date date, TypeEnum type, BigDecimal value, long items) {
+        LocalDate day = Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
+
+        for (GranularityEnum granularity : GranularityEnum.values()) {
+            WalletRollup.Key key = new WalletRollup.Key(wallet, granularity, granularity.truncate(day), type);
+            WalletRollup rollup = deltas.computeIfAbsent(key, k -> new WalletRollup(k.getWallet(), k.getGranularity(),
+                    k.getPeriod(), k.getType(), BigDecimal.ZERO, 0L));
+            rollup.setTotal(rollup.getTotal().add(value));
+            rollup.setItems(rollup.getItems() + items);
+        }
+    }
+}
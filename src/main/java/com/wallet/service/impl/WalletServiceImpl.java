@@ -2,22 +2,29 @@ package com.wallet.service.impl;
 
 import com.wallet.entity.Wallet;
 import com.wallet.repository.WalletRepository;
+import com.wallet.service.WalletBalanceService;
 import com.wallet.service.WalletService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class WalletServiceImpl implements WalletService {
 
     private WalletRepository repository;
+    private WalletBalanceService balanceService;
 
     @Autowired
-    public WalletServiceImpl(WalletRepository repository) {
+    public WalletServiceImpl(WalletRepository repository, WalletBalanceService balanceService) {
         this.repository = repository;
+        this.balanceService = balanceService;
     }
 
     @Override
+    @Transactional
     public Wallet save(Wallet wallet) {
-        return repository.save(wallet);
+        Wallet saved = repository.save(wallet);
+        balanceService.initialize(saved.getId());
+        return saved;
     }
 }
@@ -1,7 +1,9 @@
 package com.wallet.util;
 
 import com.wallet.entity.User;
+import com.wallet.security.JwtUser;
 import com.wallet.service.UserService;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
@@ -18,7 +20,12 @@ public class Util {
 
     public static Long getAuthenticatedUserId() {
         try {
-            Optional<User> user = staticService.findByEmail(SecurityContextHolder.getContext().getAuthentication().getName());
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication.getPrincipal() instanceof JwtUser) {
+                return ((JwtUser) authentication.getPrincipal()).getId();
+            }
+
+            Optional<User> user = staticService.findByEmail(authentication.getName());
 
             return user.map(User::getId).orElse(null);
         }catch (Exception e) {
@@ -0,0 +1,83 @@
+package com.wallet.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Acesso às virtual threads do Java 21 por reflexão, para o mesmo bytecode Java 8 rodar nos dois JDKs.
+ */
+public final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL;
+    private static final Method NAME;
+    private static final Method FACTORY;
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        Method newThreadPerTaskExecutor = null;
+        try {
+            // os métodos são buscados na interface pública, a classe do builder é interna ao JDK
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+            newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+        NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+    }
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Fábrica de virtual threads com nomes prefix0, prefix1...
+     */
+    public static ThreadFactory factory(String prefix) {
+        checkSupported();
+        Object builder = invoke(OF_VIRTUAL, null);
+        builder = invoke(NAME, builder, prefix, 0L);
+        return (ThreadFactory) invoke(FACTORY, builder);
+    }
+
+    /**
+     * Executor que cria uma virtual thread por tarefa, sem pool.
+     */
+    public static ExecutorService newExecutor(String prefix) {
+        return (ExecutorService) invoke(NEW_THREAD_PER_TASK_EXECUTOR, null, factory(prefix));
+    }
+
+    private static void checkSupported() {
+        if (!isSupported()) {
+            throw new IllegalStateException("Virtual threads exigem Java 21 ou superior, versão atual " + System.getProperty("java.version"));
+        }
+    }
+
+    private static Object invoke(Method method, Object target, Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
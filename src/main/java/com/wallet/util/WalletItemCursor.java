@@ -0,0 +1,49 @@
+package com.wallet.util;
+
+import com.wallet.dto.WalletItemDTO;
+import com.wallet.entity.WalletItem;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Posição de leitura opaca para a paginação por chave (date, id) dos itens de uma carteira.
+ */
+@Getter
+@AllArgsConstructor
+public class WalletItemCursor {
+
+    private static final String SEPARATOR = ":";
+
+    private final Date date;
+    private final Long id;
+
+    public static WalletItemCursor of(WalletItem wi) {
+        return new WalletItemCursor(wi.getDate(), wi.getId());
+    }
+
+    public static WalletItemCursor of(WalletItemDTO dto) {
+        return new WalletItemCursor(dto.getDate(), dto.getId());
+    }
+
+    public String encode() {
+        String raw = date.getTime() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static WalletItemCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+            String[] parts = raw.split(SEPARATOR);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            return new WalletItemCursor(new Date(Long.parseLong(parts[0])), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+}
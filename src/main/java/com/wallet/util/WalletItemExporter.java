@@ -0,0 +1,72 @@
+package com.wallet.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.wallet.dto.WalletItemDTO;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Escreve itens de carteira um a um no formato de exportação escolhido, sem acumular linhas em memória.
+ * Instâncias não são thread-safe, cada exportação cria a sua.
+ */
+public class WalletItemExporter {
+
+    public static final String NDJSON = "ndjson";
+    public static final String CSV = "csv";
+
+    private static final String CSV_HEADER = "id,wallet,date,type,description,value\n";
+
+    private final String format;
+    private final OutputStream out;
+    private final ObjectWriter jsonWriter;
+    private final SimpleDateFormat dateFormat;
+
+    public WalletItemExporter(String format, ObjectMapper mapper, OutputStream out) {
+        if (!supports(format)) {
+            throw new IllegalArgumentException("Formato de exportação inválido: " + format);
+        }
+        this.format = format.toLowerCase(Locale.ROOT);
+        this.out = out;
+        this.jsonWriter = mapper.writerFor(WalletItemDTO.class);
+        this.dateFormat = new SimpleDateFormat("dd-MM-yyyy", new Locale("pt", "BR"));
+        this.dateFormat.setTimeZone(TimeZone.getTimeZone("Brazil/East"));
+    }
+
+    public static boolean supports(String format) {
+        return NDJSON.equalsIgnoreCase(format) || CSV.equalsIgnoreCase(format);
+    }
+
+    public static String contentType(String format) {
+        return CSV.equalsIgnoreCase(format) ? "text/csv" : "application/x-ndjson";
+    }
+
+    public void writeHeader() throws IOException {
+        if (CSV.equals(format)) {
+            out.write(CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    public void write(WalletItemDTO dto) throws IOException {
+        if (CSV.equals(format)) {
+            String line = dto.getId() + "," + dto.getWallet() + "," + dateFormat.format(dto.getDate()) + "," + dto.getType()
+                    + "," + escape(dto.getDescription()) + "," + dto.getValue().toPlainString() + "\n";
+            out.write(line.getBytes(StandardCharsets.UTF_8));
+        } else {
+            out.write(jsonWriter.writeValueAsBytes(dto));
+            out.write('\n');
+        }
+    }
+
+    private static String escape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
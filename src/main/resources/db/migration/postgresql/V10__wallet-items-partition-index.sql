@@ -0,0 +1,5 @@
+-- primeiro passo do particionamento de wallet_items por mês (V10 a V13): a chave primária de uma tabela
+-- particionada precisa conter a coluna de partição. Criado com concurrently, fora de transação, como no V6;
+-- pelo mesmo motivo, o índice INVALID deixado por uma execução interrompida é descartado antes de recriar
+drop index concurrently if exists wallet_items_id_date_uk;
+create unique index concurrently wallet_items_id_date_uk on wallet_items (id, date);
@@ -0,0 +1,14 @@
+-- a tabela atual vira a partição wallet_items_history, com as datas até o fim do mês corrente (ou do mês do
+-- lançamento mais distante). A restrição entra not valid, sem varrer a tabela; a maior data sai do índice de cada carteira
+do $$
+declare
+    last_date date;
+    cutoff date;
+begin
+    select max(x.date) into last_date
+    from wallet w cross join lateral (select max(wi.date) as date from wallet_items wi where wi.wallet = w.id) x;
+    last_date := greatest(last_date, (select max(date) from wallet_items where wallet is null), current_date);
+    cutoff := cast(date_trunc('month', last_date) + interval '1 month' as date);
+
+    execute format('alter table wallet_items add constraint wallet_items_partition_ck check (date is not null and date < %L) not valid', cutoff);
+end $$;
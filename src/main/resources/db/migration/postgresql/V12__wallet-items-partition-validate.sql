@@ -0,0 +1,2 @@
+-- varre a tabela com share update exclusive: leituras e escritas continuam durante a validação
+alter table wallet_items validate constraint wallet_items_partition_ck;
@@ -0,0 +1,49 @@
+-- troca a tabela pela particionada em uma transação curta: os índices, a chave primária e a chave estrangeira
+-- da tabela antiga são reaproveitados pelo attach, e a restrição validada no V12 dispensa a varredura
+alter table wallet_items rename to wallet_items_history;
+alter table wallet_items_history alter column date set not null;
+alter table wallet_items_history alter column id drop default;
+alter table wallet_items_history drop constraint wallet_items_pkey;
+alter table wallet_items_history add constraint wallet_items_history_pkey primary key using index wallet_items_id_date_uk;
+alter table wallet_items_history rename constraint wallet_items_wallet_fkey to wallet_items_history_wallet_fkey;
+alter index wallet_items_wallet_date_idx rename to wallet_items_history_wallet_date_idx;
+alter index wallet_items_wallet_type_date_idx rename to wallet_items_history_wallet_type_date_idx;
+
+create table wallet_items(
+id integer not null default nextval('wallet_items_id_seq'),
+wallet integer,
+date date not null,
+type varchar(2),
+description varchar(500),
+value numeric(10,2),
+primary key(id, date),
+foreign key(wallet) references wallet(id)
+) partition by range (date);
+
+alter sequence wallet_items_id_seq owned by wallet_items.id;
+
+create index wallet_items_wallet_date_idx on wallet_items (wallet, date, id) include (value);
+create index wallet_items_wallet_type_date_idx on wallet_items (wallet, type, date, id) include (value);
+
+-- meses seguintes ao histórico até três à frente; os próximos ficam com o WalletItemPartitionJob.
+-- Datas além da última partição caem em wallet_items_default até o job criar o mês delas
+do $$
+declare
+    cutoff date;
+    month date;
+begin
+    select cast(substring(pg_get_constraintdef(oid) from '''([0-9-]+)''') as date) into cutoff
+    from pg_constraint where conname = 'wallet_items_partition_ck' and conrelid = 'wallet_items_history'::regclass;
+
+    execute format('alter table wallet_items attach partition wallet_items_history for values from (minvalue) to (%L)', cutoff);
+    alter table wallet_items_history drop constraint wallet_items_partition_ck;
+
+    month := cutoff;
+    while month < date_trunc('month', current_date) + interval '4 months' loop
+        execute format('create table %I partition of wallet_items for values from (%L) to (%L)',
+                'wallet_items_' || to_char(month, 'YYYY_MM'), month, cast(month + interval '1 month' as date));
+        month := cast(month + interval '1 month' as date);
+    end loop;
+end $$;
+
+create table wallet_items_default partition of wallet_items default;
@@ -0,0 +1,14 @@
+-- lançamentos antigos movidos pelo WalletItemArchiveJob; os ids continuam os de wallet_items
+create table wallet_items_archive(
+id integer not null,
+wallet integer,
+date date not null,
+type varchar(2),
+description varchar(500),
+value numeric(10,2),
+primary key(id),
+foreign key(wallet) references wallet(id)
+);
+
+create index wallet_items_archive_wallet_date_idx on wallet_items_archive (wallet, date, id) include (value);
+create index wallet_items_archive_wallet_type_date_idx on wallet_items_archive (wallet, type, date, id) include (value);
@@ -0,0 +1,15 @@
+create table wallet_balance(
+wallet integer,
+balance numeric(14,2) not null default 0,
+total_in numeric(14,2) not null default 0,
+total_out numeric(14,2) not null default 0,
+primary key (wallet),
+foreign key(wallet) references wallet(id));
+
+insert into wallet_balance(wallet, balance, total_in, total_out)
+select w.id,
+coalesce(sum(wi.value), 0),
+coalesce(sum(case when wi.type = 'EN' then wi.value end), 0),
+coalesce(sum(case when wi.type = 'SD' then wi.value end), 0)
+from wallet w left join wallet_items wi on wi.wallet = w.id
+group by w.id;
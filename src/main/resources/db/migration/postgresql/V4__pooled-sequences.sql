@@ -0,0 +1,4 @@
+alter sequence users_id_seq increment by 50;
+alter sequence wallet_id_seq increment by 50;
+alter sequence users_wallet_id_seq increment by 50;
+alter sequence wallet_items_id_seq increment by 50;
@@ -0,0 +1,5 @@
+create table import_hash(
+wallet integer,
+hash varchar(64),
+primary key (wallet, hash),
+foreign key(wallet) references wallet(id));
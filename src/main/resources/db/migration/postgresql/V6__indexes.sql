@@ -0,0 +1,15 @@
+-- criados com concurrently para não bloquear escritas; o flyway executa este script fora de transação
+-- uma execução interrompida deixa o índice INVALID com o mesmo nome e a repetição falharia; como este script só
+-- volta a rodar depois de uma falha, o que existir com esses nomes é sobra dela e é descartado antes de recriar.
+-- Os índices únicos falham se houver e-mails ou vínculos usuário/carteira duplicados: a mensagem traz a chave
+-- repetida, que precisa ser corrigida antes do flyway repair e de uma nova execução
+-- extrato por período e paginação por cursor (wallet, date, id); value incluso para somar só pelo índice
+drop index concurrently if exists wallet_items_wallet_date_idx;
+create index concurrently wallet_items_wallet_date_idx on wallet_items (wallet, date, id) include (value);
+drop index concurrently if exists wallet_items_wallet_type_date_idx;
+create index concurrently wallet_items_wallet_type_date_idx on wallet_items (wallet, type, date, id) include (value);
+
+drop index concurrently if exists users_wallet_users_wallet_uk;
+create unique index concurrently users_wallet_users_wallet_uk on users_wallet (users, wallet);
+drop index concurrently if exists users_email_uk;
+create unique index concurrently users_email_uk on users (email);
@@ -0,0 +1,19 @@
+create table wallet_rollup(
+wallet integer,
+granularity varchar(5),
+period date,
+type varchar(2),
+total numeric(14,2) not null default 0,
+items bigint not null default 0,
+primary key (wallet, granularity, period, type),
+foreign key(wallet) references wallet(id));
+
+insert into wallet_rollup(wallet, granularity, period, type, total, items)
+select wallet, 'DAY', date, type, sum(value), count(*)
+from wallet_items
+group by wallet, date, type;
+
+insert into wallet_rollup(wallet, granularity, period, type, total, items)
+select wallet, 'MONTH', cast(date_trunc('month', date) as date), type, sum(value), count(*)
+from wallet_items
+group by wallet, cast(date_trunc('month', date) as date), type;
@@ -0,0 +1,6 @@
+create table wallet_checkpoint(
+wallet integer,
+date date,
+balance numeric(14,2) not null,
+primary key (wallet, date),
+foreign key(wallet) references wallet(id));
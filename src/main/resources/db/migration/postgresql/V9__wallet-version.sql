@@ -0,0 +1 @@
+alter table wallet_balance add column version bigint not null default 0;
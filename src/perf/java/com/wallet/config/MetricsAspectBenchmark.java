@@ -0,0 +1,90 @@
+package com.wallet.config;
+
+import com.wallet.entity.UserWallet;
+import com.wallet.service.UserWalletService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Sobrecarga do MetricsAspect: chamada direta, proxy sem aspecto e proxy com o timer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MetricsAspectBenchmark {
+
+    private UserWalletService direct;
+    private UserWalletService proxied;
+    private UserWalletService timed;
+
+    @Setup
+    public void setUp() {
+        direct = new StubUserWalletService();
+
+        AspectJProxyFactory plain = new AspectJProxyFactory(new StubUserWalletService());
+        plain.setProxyTargetClass(true);
+        proxied = plain.getProxy();
+
+        AspectJProxyFactory withAspect = new AspectJProxyFactory(new StubUserWalletService());
+        withAspect.setProxyTargetClass(true);
+        withAspect.addAspect(new MetricsAspect(new SimpleMeterRegistry()));
+        timed = withAspect.getProxy();
+    }
+
+    @Benchmark
+    public boolean direct() {
+        return direct.hasAccess(1L, 2L);
+    }
+
+    @Benchmark
+    public boolean proxied() {
+        return proxied.hasAccess(1L, 2L);
+    }
+
+    @Benchmark
+    public boolean timed() {
+        return timed.hasAccess(1L, 2L);
+    }
+
+    public static class StubUserWalletService implements UserWalletService {
+
+        @Override
+        public UserWallet save(UserWallet userWallet) {
+            return userWallet;
+        }
+
+        @Override
+        public Optional<UserWallet> findByUsersIdAndWalletId(Long user, Long wallet) {
+            return Optional.empty();
+        }
+
+        @Override
+        public boolean hasAccess(Long user, Long wallet) {
+            return user.longValue() != wallet.longValue();
+        }
+
+        @Override
+        public CompletionStage<Boolean> hasAccess(Long user, Long wallet, Function<Long, CompletionStage<List<Long>>> loader) {
+            return CompletableFuture.completedFuture(hasAccess(user, wallet));
+        }
+
+        @Override
+        public void evict(Long user) {
+        }
+    }
+
+}
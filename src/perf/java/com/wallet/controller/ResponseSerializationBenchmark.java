@@ -0,0 +1,116 @@
+package com.wallet.controller;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.wallet.dto.PageDTO;
+import com.wallet.dto.WalletItemDTO;
+import com.wallet.enums.TypeEnum;
+import com.wallet.response.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialização da listagem paginada com o mesmo ObjectMapper que o Spring Boot configura.
+ * serializePage é o formato antigo (PageImpl e o DTO pela introspecção do Jackson), serializeCompactPage o atual e
+ * serializeCompactPageGzip o atual com o gzip do server.compression (nível padrão do Deflater, como o Tomcat).
+ * Os tamanhos em bytes, crus e com gzip, saem no log do setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResponseSerializationBenchmark {
+
+    @Param({"10", "100"})
+    private int size;
+
+    private ObjectMapper legacyMapper;
+    private ObjectMapper mapper;
+    private Response<Page<WalletItemDTO>> legacy;
+    private Response<PageDTO<WalletItemDTO>> compact;
+
+    @Setup
+    public void setUp() throws IOException {
+        legacyMapper = Jackson2ObjectMapperBuilder.json().mixIn(WalletItemDTO.class, BeanSerialization.class).build();
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+
+        // como numa página real, alguns lançamentos por dia
+        LocalDate day = LocalDate.of(2021, 3, 1);
+        List<WalletItemDTO> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            WalletItemDTO dto = new WalletItemDTO();
+            dto.setId((long) i);
+            dto.setWallet(1L);
+            dto.setDate(Date.from(day.plusDays(i / 4).atStartOfDay(ZoneId.of("Brazil/East")).toInstant()));
+            dto.setType(TypeEnum.EN.getValue());
+            dto.setDescription("Lançamento " + i);
+            dto.setValue(BigDecimal.valueOf(i, 2));
+            items.add(dto);
+        }
+
+        Page<WalletItemDTO> page = new PageImpl<>(items, PageRequest.of(0, size), size * 10L);
+
+        legacy = new Response<>();
+        legacy.setData(page);
+        compact = new Response<>();
+        compact.setData(new PageDTO<>(items, size, size * 10L, "1"));
+
+        byte[] before = serializePage();
+        byte[] after = serializeCompactPage();
+        System.out.printf("%n%d itens: antes %d bytes, depois %d bytes (gzip %d)%n",
+                size, before.length, after.length, gzip(after).length);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return legacyMapper.writeValueAsBytes(legacy);
+    }
+
+    @Benchmark
+    public byte[] serializeCompactPage() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(compact);
+    }
+
+    @Benchmark
+    public byte[] serializeCompactPageGzip() throws IOException {
+        return gzip(mapper.writeValueAsBytes(compact));
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    @JsonSerialize(using = JsonSerializer.None.class)
+    private abstract static class BeanSerialization {
+
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy", locale = "pt-BR", timezone = "Brazil/East")
+        private Date date;
+    }
+}
@@ -0,0 +1,54 @@
+package com.wallet.controller;
+
+import com.wallet.dto.WalletItemDTO;
+import com.wallet.entity.Wallet;
+import com.wallet.entity.WalletItem;
+import com.wallet.enums.TypeEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WalletItemMapperBenchmark {
+
+    private WalletItemController controller;
+    private WalletItemDTO dto;
+    private WalletItem entity;
+
+    @Setup
+    public void setUp() {
+        controller = new WalletItemController(null, null, null, null);
+
+        dto = new WalletItemDTO();
+        dto.setWallet(1L);
+        dto.setDate(new Date());
+        dto.setType(TypeEnum.SD.getValue());
+        dto.setDescription("Conta de Luz");
+        dto.setValue(BigDecimal.valueOf(65));
+
+        Wallet wallet = new Wallet();
+        wallet.setId(1L);
+        entity = new WalletItem(1L, wallet, new Date(), TypeEnum.SD, "Conta de Luz", BigDecimal.valueOf(65));
+    }
+
+    @Benchmark
+    public WalletItem convertDtoToEntity() {
+        return controller.convertDtoToEntity(dto);
+    }
+
+    @Benchmark
+    public WalletItemDTO convertEntityToDto() {
+        return WalletItemController.convertEntityToDto(entity);
+    }
+
+}
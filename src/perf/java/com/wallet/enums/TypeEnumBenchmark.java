@@ -0,0 +1,26 @@
+package com.wallet.enums;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TypeEnumBenchmark {
+
+    @Param({"ENTRADA", "saida"})
+    private String value;
+
+    @Benchmark
+    public TypeEnum valuesFrom() {
+        return TypeEnum.valuesFrom(value);
+    }
+
+}
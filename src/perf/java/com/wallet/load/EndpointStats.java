@@ -0,0 +1,61 @@
+package com.wallet.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latências (em microssegundos) e erros de um endpoint durante a medição.
+ */
+class EndpointStats {
+
+    private static final long MAX_LATENCY_US = TimeUnit.MINUTES.toMicros(1);
+
+    private final String name;
+    private final Histogram histogram = new ConcurrentHistogram(MAX_LATENCY_US, 3);
+    private final AtomicLong errors = new AtomicLong();
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    void record(long nanos, boolean ok) {
+        histogram.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), MAX_LATENCY_US));
+        if (!ok) {
+            errors.incrementAndGet();
+        }
+    }
+
+    String getName() {
+        return name;
+    }
+
+    Map<String, Object> summary(double seconds) {
+        long count = histogram.getTotalCount();
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", count);
+        summary.put("throughput", round(count / seconds));
+        summary.put("errorRate", count == 0 ? 0.0 : round((double) errors.get() / count));
+        summary.put("p50", millis(histogram.getValueAtPercentile(50)));
+        summary.put("p99", millis(histogram.getValueAtPercentile(99)));
+        summary.put("p999", millis(histogram.getValueAtPercentile(99.9)));
+        summary.put("max", millis(histogram.getMaxValue()));
+        // lei de Little: média de requisições em andamento no endpoint durante a medição
+        summary.put("concurrency", round(count / seconds * histogram.getMean() / 1e6));
+        return summary;
+    }
+
+    private static double millis(long micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+}
@@ -0,0 +1,392 @@
+package com.wallet.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.wallet.WalletApplication;
+import com.wallet.entity.User;
+import com.wallet.entity.UserWallet;
+import com.wallet.entity.Wallet;
+import com.wallet.entity.WalletItem;
+import com.wallet.enums.TypeEnum;
+import com.wallet.service.UserService;
+import com.wallet.service.UserWalletService;
+import com.wallet.service.WalletItemService;
+import com.wallet.service.WalletService;
+import com.wallet.util.Bcrypt;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.core.env.Environment;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Teste de carga ponta a ponta: sobe a aplicação numa porta livre, cria usuários e carteiras
+ * e dispara uma mistura de requisições autenticadas por um tempo fixo.
+ *
+ * Por padrão usa o profile test (H2). Para o PostgreSQL local, passe por exemplo
+ * --spring.profiles.active=dev. As opções load.* são lidas do Environment; load.db_delay_ms
+ * simula um banco lento (ver {@link SlowDataSource}). Com --reactive.enabled=true as leituras
+ * usam /reactive/wallet-item.
+ */
+public class LoadTest {
+
+    private static final String PASSWORD = "load-test-123";
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    private static final String[] ENDPOINTS = {"auth", "create", "page", "type", "total"};
+    // pesos da mistura padrão, na ordem de ENDPOINTS
+    private static final String DEFAULT_MIX = "5,25,30,20,20";
+
+    private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+    private final String baseUrl;
+    private int[] mix;
+    private String readPath;
+    private volatile boolean measuring;
+    private volatile boolean running = true;
+
+    private LoadTest(int port) {
+        this.baseUrl = "http://localhost:" + port;
+        for (String e : ENDPOINTS) {
+            stats.put(e, new EndpointStats(e));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        // o restart do devtools executaria o main de novo com os argumentos já acrescentados
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        // argumentos de linha de comando têm precedência sobre o application.properties
+        List<String> arguments = new ArrayList<>();
+        arguments.add("--server.port=0");
+        arguments.add("--spring.jpa.properties.hibernate.show_sql=false");
+        if (Arrays.stream(args).noneMatch(a -> a.startsWith("--spring.profiles.active="))) {
+            arguments.add("--spring.profiles.active=test");
+        }
+        arguments.addAll(Arrays.asList(args));
+
+        ServletWebServerApplicationContext context = (ServletWebServerApplicationContext) new SpringApplicationBuilder(WalletApplication.class)
+                .initializers(SlowDataSource::register)
+                .run(arguments.toArray(new String[0]));
+
+        int exitCode;
+        try {
+            exitCode = new LoadTest(context.getWebServer().getPort()).run(context);
+        } finally {
+            context.close();
+        }
+        System.exit(exitCode);
+    }
+
+    private int run(ServletWebServerApplicationContext context) throws Exception {
+        Environment env = context.getEnvironment();
+        int users = env.getProperty("load.users", Integer.class, 20);
+        int walletsPerUser = env.getProperty("load.wallets_per_user", Integer.class, 2);
+        int seedItems = env.getProperty("load.seed_items", Integer.class, 200);
+        int warmup = env.getProperty("load.warmup", Integer.class, 10);
+        int duration = env.getProperty("load.duration", Integer.class, 30);
+        mix = cumulative(env.getProperty("load.mix", DEFAULT_MIX));
+        // com o caminho R2DBC ligado, as leituras vão para ele
+        readPath = env.getProperty("reactive.enabled", Boolean.class, false) ? "/reactive/wallet-item" : "/wallet-item";
+
+        System.out.printf("Criando %d usuários com %d carteiras e %d lançamentos cada%n", users, walletsPerUser, seedItems);
+        List<VirtualUser> virtualUsers = seed(context, users, walletsPerUser, seedItems);
+
+        CountDownLatch done = new CountDownLatch(virtualUsers.size());
+        for (VirtualUser vu : virtualUsers) {
+            Thread t = new Thread(() -> {
+                try {
+                    vu.loop();
+                } finally {
+                    done.countDown();
+                }
+            }, "load-" + vu.email);
+            t.start();
+        }
+
+        System.out.printf("Aquecimento de %ds%n", warmup);
+        TimeUnit.SECONDS.sleep(warmup);
+        measuring = true;
+        System.out.printf("Medindo por %ds%n", duration);
+        long start = System.nanoTime();
+        TimeUnit.SECONDS.sleep(duration);
+        measuring = false;
+        double seconds = (System.nanoTime() - start) / 1e9;
+        running = false;
+        done.await();
+
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        stats.forEach((name, s) -> result.put(name, s.summary(seconds)));
+
+        File resultFile = new File(env.getProperty("load.result", "target/load-result.json"));
+        mapper.writeValue(resultFile, result);
+        print(result);
+        System.out.println("Resultado gravado em " + resultFile.getAbsolutePath());
+
+        String baseline = env.getProperty("load.baseline");
+        if (baseline == null) {
+            return 0;
+        }
+        return compare(result, new File(baseline), env.getProperty("load.max_regression", Double.class, 0.2));
+    }
+
+    private static int[] cumulative(String weights) {
+        String[] parts = weights.split(",");
+        if (parts.length != ENDPOINTS.length) {
+            throw new IllegalArgumentException("load.mix deve ter um peso para cada endpoint " + Arrays.toString(ENDPOINTS));
+        }
+        int[] result = new int[parts.length];
+        int total = 0;
+        for (int i = 0; i < parts.length; i++) {
+            total += Integer.parseInt(parts[i].trim());
+            result[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("load.mix sem nenhum peso positivo");
+        }
+        return result;
+    }
+
+    private List<VirtualUser> seed(ServletWebServerApplicationContext context, int users, int walletsPerUser, int seedItems) {
+        UserService userService = context.getBean(UserService.class);
+        WalletService walletService = context.getBean(WalletService.class);
+        UserWalletService userWalletService = context.getBean(UserWalletService.class);
+        WalletItemService walletItemService = context.getBean(WalletItemService.class);
+
+        // o hash é calculado uma vez só, o bcrypt por usuário dominaria o tempo de preparação
+        String hash = Bcrypt.getHash(PASSWORD);
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        List<VirtualUser> list = new ArrayList<>(users);
+
+        for (int u = 0; u < users; u++) {
+            User user = new User();
+            user.setName("Usuário carga " + u);
+            user.setEmail("load-" + run + "-" + u + "@wallet.test");
+            user.setPassword(hash);
+            user = userService.save(user);
+
+            List<Long> wallets = new ArrayList<>(walletsPerUser);
+            for (int w = 0; w < walletsPerUser; w++) {
+                Wallet wallet = new Wallet();
+                wallet.setName("Carteira " + u + "-" + w);
+                wallet.setValue(BigDecimal.ZERO);
+                wallet = walletService.save(wallet);
+
+                UserWallet uw = new UserWallet();
+                uw.setUsers(user);
+                uw.setWallet(wallet);
+                userWalletService.save(uw);
+
+                List<WalletItem> items = new ArrayList<>(seedItems);
+                for (int i = 0; i < seedItems; i++) {
+                    items.add(randomItem(wallet.getId(), i));
+                }
+                if (!items.isEmpty()) {
+                    walletItemService.saveAll(items);
+                }
+                wallets.add(wallet.getId());
+            }
+            list.add(new VirtualUser(user.getEmail(), wallets));
+        }
+        return list;
+    }
+
+    private static WalletItem randomItem(Long walletId, int i) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Wallet wallet = new Wallet();
+        wallet.setId(walletId);
+        TypeEnum type = random.nextBoolean() ? TypeEnum.EN : TypeEnum.SD;
+        BigDecimal value = BigDecimal.valueOf(random.nextInt(1, 100000), 2);
+        Date date = Date.from(LocalDate.now().minusDays(random.nextInt(365)).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        return new WalletItem(null, wallet, date, type, "Lançamento de carga " + i, type == TypeEnum.SD ? value.negate() : value);
+    }
+
+    private class VirtualUser {
+
+        private final String email;
+        private final List<Long> wallets;
+        private String token;
+
+        VirtualUser(String email, List<Long> wallets) {
+            this.email = email;
+            this.wallets = wallets;
+        }
+
+        void loop() {
+            // sob carga o login pode falhar por timeout; sem token todas as chamadas seguintes seriam 401
+            boolean logged = false;
+            while (running && !logged) {
+                try {
+                    logged = login();
+                } catch (IOException e) {
+                    System.err.println("Falha no login de " + email + ": " + e.getMessage());
+                    return;
+                }
+            }
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (running) {
+                int roll = random.nextInt(mix[mix.length - 1]);
+                int op = 0;
+                while (roll >= mix[op]) {
+                    op++;
+                }
+                Long wallet = wallets.get(random.nextInt(wallets.size()));
+
+                long start = System.nanoTime();
+                boolean ok;
+                try {
+                    ok = execute(ENDPOINTS[op], wallet);
+                } catch (IOException e) {
+                    ok = false;
+                }
+                if (measuring) {
+                    stats.get(ENDPOINTS[op]).record(System.nanoTime() - start, ok);
+                }
+            }
+        }
+
+        private boolean execute(String endpoint, Long wallet) throws IOException {
+            LocalDate today = LocalDate.now();
+            switch (endpoint) {
+                case "auth":
+                    return login();
+                case "create":
+                    Map<String, Object> item = new LinkedHashMap<>();
+                    item.put("wallet", wallet);
+                    item.put("date", today.format(DATE));
+                    item.put("type", "SAIDA");
+                    item.put("description", "Lançamento da carga");
+                    item.put("value", -12.5);
+                    return request("POST", "/wallet-item", mapper.writeValueAsBytes(item)) == 201;
+                case "page":
+                    return request("GET", readPath + "/" + wallet + "?startDate=" + today.minusDays(90).format(DATE)
+                            + "&endDate=" + today.format(DATE) + "&page=0", null) == 200;
+                case "type":
+                    return request("GET", readPath + "/type/" + wallet + "?type=ENTRADA", null) == 200;
+                default:
+                    return request("GET", readPath + "/total/" + wallet, null) == 200;
+            }
+        }
+
+        private boolean login() throws IOException {
+            Map<String, String> body = new LinkedHashMap<>();
+            body.put("email", email);
+            body.put("password", PASSWORD);
+
+            HttpURLConnection conn = open("POST", "/auth");
+            write(conn, mapper.writeValueAsBytes(body));
+            if (conn.getResponseCode() != 200) {
+                drain(conn);
+                return false;
+            }
+            JsonNode response = mapper.readTree(read(conn.getInputStream()));
+            token = response.path("data").path("token").asText();
+            return true;
+        }
+
+        private int request(String method, String path, byte[] body) throws IOException {
+            HttpURLConnection conn = open(method, path);
+            conn.setRequestProperty("Authorization", "Bearer " + token);
+            if (body != null) {
+                write(conn, body);
+            }
+            int status = conn.getResponseCode();
+            drain(conn);
+            return status;
+        }
+    }
+
+    private HttpURLConnection open(String method, String path) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        conn.setRequestMethod(method);
+        conn.setRequestProperty("Accept", "application/json");
+        conn.setConnectTimeout(5000);
+        conn.setReadTimeout(60000);
+        return conn;
+    }
+
+    private static void write(HttpURLConnection conn, byte[] body) throws IOException {
+        conn.setDoOutput(true);
+        conn.setRequestProperty("Content-Type", "application/json");
+        try (OutputStream out = conn.getOutputStream()) {
+            out.write(body);
+        }
+    }
+
+    // a resposta é lida até o fim para a conexão voltar ao pool de keep-alive
+    private static void drain(HttpURLConnection conn) throws IOException {
+        InputStream in = conn.getResponseCode() >= 400 ? conn.getErrorStream() : conn.getInputStream();
+        if (in != null) {
+            read(in);
+        }
+    }
+
+    private static byte[] read(InputStream in) throws IOException {
+        try (InputStream input = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = input.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private static void print(Map<String, Map<String, Object>> result) {
+        System.out.printf("%n%-8s %10s %10s %8s %10s %10s %10s %12s%n", "endpoint", "req/s", "erros", "p50 ms", "p99 ms", "p999 ms", "max ms", "concorrência");
+        result.forEach((name, s) -> System.out.printf("%-8s %10.1f %9.2f%% %8.2f %10.2f %10.2f %10.2f %12.1f%n", name,
+                s.get("throughput"), (Double) s.get("errorRate") * 100, s.get("p50"), s.get("p99"), s.get("p999"), s.get("max"), s.get("concurrency")));
+    }
+
+    private int compare(Map<String, Map<String, Object>> result, File baselineFile, double maxRegression) throws IOException {
+        if (!baselineFile.exists()) {
+            System.out.println("Baseline " + baselineFile + " não encontrada, nada a comparar");
+            return 0;
+        }
+        JsonNode baseline = mapper.readTree(baselineFile);
+
+        int regressions = 0;
+        System.out.printf("%nComparação com %s (limite de %.0f%%)%n", baselineFile, maxRegression * 100);
+        for (Map.Entry<String, Map<String, Object>> e : result.entrySet()) {
+            JsonNode base = baseline.path(e.getKey());
+            if (base.isMissingNode()) {
+                continue;
+            }
+            double throughput = change((Double) e.getValue().get("throughput"), base.path("throughput").asDouble());
+            double p99 = change((Double) e.getValue().get("p99"), base.path("p99").asDouble());
+            boolean regressed = throughput < -maxRegression || p99 > maxRegression;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-8s req/s %+7.1f%%   p99 %+7.1f%%%s%n", e.getKey(), throughput * 100, p99 * 100, regressed ? "   REGRESSÃO" : "");
+        }
+        return regressions == 0 ? 0 : 1;
+    }
+
+    private static double change(double current, double base) {
+        return base == 0 ? 0 : (current - base) / base;
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.wallet.load;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Envolve o DataSource e atrasa cada execução de comando e cada commit em load.db_delay_ms, simulando um banco
+ * lento ou distante. A conexão fica presa durante o atraso, como ficaria esperando a resposta do banco.
+ */
+class SlowDataSource implements BeanPostProcessor {
+
+    private final long delayMillis;
+
+    private SlowDataSource(long delayMillis) {
+        this.delayMillis = delayMillis;
+    }
+
+    static void register(ConfigurableApplicationContext context) {
+        long delay = context.getEnvironment().getProperty("load.db_delay_ms", Long.class, 0L);
+        if (delay > 0) {
+            System.out.printf("Banco lento: %dms por comando%n", delay);
+            context.getBeanFactory().addBeanPostProcessor(new SlowDataSource(delay));
+        }
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource)) {
+            return bean;
+        }
+        Class<?>[] interfaces = bean instanceof Closeable ? new Class<?>[]{DataSource.class, Closeable.class} : new Class<?>[]{DataSource.class};
+        return Proxy.newProxyInstance(getClass().getClassLoader(), interfaces, (proxy, method, args) -> {
+            Object result = invoke(bean, method, args);
+            return result instanceof Connection ? connection((Connection) result) : result;
+        });
+    }
+
+    private Connection connection(Connection target) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+            if (method.getName().equals("commit")) {
+                sleep();
+            }
+            Object result = invoke(target, method, args);
+            return result instanceof Statement ? statement((Statement) result) : result;
+        });
+    }
+
+    private Object statement(Statement target) {
+        // o proxy expõe as mesmas interfaces do statement original (Statement, PreparedStatement ou CallableStatement)
+        return Proxy.newProxyInstance(getClass().getClassLoader(), statementInterfaces(target), (proxy, method, args) -> {
+            if (method.getName().startsWith("execute")) {
+                sleep();
+            }
+            return invoke(target, method, args);
+        });
+    }
+
+    private static Class<?>[] statementInterfaces(Statement target) {
+        if (target instanceof CallableStatement) {
+            return new Class<?>[]{CallableStatement.class};
+        }
+        if (target instanceof PreparedStatement) {
+            return new Class<?>[]{PreparedStatement.class};
+        }
+        return new Class<?>[]{Statement.class};
+    }
+
+    private void sleep() throws InterruptedException {
+        TimeUnit.MILLISECONDS.sleep(delayMillis);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
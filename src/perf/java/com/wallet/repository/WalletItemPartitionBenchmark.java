@@ -0,0 +1,157 @@
+package com.wallet.repository;
+
+import com.wallet.WalletApplication;
+import com.wallet.dataset.DatasetGenerator;
+import com.wallet.dto.WalletItemDTO;
+import com.wallet.entity.WalletItem;
+import com.wallet.service.WalletItemPartitionService;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas por período em wallet_items antes (schema até o V9, uma tabela só) e depois do particionamento
+ * mensal (V13), com a mesma massa do DatasetGenerator: um ano terminando daqui a doze meses, para que quase
+ * tudo caia em partições mensais criadas pelo WalletItemPartitionService. Só faz sentido no PostgreSQL e
+ * apaga o schema do banco informado:
+ * -jvmArgsAppend "-Dspring.datasource.url=jdbc:postgresql://... -Dspring.datasource.username=... -Dspring.datasource.password=..."
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WalletItemPartitionBenchmark {
+
+    private static final String MONTH_TOTALS = "select type, sum(value), count(*) from wallet_items where date >= ? and date <= ? group by type";
+
+    @Param({"9", "latest"})
+    public String schemaVersion;
+
+    private ConfigurableApplicationContext context;
+    private WalletItemRepository repository;
+    private WalletItemReadRepository readRepository;
+    private JdbcTemplate jdbcTemplate;
+
+    private Long hotWallet;
+    private Long wallet;
+    private Date monthStart;
+    private Date monthEnd;
+    private Date quarterStart;
+    private PageRequest page;
+
+    @Setup
+    public void setUp() throws SQLException {
+        String url = System.getProperty("spring.datasource.url", "");
+        if (!url.startsWith("jdbc:postgresql:")) {
+            throw new IllegalStateException("WalletItemPartitionBenchmark exige -Dspring.datasource.url=jdbc:postgresql://...");
+        }
+
+        FluentConfiguration flyway = Flyway.configure()
+                .dataSource(url, System.getProperty("spring.datasource.username"), System.getProperty("spring.datasource.password"))
+                .locations("classpath:db/migration/postgresql")
+                .cleanDisabled(false)
+                .target(schemaVersion);
+        flyway.load().clean();
+        flyway.load().migrate();
+
+        context = new SpringApplicationBuilder(WalletApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=test", "--spring.flyway.enabled=false", "--spring.jpa.hibernate.ddl-auto=none",
+                        "--spring.datasource.driver-class-name=org.postgresql.Driver",
+                        "--spring.jpa.properties.hibernate.show_sql=false",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false", "--logging.level.root=WARN");
+        repository = context.getBean(WalletItemRepository.class);
+        readRepository = context.getBean(WalletItemReadRepository.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        DatasetGenerator.Options options = new DatasetGenerator.Options();
+        options.setUsers(50);
+        options.setWallets(1000);
+        options.setItems(1_000_000);
+        options.setHotWallets(1);
+        options.setHotShare(0.2);
+        options.setDays(365);
+        options.setEndDate(LocalDate.now().withDayOfMonth(1).plusMonths(12));
+
+        WalletItemPartitionService partitionService = context.getBean(WalletItemPartitionService.class);
+        if (partitionService.isPartitioned()) {
+            partitionService.findMissingMonths(options.getEndDate().minusDays(options.getDays()), options.getEndDate())
+                    .forEach(partitionService::createMonth);
+        }
+
+        DataSource dataSource = context.getBean(DataSource.class);
+        DatasetGenerator.Summary summary = new DatasetGenerator(options).generate(dataSource);
+
+        // sem o autovacuum correndo junto com as medições
+        try (Connection c = dataSource.getConnection(); Statement st = c.createStatement()) {
+            st.execute("vacuum analyze");
+        }
+
+        hotWallet = summary.getHotWallets().get(0);
+        wallet = summary.getLastWallet();
+        LocalDate month = options.getEndDate().minusMonths(6);
+        monthStart = date(month);
+        monthEnd = date(month.plusMonths(1).minusDays(1));
+        quarterStart = date(month.minusMonths(2));
+        page = PageRequest.of(0, 100, Sort.by("date", "id"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<WalletItem> monthEntities() {
+        return repository.findAllByWalletIdAndDateGreaterThanEqualAndDateLessThanEqual(hotWallet, monthStart, monthEnd, page).getContent();
+    }
+
+    @Benchmark
+    public List<WalletItemDTO> monthRows() {
+        return readRepository.findBetweenDates(hotWallet, monthStart, monthEnd, page).getContent();
+    }
+
+    @Benchmark
+    public List<WalletItemDTO> monthRowsSmallWallet() {
+        return readRepository.findBetweenDates(wallet, monthStart, monthEnd, page).getContent();
+    }
+
+    @Benchmark
+    public long quarterCount() {
+        return readRepository.countBetweenDates(hotWallet, quarterStart, monthEnd);
+    }
+
+    // período sem carteira, como um relatório do mês: sem índice por data, só a poda de partições evita ler a tabela toda
+    @Benchmark
+    public List<Map<String, Object>> monthTotalsAllWallets() {
+        return jdbcTemplate.queryForList(MONTH_TOTALS, monthStart, monthEnd);
+    }
+
+    private static Date date(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
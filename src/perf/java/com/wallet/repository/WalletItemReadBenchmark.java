@@ -0,0 +1,136 @@
+package com.wallet.repository;
+
+import com.wallet.WalletApplication;
+import com.wallet.dataset.DatasetGenerator;
+import com.wallet.dto.WalletItemDTO;
+import com.wallet.entity.WalletItem;
+import com.wallet.enums.TypeEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leituras da carteira mais movimentada de uma massa do DatasetGenerator: o caminho antigo (entidades do
+ * WalletItemRepository copiadas para DTO) contra o WalletItemReadRepository. Usa o H2 do profile test;
+ * para outro banco, passe -Dspring.datasource.* em -jvmArgsAppend.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WalletItemReadBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private WalletItemRepository repository;
+    private WalletItemReadRepository readRepository;
+
+    private Long wallet;
+    private Date start;
+    private Date end;
+    private PageRequest page;
+
+    @Setup
+    public void setUp() throws SQLException {
+        context = new SpringApplicationBuilder(WalletApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=test", "--spring.jpa.properties.hibernate.show_sql=false",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false", "--logging.level.root=WARN");
+        repository = context.getBean(WalletItemRepository.class);
+        readRepository = context.getBean(WalletItemReadRepository.class);
+
+        DatasetGenerator.Options options = new DatasetGenerator.Options();
+        options.setUsers(20);
+        options.setWallets(100);
+        options.setItems(200_000);
+        options.setHotWallets(1);
+        options.setHotShare(0.5);
+        options.setDays(365);
+        options.setEndDate(LocalDate.of(2021, 3, 1));
+        DataSource dataSource = context.getBean(DataSource.class);
+        DatasetGenerator.Summary summary = new DatasetGenerator(options).generate(dataSource);
+
+        // sem o autovacuum correndo junto com as medições
+        try (Connection c = dataSource.getConnection(); Statement st = c.createStatement()) {
+            st.execute("PostgreSQL".equals(c.getMetaData().getDatabaseProductName()) ? "vacuum analyze" : "analyze");
+        }
+
+        wallet = summary.getHotWallets().get(0);
+        start = Date.from(options.getEndDate().minusMonths(3).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        end = Date.from(options.getEndDate().atStartOfDay(ZoneId.systemDefault()).toInstant());
+        page = PageRequest.of(2, 100, Sort.by("date", "id"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<WalletItemDTO> pageEntities() {
+        Page<WalletItem> items = repository.findAllByWalletIdAndDateGreaterThanEqualAndDateLessThanEqual(wallet, start, end, page);
+        return toDto(items.getContent());
+    }
+
+    @Benchmark
+    public List<WalletItemDTO> pageRows() {
+        return readRepository.findBetweenDates(wallet, start, end, page).getContent();
+    }
+
+    @Benchmark
+    public List<WalletItemDTO> typeEntities() {
+        return toDto(repository.findByWalletIdAndType(wallet, TypeEnum.EN));
+    }
+
+    @Benchmark
+    public List<WalletItemDTO> typeRows() {
+        return readRepository.findByType(wallet, TypeEnum.EN);
+    }
+
+    @Benchmark
+    public BigDecimal totalEntities() {
+        return repository.sumByWalletId(wallet);
+    }
+
+    @Benchmark
+    public BigDecimal totalRows() {
+        return readRepository.sumByWalletId(wallet);
+    }
+
+    // a cópia que o controller fazia antes do WalletItemReadRepository
+    private static List<WalletItemDTO> toDto(List<WalletItem> items) {
+        List<WalletItemDTO> dto = new ArrayList<>(items.size());
+        for (WalletItem wi : items) {
+            WalletItemDTO d = new WalletItemDTO();
+            d.setDate(wi.getDate());
+            d.setDescription(wi.getDescription());
+            d.setId(wi.getId());
+            d.setType(wi.getType().getValue());
+            d.setValue(wi.getValue());
+            d.setWallet(wi.getWallet().getId());
+            dto.add(d);
+        }
+        return dto;
+    }
+}
@@ -0,0 +1,55 @@
+package com.wallet.security;
+
+import com.wallet.security.utils.JwtClaims;
+import com.wallet.security.utils.JwtClaimsCache;
+import com.wallet.security.utils.JwtTokenUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo do token no filtro de autenticação: parseToken é a verificação completa (antes o filtro
+ * fazia duas por requisição), getClaimsCached é o caminho de um token repetido.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtBenchmark {
+
+    private JwtTokenUtil jwtTokenUtil;
+    private JwtUser user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtTokenUtil = new JwtTokenUtil(new JwtClaimsCache(10000));
+        ReflectionTestUtils.setField(jwtTokenUtil, "secret", "_(120@#$3t09138uioajsdU2B1Rjs32");
+        ReflectionTestUtils.setField(jwtTokenUtil, "expiration", 3600L);
+
+        user = new JwtUser(1L, "email@teste.com", null);
+        token = jwtTokenUtil.getToken(user);
+    }
+
+    @Benchmark
+    public String getToken() {
+        return jwtTokenUtil.getToken(user);
+    }
+
+    @Benchmark
+    public JwtClaims parseToken() {
+        return jwtTokenUtil.parseToken(token);
+    }
+
+    @Benchmark
+    public JwtClaims getClaimsCached() {
+        return jwtTokenUtil.getClaims(token);
+    }
+
+}
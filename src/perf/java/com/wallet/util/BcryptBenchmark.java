@@ -0,0 +1,19 @@
+package com.wallet.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BcryptBenchmark {
+
+    @Benchmark
+    public String getHash() {
+        return Bcrypt.getHash("123456");
+    }
+
+}
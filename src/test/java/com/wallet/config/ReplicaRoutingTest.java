@@ -0,0 +1,234 @@
+package com.wallet.config;
+
+import com.wallet.dto.WalletItemDTO;
+import com.wallet.entity.User;
+import com.wallet.entity.Wallet;
+import com.wallet.entity.WalletItem;
+import com.wallet.enums.TypeEnum;
+import com.wallet.importer.ImportJob;
+import com.wallet.importer.StatementFormat;
+import com.wallet.repository.UserRepository;
+import com.wallet.service.StatementImportService;
+import com.wallet.service.UserService;
+import com.wallet.service.WalletItemService;
+import com.wallet.service.WalletService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// dois H2 em memória: a "replicação" é a cópia do primário para a réplica feita em replicate()
+@SpringBootTest(properties = {"replica.enabled=true", "replica.urls=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1", "replica.max_lag_ms=300"})
+@ActiveProfiles("test")
+public class ReplicaRoutingTest {
+
+    private static final String WRITER = "writer@wallet.test";
+    private static final String READER = "reader@wallet.test";
+    // fora das janelas de escrita deixadas pelos outros testes
+    private static final String FOLLOWER = "follower@wallet.test";
+    private static final String IMPORTER = "importer@wallet.test";
+
+    @Autowired
+    UserService userService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    WalletService walletService;
+    @Autowired
+    WalletItemService walletItemService;
+    @Autowired
+    StatementImportService statementImportService;
+    @Autowired
+    UserDetailsService userDetailsService;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    MeterRegistry registry;
+
+    private final JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:db", "sa", "sa"));
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:replica", "sa", "sa"));
+
+    @BeforeEach
+    public void setUp() {
+        replicate();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        primary.update("delete from import_hash");
+        primary.update("delete from wallet_items");
+        primary.update("delete from wallet_balance");
+        primary.update("delete from wallet_rollup");
+        primary.update("delete from wallet_checkpoint");
+        primary.update("delete from wallet");
+        primary.update("delete from users");
+    }
+
+    @Test
+    public void testReadOnlyServiceMethodsUseReplica() {
+        replica.update("insert into users (id, email, name, password) values (9001, 'replica@wallet.test', 'Réplica', 'x')");
+
+        authenticate(READER);
+
+        assertTrue(userService.findByEmail("replica@wallet.test").isPresent());
+        // a transação implícita do repositório fica no primário
+        assertFalse(userRepository.findByEmailEquals("replica@wallet.test").isPresent());
+        assertTrue(registry.get("wallet.datasource.routes").tag("route", "replica-0").counter().count() > 0);
+    }
+
+    @Test
+    public void testWriterReadsFromPrimaryDuringLagWindow() throws InterruptedException {
+        authenticate(WRITER);
+        User user = new User();
+        user.setName("Novo");
+        user.setPassword("x");
+        user.setEmail("novo@wallet.test");
+        userService.save(user);
+
+        assertTrue(userService.findByEmail("novo@wallet.test").isPresent());
+
+        authenticate(READER);
+        assertFalse(userService.findByEmail("novo@wallet.test").isPresent());
+
+        authenticate(WRITER);
+        Thread.sleep(400);
+        assertFalse(userService.findByEmail("novo@wallet.test").isPresent());
+    }
+
+    // o cadastro é anônimo e não abre janela de escrita; o login logo depois não pode depender da réplica
+    @Test
+    public void testLoginRightAfterSignupUsesPrimary() {
+        SecurityContextHolder.clearContext();
+        userService.save(user("cadastro@wallet.test"));
+
+        assertFalse(userService.findByEmail("cadastro@wallet.test").isPresent());
+        assertEquals("cadastro@wallet.test", userDetailsService.loadUserByUsername("cadastro@wallet.test").getUsername());
+    }
+
+    // a janela conta do commit: a transação passa de max_lag_ms depois de já ter a conexão do primário
+    @Test
+    public void testWriteWindowStartsAtCommit() {
+        authenticate(WRITER);
+        transactionTemplate.execute(status -> {
+            userRepository.findByEmailEquals(WRITER);
+            userService.save(user("lento@wallet.test"));
+            sleep(400);
+            return null;
+        });
+
+        assertTrue(userService.findByEmail("lento@wallet.test").isPresent());
+    }
+
+    // como no lote do group commit, gravado na thread de outro usuário
+    @Test
+    public void testWriteOnBehalfOfAnotherUser() {
+        authenticate(READER);
+        transactionTemplate.execute(status -> {
+            ReplicaRoutingDataSource.writtenBy(FOLLOWER);
+            return userService.save(user("lote@wallet.test"));
+        });
+
+        authenticate(FOLLOWER);
+        assertTrue(userService.findByEmail("lote@wallet.test").isPresent());
+    }
+
+    @Test
+    public void testStatementImportKeepsRequesterOnPrimary() throws Exception {
+        authenticate(READER);
+        Wallet w = new Wallet();
+        w.setName("Carteira");
+        w.setValue(BigDecimal.ZERO);
+        Wallet wallet = walletService.save(w);
+        replicate();
+
+        authenticate(IMPORTER);
+        Path file = Files.createTempFile("statement-test-", ".txt");
+        Files.write(file, "date,description,value\n01-03-2021,Salario,3500.00\n".getBytes(StandardCharsets.UTF_8));
+        ImportJob job = statementImportService.start(wallet.getId(), StatementFormat.CSV, file);
+        for (int i = 0; i < 100 && !job.isFinished(); i++) {
+            Thread.sleep(50);
+        }
+
+        assertEquals(ImportJob.Status.DONE, job.getStatus());
+        assertEquals(1, walletItemService.countByWalletAndType(wallet.getId(), TypeEnum.EN));
+    }
+
+    @Test
+    public void testReplicaReadsAreNotCached() {
+        authenticate(WRITER);
+        Wallet w = new Wallet();
+        w.setName("Carteira");
+        w.setValue(BigDecimal.ZERO);
+        Wallet wallet = walletService.save(w);
+        walletItemService.save(new WalletItem(null, wallet, new Date(), TypeEnum.EN, "Salário", BigDecimal.TEN));
+        replicate();
+        walletItemService.save(new WalletItem(null, wallet, new Date(), TypeEnum.EN, "Bônus", BigDecimal.ONE));
+
+        authenticate(READER);
+        List<WalletItemDTO> stale = walletItemService.findByWalletAndType(wallet.getId(), TypeEnum.EN);
+        assertEquals(1, stale.size());
+
+        authenticate(WRITER);
+        assertEquals(2, walletItemService.findByWalletAndType(wallet.getId(), TypeEnum.EN).size());
+    }
+
+    @Test
+    public void testPoolMetricsPerRoute() {
+        authenticate(READER);
+        userService.findByEmail(READER);
+        userRepository.findByEmailEquals(READER);
+
+        assertNotNull(registry.find("hikaricp.connections").tag("pool", "primary").gauge());
+        assertNotNull(registry.find("hikaricp.connections").tag("pool", "replica-0").gauge());
+    }
+
+    private void replicate() {
+        List<String> script = primary.queryForList("script", String.class);
+        replica.execute("drop all objects");
+        script.forEach(replica::execute);
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setName("Novo");
+        user.setPassword("x");
+        user.setEmail(email);
+        return user;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void authenticate(String email) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(email, null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+    }
+}
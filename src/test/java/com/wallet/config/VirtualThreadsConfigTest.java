@@ -0,0 +1,45 @@
+package com.wallet.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// só roda no Java 21+, por exemplo: JAVA_HOME=<jdk 21> ./mvnw test
+@EnabledIf("com.wallet.util.VirtualThreads#isSupported")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "virtual_threads.enabled=true")
+@ActiveProfiles("test")
+public class VirtualThreadsConfigTest {
+
+    @Autowired
+    ServletWebServerApplicationContext context;
+    @Autowired
+    ExecutorService tomcatVirtualThreadExecutor;
+    @Autowired
+    AsyncTaskExecutor applicationTaskExecutor;
+
+    @Test
+    public void testTomcatUsesVirtualThreads() throws Exception {
+        TomcatWebServer server = (TomcatWebServer) context.getWebServer();
+        assertSame(tomcatVirtualThreadExecutor, server.getTomcat().getConnector().getProtocolHandler().getExecutor());
+        assertTrue(isVirtual(tomcatVirtualThreadExecutor.submit(Thread::currentThread).get()));
+    }
+
+    @Test
+    public void testAsyncTasksUseVirtualThreads() throws Exception {
+        assertTrue(isVirtual(applicationTaskExecutor.submit(Thread::currentThread).get()));
+    }
+
+    private static boolean isVirtual(Thread thread) throws Exception {
+        return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+    }
+}
@@ -4,13 +4,18 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.wallet.dto.WalletItemDTO;
 import com.wallet.entity.User;
-import com.wallet.entity.UserWallet;
 import com.wallet.entity.Wallet;
 import com.wallet.entity.WalletItem;
+import com.wallet.entity.WalletRollup;
+import com.wallet.enums.GranularityEnum;
 import com.wallet.enums.TypeEnum;
 import com.wallet.service.UserService;
 import com.wallet.service.UserWalletService;
 import com.wallet.service.WalletItemService;
+import com.wallet.util.WalletItemCursor;
+import com.wallet.security.JwtUser;
+import com.wallet.security.utils.JwtTokenUtil;
+import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
 import org.mockito.BDDMockito;
 import org.mockito.Mockito;
@@ -18,11 +23,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import java.math.BigDecimal;
@@ -32,8 +42,12 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -49,6 +63,8 @@ public class WalletItemControllerTest {
 
     @Autowired
     MockMvc mvc;
+    @Autowired
+    JwtTokenUtil jwtTokenUtil;
 
     private static final Long ID = 1L;
     private static final Date DATE = new Date();
@@ -62,6 +78,7 @@ public class WalletItemControllerTest {
     @WithMockUser
     public void testSave() throws Exception {
 
+        BDDMockito.given(userWalletService.hasAccess(Mockito.any(), Mockito.anyLong())).willReturn(true);
         BDDMockito.given(service.save(Mockito.any(WalletItem.class))).willReturn(getMockWalletItem());
 
         mvc.perform(MockMvcRequestBuilders.post(URL).content(getJsonPayload())
@@ -77,12 +94,59 @@ public class WalletItemControllerTest {
 
     }
 
+    @Test
+    @WithMockUser
+    @SuppressWarnings("unchecked")
+    public void testSaveBatch() throws Exception {
+
+        BDDMockito.given(userWalletService.hasAccess(Mockito.any(), Mockito.anyLong())).willReturn(true);
+        BDDMockito.given(service.saveAll(Mockito.anyList())).willAnswer(invocation -> {
+            List<WalletItem> items = invocation.getArgument(0);
+            for (int i = 0; i < items.size(); i++) {
+                items.get(i).setId((long) i + 1);
+            }
+            return items;
+        });
+
+        mvc.perform(MockMvcRequestBuilders.post(URL + "/batch").content("[" + getJsonPayload(null) + "," + getJsonPayload(null) + "]")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.data[0].id").value(1))
+                .andExpect(jsonPath("$.data[1].id").value(2))
+                .andExpect(jsonPath("$.data[1].description").value(DESCRIPTION));
+
+    }
+
+    @Test
+    @WithMockUser
+    public void testSaveBatchInvalidItems() throws Exception {
+
+        WalletItemDTO invalid = new WalletItemDTO();
+        invalid.setWallet(ID);
+        invalid.setDate(DATE);
+        invalid.setType("OUTRO");
+        invalid.setDescription(DESCRIPTION);
+        invalid.setValue(VALUE);
+
+        mvc.perform(MockMvcRequestBuilders.post(URL + "/batch").content("[" + getJsonPayload(null) + "," + getJsonPayload() + ","
+                + new ObjectMapper().writeValueAsString(invalid) + "]")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.data").doesNotExist())
+                .andExpect(jsonPath("$.errors[0]").value("Item 1: O id não deve ser informado"))
+                .andExpect(jsonPath("$.errors[1]").value("Item 2: Para o tipo somente são aceitos os valores ENTRADA ou SAIDA"));
+
+        Mockito.verify(service, Mockito.never()).saveAll(Mockito.anyList());
+    }
+
     @Test
     @WithMockUser
     public void testFindBetweenDates() throws Exception {
-        List<WalletItem> list = new ArrayList<>();
-        list.add(getMockWalletItem());
-        Page<WalletItem> page = new PageImpl<>(list);
+        List<WalletItemDTO> list = new ArrayList<>();
+        list.add(getMockWalletItemDTO());
+        Page<WalletItemDTO> page = new PageImpl<>(list);
 
         String startDate = TODAY.format(getDateFormater());
         String endDate = TODAY.plusDays(5).format(getDateFormater());
@@ -92,7 +156,7 @@ public class WalletItemControllerTest {
 
         BDDMockito.given(service.findBetweenDates(Mockito.anyLong(), Mockito.any(Date.class), Mockito.any(Date.class), Mockito.anyInt())).willReturn(page);
         BDDMockito.given(userService.findByEmail(Mockito.anyString())).willReturn(Optional.of(user));
-        BDDMockito.given(userWalletService.findByUsersIdAndWalletId(Mockito.anyLong(), Mockito.anyLong())).willReturn(Optional.of(new UserWallet()));
+        BDDMockito.given(userWalletService.hasAccess(Mockito.anyLong(), Mockito.anyLong())).willReturn(true);
 
         mvc.perform(MockMvcRequestBuilders.get(URL + "/1?startDate=" + startDate + "&endDate=" + endDate)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -103,15 +167,172 @@ public class WalletItemControllerTest {
                 .andExpect(jsonPath("$.data.content[0].description").value(DESCRIPTION))
                 .andExpect(jsonPath("$.data.content[0].type").value(TYPE.getValue()))
                 .andExpect(jsonPath("$.data.content[0].value").value(VALUE))
-                .andExpect(jsonPath("$.data.content[0].wallet").value(ID));
+                .andExpect(jsonPath("$.data.content[0].wallet").value(ID))
+                .andExpect(jsonPath("$.data.size").value(1))
+                .andExpect(jsonPath("$.data.total").value(1))
+                .andExpect(jsonPath("$.data.next").isEmpty())
+                .andExpect(jsonPath("$.data.pageable").doesNotExist());
+
+    }
+
+    @Test
+    @WithMockUser
+    public void testFindBetweenDatesByCursor() throws Exception {
+        List<WalletItemDTO> list = new ArrayList<>();
+        list.add(getMockWalletItemDTO());
+
+        String startDate = TODAY.format(getDateFormater());
+        String endDate = TODAY.plusDays(5).format(getDateFormater());
+        String cursor = new WalletItemCursor(DATE, 0L).encode();
+
+        User user = new User();
+        user.setId(1L);
+
+        BDDMockito.given(service.findBetweenDates(Mockito.anyLong(), Mockito.any(Date.class), Mockito.any(Date.class), Mockito.any(WalletItemCursor.class), Mockito.anyInt()))
+                .willReturn(new SliceImpl<>(list, PageRequest.of(0, 1), true));
+        BDDMockito.given(service.countBetweenDates(Mockito.anyLong(), Mockito.any(Date.class), Mockito.any(Date.class))).willReturn(3L);
+        BDDMockito.given(userService.findByEmail(Mockito.anyString())).willReturn(Optional.of(user));
+        BDDMockito.given(userWalletService.hasAccess(Mockito.anyLong(), Mockito.anyLong())).willReturn(true);
+
+        mvc.perform(MockMvcRequestBuilders.get(URL + "/1?startDate=" + startDate + "&endDate=" + endDate + "&size=1&count=true&cursor=" + cursor)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content[0].id").value(ID))
+                .andExpect(jsonPath("$.data.size").value(1))
+                .andExpect(jsonPath("$.data.total").value(3))
+                .andExpect(jsonPath("$.data.next").value(WalletItemCursor.of(getMockWalletItemDTO()).encode()));
+
+    }
+
+    @Test
+    public void testFindBetweenDatesWithToken() throws Exception {
+        List<WalletItemDTO> list = new ArrayList<>();
+        list.add(getMockWalletItemDTO());
+
+        String startDate = TODAY.format(getDateFormater());
+        String endDate = TODAY.plusDays(5).format(getDateFormater());
+        String token = jwtTokenUtil.getToken(new JwtUser(ID, "email@teste.com", null));
+
+        BDDMockito.given(service.findBetweenDates(Mockito.anyLong(), Mockito.any(Date.class), Mockito.any(Date.class), Mockito.isNull(), Mockito.anyInt()))
+                .willReturn(new SliceImpl<>(list, PageRequest.of(0, 1), false));
+        BDDMockito.given(userWalletService.hasAccess(ID, 1L)).willReturn(true);
+
+        mvc.perform(MockMvcRequestBuilders.get(URL + "/1?startDate=" + startDate + "&endDate=" + endDate + "&size=1")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content[0].id").value(ID));
+
+        // o principal vem dos claims do token, sem consultar a tabela de usuários
+        Mockito.verifyNoInteractions(userService);
+    }
+
+    @Test
+    @WithMockUser
+    public void testFindBetweenDatesInvalidCursor() throws Exception {
+        String startDate = TODAY.format(getDateFormater());
+        String endDate = TODAY.plusDays(5).format(getDateFormater());
+
+        User user = new User();
+        user.setId(1L);
+
+        BDDMockito.given(userService.findByEmail(Mockito.anyString())).willReturn(Optional.of(user));
+        BDDMockito.given(userWalletService.hasAccess(Mockito.anyLong(), Mockito.anyLong())).willReturn(true);
+
+        mvc.perform(MockMvcRequestBuilders.get(URL + "/1?startDate=" + startDate + "&endDate=" + endDate + "&size=10&cursor=invalido")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0]").value("Cursor inválido"));
+
+    }
+
+    @Test
+    @WithMockUser
+    @SuppressWarnings("unchecked")
+    public void testExportCsv() throws Exception {
+        String startDate = TODAY.format(getDateFormater());
+        String endDate = TODAY.plusDays(5).format(getDateFormater());
+
+        User user = new User();
+        user.setId(1L);
+
+        BDDMockito.given(userService.findByEmail(Mockito.anyString())).willReturn(Optional.of(user));
+        BDDMockito.given(userWalletService.hasAccess(Mockito.anyLong(), Mockito.anyLong())).willReturn(true);
+        BDDMockito.willAnswer(invocation -> {
+            Consumer<WalletItemDTO> consumer = invocation.getArgument(3);
+            consumer.accept(getMockWalletItemDTO());
+            consumer.accept(WalletItemController.convertEntityToDto(new WalletItem(2L, getMockWalletItem().getWallet(), DATE, TypeEnum.SD, "Mercado, padaria", VALUE)));
+            return null;
+        }).given(service).exportBetweenDates(Mockito.anyLong(), Mockito.any(Date.class), Mockito.any(Date.class), Mockito.any(Consumer.class));
+
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get(URL + "/export/1?startDate=" + startDate + "&endDate=" + endDate + "&format=csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String today = TODAY.format(getDateFormater());
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(content().string("id,wallet,date,type,description,value\n"
+                        + "1,1," + today + ",ENTRADA,Conta de Luz,65\n"
+                        + "2,1," + today + ",SAIDA,\"Mercado, padaria\",65\n"));
+    }
+
+    @Test
+    @WithMockUser
+    @SuppressWarnings("unchecked")
+    public void testExportNdjson() throws Exception {
+        String startDate = TODAY.format(getDateFormater());
+        String endDate = TODAY.plusDays(5).format(getDateFormater());
+
+        User user = new User();
+        user.setId(1L);
 
+        BDDMockito.given(userService.findByEmail(Mockito.anyString())).willReturn(Optional.of(user));
+        BDDMockito.given(userWalletService.hasAccess(Mockito.anyLong(), Mockito.anyLong())).willReturn(true);
+        BDDMockito.willAnswer(invocation -> {
+            Consumer<WalletItemDTO> consumer = invocation.getArgument(3);
+            consumer.accept(getMockWalletItemDTO());
+            return null;
+        }).given(service).exportBetweenDates(Mockito.anyLong(), Mockito.any(Date.class), Mockito.any(Date.class), Mockito.any(Consumer.class));
+
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get(URL + "/export/1?startDate=" + startDate + "&endDate=" + endDate))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(jsonPath("$.id").value(ID))
+                .andExpect(jsonPath("$.description").value(DESCRIPTION));
+    }
+
+    @Test
+    @WithMockUser
+    public void testExportWithoutAccess() throws Exception {
+        String startDate = TODAY.format(getDateFormater());
+        String endDate = TODAY.plusDays(5).format(getDateFormater());
+
+        BDDMockito.given(userWalletService.hasAccess(Mockito.any(), Mockito.anyLong())).willReturn(false);
+
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get(URL + "/export/1?startDate=" + startDate + "&endDate=" + endDate))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0]").value("Voçê não tem acesso a essa carteira"));
     }
 
     @Test
     @WithMockUser
     public void testFindByType() throws Exception {
-        List<WalletItem> list = new ArrayList<>();
-        list.add(getMockWalletItem());
+        BDDMockito.given(userWalletService.hasAccess(Mockito.any(), Mockito.anyLong())).willReturn(true);
+        List<WalletItemDTO> list = new ArrayList<>();
+        list.add(getMockWalletItemDTO());
 
         BDDMockito.given(service.findByWalletAndType(Mockito.anyLong(), Mockito.any(TypeEnum.class))).willReturn(list);
 
@@ -128,9 +349,32 @@ public class WalletItemControllerTest {
 
     }
 
+    @Test
+    @WithMockUser
+    public void testFindByTypeByCursor() throws Exception {
+        BDDMockito.given(userWalletService.hasAccess(Mockito.any(), Mockito.anyLong())).willReturn(true);
+        List<WalletItemDTO> list = new ArrayList<>();
+        list.add(getMockWalletItemDTO());
+
+        BDDMockito.given(service.findByWalletAndType(Mockito.anyLong(), Mockito.any(TypeEnum.class), Mockito.isNull(), Mockito.anyInt()))
+                .willReturn(new SliceImpl<>(list, PageRequest.of(0, 10), false));
+
+        mvc.perform(MockMvcRequestBuilders.get(URL+"/type/1?type=ENTRADA&size=10")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content[0].id").value(ID))
+                .andExpect(jsonPath("$.data.content[0].type").value(TYPE.getValue()))
+                .andExpect(jsonPath("$.data.total").doesNotExist())
+                .andExpect(jsonPath("$.data.next").isEmpty());
+
+        Mockito.verify(service, Mockito.never()).countByWalletAndType(Mockito.anyLong(), Mockito.any(TypeEnum.class));
+    }
+
     @Test
     @WithMockUser
     public void testSumByWallet() throws Exception {
+        BDDMockito.given(userWalletService.hasAccess(Mockito.any(), Mockito.anyLong())).willReturn(true);
         BigDecimal value = BigDecimal.valueOf(536.90);
 
         BDDMockito.given(service.sumByWalletId(Mockito.anyLong())).willReturn(value);
@@ -143,10 +387,111 @@ public class WalletItemControllerTest {
 
     }
 
+    @Test
+    @WithMockUser
+    public void testSumByWalletNotModified() throws Exception {
+        BDDMockito.given(userWalletService.hasAccess(Mockito.any(), Mockito.anyLong())).willReturn(true);
+        BDDMockito.given(service.findVersion(ID)).willReturn(Optional.of(3L));
+        BDDMockito.given(service.sumByWalletId(Mockito.anyLong())).willReturn(VALUE);
+
+        String etag = mvc.perform(MockMvcRequestBuilders.get(URL + "/total/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, Matchers.startsWith("W/\"")))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(MockMvcRequestBuilders.get(URL + "/total/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // com o 304 a soma não é consultada de novo
+        Mockito.verify(service, Mockito.times(1)).sumByWalletId(ID);
+
+        BDDMockito.given(service.findVersion(ID)).willReturn(Optional.of(4L));
+
+        mvc.perform(MockMvcRequestBuilders.get(URL + "/total/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, Matchers.not(etag)));
+    }
+
+    @Test
+    @WithMockUser
+    public void testFindBetweenDatesETagDependsOnParameters() throws Exception {
+        BDDMockito.given(userWalletService.hasAccess(Mockito.any(), Mockito.anyLong())).willReturn(true);
+        BDDMockito.given(service.findVersion(ID)).willReturn(Optional.of(3L));
+        BDDMockito.given(service.findBetweenDates(Mockito.anyLong(), Mockito.any(Date.class), Mockito.any(Date.class), Mockito.anyInt()))
+                .willReturn(new PageImpl<>(new ArrayList<>()));
+
+        String range = "?startDate=" + TODAY.format(getDateFormater()) + "&endDate=" + TODAY.plusDays(30).format(getDateFormater());
+        String etag = mvc.perform(MockMvcRequestBuilders.get(URL + "/1" + range + "&page=0"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(MockMvcRequestBuilders.get(URL + "/1" + range + "&page=0").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mvc.perform(MockMvcRequestBuilders.get(URL + "/1" + range + "&page=1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser
+    public void testBalanceAt() throws Exception {
+        BDDMockito.given(userWalletService.hasAccess(Mockito.any(), Mockito.anyLong())).willReturn(true);
+        BDDMockito.given(service.balanceAt(Mockito.anyLong(), Mockito.any(Date.class))).willReturn(BigDecimal.valueOf(120.5));
+
+        mvc.perform(MockMvcRequestBuilders.get(URL + "/balance/1?date=" + TODAY.format(getDateFormater()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data").value(120.5));
+    }
+
+    @Test
+    @WithMockUser
+    public void testSummary() throws Exception {
+        BDDMockito.given(userWalletService.hasAccess(Mockito.any(), Mockito.anyLong())).willReturn(true);
+        LocalDate month = TODAY.withDayOfMonth(1);
+        List<WalletRollup> buckets = new ArrayList<>();
+        buckets.add(new WalletRollup(ID, GranularityEnum.MONTH, month, TypeEnum.EN, BigDecimal.valueOf(100), 2L));
+        buckets.add(new WalletRollup(ID, GranularityEnum.MONTH, month, TypeEnum.SD, BigDecimal.valueOf(-30), 1L));
+        buckets.add(new WalletRollup(ID, GranularityEnum.MONTH, month.plusMonths(1), TypeEnum.SD, BigDecimal.valueOf(-5), 1L));
+
+        BDDMockito.given(service.findSummary(Mockito.anyLong(), Mockito.eq(GranularityEnum.MONTH), Mockito.any(Date.class), Mockito.any(Date.class)))
+                .willReturn(buckets);
+
+        mvc.perform(MockMvcRequestBuilders.get(URL + "/summary/1?granularity=month&from=" + TODAY.format(getDateFormater())
+                + "&to=" + TODAY.plusMonths(2).format(getDateFormater()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(2))
+                .andExpect(jsonPath("$.data[0].period").value(month.format(getDateFormater())))
+                .andExpect(jsonPath("$.data[0].totalIn").value(100))
+                .andExpect(jsonPath("$.data[0].countIn").value(2))
+                .andExpect(jsonPath("$.data[0].balance").value(70))
+                .andExpect(jsonPath("$.data[1].totalIn").value(0))
+                .andExpect(jsonPath("$.data[1].countOut").value(1));
+    }
+
+    @Test
+    @WithMockUser
+    public void testSummaryInvalidGranularity() throws Exception {
+        BDDMockito.given(userWalletService.hasAccess(Mockito.any(), Mockito.anyLong())).willReturn(true);
+
+        mvc.perform(MockMvcRequestBuilders.get(URL + "/summary/1?granularity=year&from=" + TODAY.format(getDateFormater())
+                + "&to=" + TODAY.format(getDateFormater()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0]").value("Para a granularidade somente são aceitos os valores day ou month"));
+    }
+
     @Test
     @WithMockUser
     public void testUpdate() throws Exception {
 
+        BDDMockito.given(userWalletService.hasAccess(Mockito.any(), Mockito.anyLong())).willReturn(true);
         String description = "Nova descrição";
         Wallet w = new Wallet();
         w.setId(ID);
@@ -206,7 +551,8 @@ public class WalletItemControllerTest {
     @WithMockUser
     public void testDelete() throws Exception {
 
-        BDDMockito.given(service.findById(Mockito.anyLong())).willReturn(Optional.of(new WalletItem()));
+        BDDMockito.given(userWalletService.hasAccess(Mockito.any(), Mockito.anyLong())).willReturn(true);
+        BDDMockito.given(service.findById(Mockito.anyLong())).willReturn(Optional.of(getMockWalletItem()));
 
         mvc.perform(MockMvcRequestBuilders.delete(URL+"/1")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -230,6 +576,22 @@ public class WalletItemControllerTest {
 
     }
 
+    // excluído entre a verificação e a exclusão, por outra requisição
+    @Test
+    @WithMockUser
+    public void testDeleteConcurrentlyRemoved() throws Exception {
+
+        BDDMockito.given(userWalletService.hasAccess(Mockito.any(), Mockito.anyLong())).willReturn(true);
+        BDDMockito.given(service.findById(Mockito.anyLong())).willReturn(Optional.of(getMockWalletItem()));
+        BDDMockito.willThrow(new EmptyResultDataAccessException(1)).given(service).deleteById(ID);
+
+        mvc.perform(MockMvcRequestBuilders.delete(URL+"/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.errors[0]").value("WalletItem de id "+ ID + " não encontrada"));
+    }
+
     private WalletItem getMockWalletItem() {
         Wallet w = new Wallet();
         w.setId(1L);
@@ -237,9 +599,17 @@ public class WalletItemControllerTest {
         return new WalletItem(1L, w, DATE, TYPE, DESCRIPTION, VALUE);
     }
 
+    private WalletItemDTO getMockWalletItemDTO() {
+        return WalletItemController.convertEntityToDto(getMockWalletItem());
+    }
+
     public String getJsonPayload() throws JsonProcessingException {
+        return getJsonPayload(ID);
+    }
+
+    public String getJsonPayload(Long id) throws JsonProcessingException {
         WalletItemDTO dto = new WalletItemDTO();
-        dto.setId(ID);
+        dto.setId(id);
         dto.setDate(DATE);
         dto.setDescription(DESCRIPTION);
         dto.setType(TYPE.getValue());
@@ -0,0 +1,166 @@
+package com.wallet.controller;
+
+import com.wallet.cache.WalletCache;
+import com.wallet.entity.User;
+import com.wallet.entity.UserWallet;
+import com.wallet.entity.Wallet;
+import com.wallet.entity.WalletItem;
+import com.wallet.enums.TypeEnum;
+import com.wallet.repository.UserRepository;
+import com.wallet.repository.UserWalletRepository;
+import com.wallet.repository.WalletBalanceRepository;
+import com.wallet.repository.WalletCheckpointRepository;
+import com.wallet.repository.WalletItemRepository;
+import com.wallet.repository.WalletRepository;
+import com.wallet.repository.WalletRollupRepository;
+import com.wallet.service.UserService;
+import com.wallet.service.UserWalletService;
+import com.wallet.service.WalletItemService;
+import com.wallet.service.WalletService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "reactive.enabled=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class WalletItemReactiveControllerTest {
+
+    private static final String EMAIL = "reativo@email.com";
+    private static final LocalDate TODAY = LocalDate.now();
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    @Autowired
+    MockMvc mvc;
+    @Autowired
+    UserService userService;
+    @Autowired
+    WalletService walletService;
+    @Autowired
+    UserWalletService userWalletService;
+    @Autowired
+    WalletItemService walletItemService;
+    @Autowired
+    WalletCache walletCache;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    UserWalletRepository userWalletRepository;
+    @Autowired
+    WalletRepository walletRepository;
+    @Autowired
+    WalletItemRepository walletItemRepository;
+    @Autowired
+    WalletBalanceRepository balanceRepository;
+    @Autowired
+    WalletRollupRepository rollupRepository;
+    @Autowired
+    WalletCheckpointRepository checkpointRepository;
+
+    private Wallet wallet;
+    private Wallet other;
+
+    @BeforeEach
+    public void setUp() {
+        User user = new User();
+        user.setName("Usuário Reativo");
+        user.setEmail(EMAIL);
+        user.setPassword("123456");
+        user = userService.save(user);
+
+        wallet = walletService.save(newWallet("Carteira Reativa"));
+        other = walletService.save(newWallet("Carteira de Outro"));
+
+        UserWallet uw = new UserWallet();
+        uw.setUsers(user);
+        uw.setWallet(wallet);
+        userWalletService.save(uw);
+
+        // mais itens que uma página, para a resposta paginada precisar do count
+        for (int i = 0; i < 12; i++) {
+            WalletItem item = new WalletItem(null, wallet, toDate(TODAY.minusDays(i)), i % 3 == 0 ? TypeEnum.EN : TypeEnum.SD,
+                    "Lançamento " + i, BigDecimal.valueOf(i % 3 == 0 ? 100 : -15));
+            walletItemService.save(item);
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        walletItemRepository.deleteAll();
+        checkpointRepository.deleteAll();
+        rollupRepository.deleteAll();
+        balanceRepository.deleteAll();
+        userWalletRepository.deleteAll();
+        walletRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL)
+    public void testSameResponsesAsServletPath() throws Exception {
+        String range = "?startDate=" + TODAY.minusDays(30).format(FORMAT) + "&endDate=" + TODAY.format(FORMAT);
+
+        for (String path : Arrays.asList("/" + wallet.getId() + range + "&page=0", "/" + wallet.getId() + range + "&page=1",
+                "/type/" + wallet.getId() + "?type=ENTRADA", "/total/" + wallet.getId())) {
+            String servlet = mvc.perform(MockMvcRequestBuilders.get("/wallet-item" + path))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+
+            // sem o cache preenchido pelo caminho servlet a resposta reativa vem do R2DBC
+            walletCache.evict(wallet.getId());
+
+            MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/reactive/wallet-item" + path))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            String reactive = mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+
+            assertEquals(servlet, reactive, path);
+        }
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL)
+    public void testWalletWithoutAccess() throws Exception {
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/reactive/wallet-item/total/" + other.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.data").doesNotExist())
+                .andExpect(jsonPath("$.errors[0]").value("Voçê não tem acesso a essa carteira"));
+    }
+
+    private static Wallet newWallet(String name) {
+        Wallet w = new Wallet();
+        w.setName(name);
+        w.setValue(BigDecimal.ZERO);
+        return w;
+    }
+
+    private static Date toDate(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,410 @@
+package com.wallet.dataset;
+
+import com.wallet.util.Bcrypt;
+import lombok.Data;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Gera usuários, carteiras e milhões de lançamentos sobre o schema do V1__init.sql, de forma
+ * reproduzível a partir da semente. Os lançamentos entram por COPY no PostgreSQL e por batch JDBC
+ * nos demais bancos; ao final o saldo materializado, os totais por período e as sequences são acertados.
+ *
+ * Linha de comando: --url=jdbc:postgresql://localhost:5432/wallet --user=postgres --password=admin --items=5000000
+ * (demais opções com os nomes dos campos de {@link Options}).
+ */
+public class DatasetGenerator {
+
+    public static final String PASSWORD = "dataset123";
+
+    private static final String[] WORDS = {"mercado", "aluguel", "salario", "farmacia", "combustivel", "restaurante",
+            "luz", "agua", "internet", "telefone", "academia", "cinema", "padaria", "transporte", "transferencia", "pix",
+            "boleto", "cartao", "investimento", "rendimento", "condominio", "escola", "seguro", "presente", "viagem",
+            "hotel", "livraria", "mensalidade", "reembolso", "freelance", "bonus", "dividendos", "imposto", "taxa",
+            "manutencao", "veterinario", "roupas", "eletronicos", "delivery", "estacionamento"};
+
+    private final Options options;
+    private final SplittableRandom random;
+    private final String[] vocabulary;
+    private double[] walletCdf;
+
+    public DatasetGenerator(Options options) {
+        this.options = options;
+        this.random = new SplittableRandom(options.getSeed());
+        this.vocabulary = buildVocabulary(options.getVocabulary());
+    }
+
+    public static void main(String[] args) throws SQLException {
+        Options options = new Options();
+        String url = null;
+        String user = null;
+        String password = null;
+
+        for (String arg : args) {
+            String[] kv = arg.replaceFirst("^--", "").split("=", 2);
+            String value = kv.length > 1 ? kv[1] : "";
+            switch (kv[0]) {
+                case "url": url = value; break;
+                case "user": user = value; break;
+                case "password": password = value; break;
+                case "seed": options.setSeed(Long.parseLong(value)); break;
+                case "users": options.setUsers(Integer.parseInt(value)); break;
+                case "wallets": options.setWallets(Integer.parseInt(value)); break;
+                case "items": options.setItems(Long.parseLong(value)); break;
+                case "hotWallets": options.setHotWallets(Integer.parseInt(value)); break;
+                case "hotShare": options.setHotShare(Double.parseDouble(value)); break;
+                case "skew": options.setSkew(Double.parseDouble(value)); break;
+                case "days": options.setDays(Integer.parseInt(value)); break;
+                case "endDate": options.setEndDate(LocalDate.parse(value)); break;
+                case "inRatio": options.setInRatio(Double.parseDouble(value)); break;
+                case "vocabulary": options.setVocabulary(Integer.parseInt(value)); break;
+                case "batchSize": options.setBatchSize(Integer.parseInt(value)); break;
+                default: throw new IllegalArgumentException("Opção desconhecida: " + arg);
+            }
+        }
+        if (url == null) {
+            throw new IllegalArgumentException("Informe --url");
+        }
+
+        Summary summary = new DatasetGenerator(options).generate(new DriverManagerDataSource(url, user, password));
+        System.out.println(summary);
+    }
+
+    public Summary generate(DataSource dataSource) throws SQLException {
+        long start = System.currentTimeMillis();
+
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                Summary summary = generate(conn);
+                summary.setMillis(System.currentTimeMillis() - start);
+                return summary;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private Summary generate(Connection conn) throws SQLException {
+        boolean postgres = "PostgreSQL".equals(conn.getMetaData().getDatabaseProductName());
+
+        long firstUser = firstFreeId(conn, "users");
+        long firstWallet = firstFreeId(conn, "wallet");
+        long firstUserWallet = firstFreeId(conn, "users_wallet");
+        long firstItem = firstFreeId(conn, "wallet_items");
+
+        insertUsers(conn, firstUser);
+        insertWallets(conn, firstWallet);
+        insertUserWallets(conn, firstUserWallet, firstUser, firstWallet);
+        conn.commit();
+
+        buildWalletCdf();
+        if (postgres) {
+            copyItems(conn, firstItem, firstWallet);
+        } else {
+            batchItems(conn, firstItem, firstWallet);
+        }
+
+        long lastWallet = firstWallet + options.getWallets() - 1;
+        updateBalances(conn, firstWallet, lastWallet);
+        updateRollups(conn, firstWallet, lastWallet);
+
+        restartSequence(conn, postgres, "users", firstUser + options.getUsers() - 1);
+        restartSequence(conn, postgres, "wallet", lastWallet);
+        restartSequence(conn, postgres, "users_wallet", firstUserWallet + options.getWallets() - 1);
+        restartSequence(conn, postgres, "wallet_items", firstItem + options.getItems() - 1);
+        conn.commit();
+
+        Summary summary = new Summary();
+        summary.setFirstWallet(firstWallet);
+        summary.setLastWallet(lastWallet);
+        summary.setFirstUser(firstUser);
+        summary.setItems(options.getItems());
+        List<Long> hot = new ArrayList<>();
+        for (int i = 0; i < Math.min(options.getHotWallets(), options.getWallets()); i++) {
+            hot.add(firstWallet + i);
+        }
+        summary.setHotWallets(hot);
+        return summary;
+    }
+
+    private void insertUsers(Connection conn, long firstId) throws SQLException {
+        String hash = Bcrypt.getHash(PASSWORD);
+        try (PreparedStatement ps = conn.prepareStatement("insert into users (id, name, password, email) values (?, ?, ?, ?)")) {
+            for (int i = 0; i < options.getUsers(); i++) {
+                long id = firstId + i;
+                ps.setLong(1, id);
+                ps.setString(2, "Usuário " + id);
+                ps.setString(3, hash);
+                ps.setString(4, "dataset-" + id + "@wallet.test");
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private void insertWallets(Connection conn, long firstId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("insert into wallet (id, name, value) values (?, ?, 0)")) {
+            for (int i = 0; i < options.getWallets(); i++) {
+                ps.setLong(1, firstId + i);
+                ps.setString(2, (i < options.getHotWallets() ? "Carteira quente " : "Carteira ") + (firstId + i));
+                ps.addBatch();
+                if ((i + 1) % options.getBatchSize() == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    // cada carteira pertence a um usuário, distribuídas em rodízio
+    private void insertUserWallets(Connection conn, long firstId, long firstUser, long firstWallet) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("insert into users_wallet (id, users, wallet) values (?, ?, ?)")) {
+            for (int i = 0; i < options.getWallets(); i++) {
+                ps.setLong(1, firstId + i);
+                ps.setLong(2, firstUser + i % options.getUsers());
+                ps.setLong(3, firstWallet + i);
+                ps.addBatch();
+                if ((i + 1) % options.getBatchSize() == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private void copyItems(Connection conn, long firstId, long firstWallet) throws SQLException {
+        CopyIn copy = conn.unwrap(PGConnection.class).getCopyAPI()
+                .copyIn("copy wallet_items (id, wallet, date, type, description, value) from stdin with (format csv)");
+        try {
+            StringBuilder sb = new StringBuilder(options.getBatchSize() * 64);
+            for (long i = 0; i < options.getItems(); i++) {
+                Item item = nextItem(firstWallet);
+                sb.append(firstId + i).append(',').append(item.wallet).append(',').append(item.date).append(',')
+                        .append(item.type).append(',').append(item.description).append(',').append(item.value).append('\n');
+                if ((i + 1) % options.getBatchSize() == 0) {
+                    flush(copy, sb);
+                    progress(i + 1);
+                }
+            }
+            flush(copy, sb);
+            copy.endCopy();
+        } finally {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+        conn.commit();
+    }
+
+    private static void flush(CopyIn copy, StringBuilder sb) throws SQLException {
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        sb.setLength(0);
+    }
+
+    private void batchItems(Connection conn, long firstId, long firstWallet) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "insert into wallet_items (id, wallet, date, type, description, value) values (?, ?, ?, ?, ?, ?)")) {
+            for (long i = 0; i < options.getItems(); i++) {
+                Item item = nextItem(firstWallet);
+                ps.setLong(1, firstId + i);
+                ps.setLong(2, item.wallet);
+                ps.setDate(3, java.sql.Date.valueOf(item.date));
+                ps.setString(4, item.type);
+                ps.setString(5, item.description);
+                ps.setBigDecimal(6, new BigDecimal(item.value));
+                ps.addBatch();
+                if ((i + 1) % options.getBatchSize() == 0) {
+                    ps.executeBatch();
+                    conn.commit();
+                    progress(i + 1);
+                }
+            }
+            ps.executeBatch();
+            conn.commit();
+        }
+    }
+
+    private void progress(long done) {
+        if (done % (options.getBatchSize() * 100L) == 0) {
+            System.out.printf("%d de %d lançamentos%n", done, options.getItems());
+        }
+    }
+
+    private void updateBalances(Connection conn, long firstWallet, long lastWallet) throws SQLException {
+        try (PreparedStatement delete = conn.prepareStatement("delete from wallet_balance where wallet between ? and ?");
+             PreparedStatement insert = conn.prepareStatement("insert into wallet_balance (wallet, balance, total_in, total_out) " +
+                     "select w.id, coalesce(sum(wi.value), 0), " +
+                     "coalesce(sum(case when wi.type = 'EN' then wi.value end), 0), " +
+                     "coalesce(sum(case when wi.type = 'SD' then wi.value end), 0) " +
+                     "from wallet w left join wallet_items wi on wi.wallet = w.id " +
+                     "where w.id between ? and ? group by w.id")) {
+            delete.setLong(1, firstWallet);
+            delete.setLong(2, lastWallet);
+            delete.executeUpdate();
+            insert.setLong(1, firstWallet);
+            insert.setLong(2, lastWallet);
+            insert.executeUpdate();
+        }
+    }
+
+    private void updateRollups(Connection conn, long firstWallet, long lastWallet) throws SQLException {
+        String insert = "insert into wallet_rollup (wallet, granularity, period, type, total, items) " +
+                "select wallet, ?, %1$s, type, sum(value), count(*) from wallet_items " +
+                "where wallet between ? and ? group by wallet, %1$s, type";
+        try (PreparedStatement delete = conn.prepareStatement("delete from wallet_rollup where wallet between ? and ?");
+             PreparedStatement day = conn.prepareStatement(String.format(insert, "cast(date as date)"));
+             PreparedStatement month = conn.prepareStatement(String.format(insert, "cast(date_trunc('month', date) as date)"))) {
+            delete.setLong(1, firstWallet);
+            delete.setLong(2, lastWallet);
+            delete.executeUpdate();
+            for (PreparedStatement ps : Arrays.asList(day, month)) {
+                ps.setString(1, ps == day ? "DAY" : "MONTH");
+                ps.setLong(2, firstWallet);
+                ps.setLong(3, lastWallet);
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    // as sequences andam de 50 em 50 (pooled): o próximo valor precisa ficar um bloco acima do maior id
+    private static void restartSequence(Connection conn, boolean postgres, String table, long maxId) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            if (postgres) {
+                st.execute("select setval('" + table + "_id_seq', " + maxId + ")");
+            } else {
+                st.execute("alter sequence " + table + "_id_seq restart with " + (maxId + 50));
+            }
+        }
+    }
+
+    // uma aplicação rodando pode ter reservado um bloco da sequence ainda sem linhas gravadas, então os ids
+    // gerados começam acima tanto do maior id quanto do valor atual da sequence
+    private static long firstFreeId(Connection conn, String table) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            return Math.max(queryLong(st, "select coalesce(max(id), 0) from " + table),
+                    queryLong(st, "select nextval('" + table + "_id_seq')")) + 1;
+        }
+    }
+
+    private static long queryLong(Statement st, String sql) throws SQLException {
+        try (ResultSet rs = st.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private Item nextItem(long firstWallet) {
+        Item item = new Item();
+        item.wallet = firstWallet + nextWalletIndex();
+        item.date = options.getEndDate().minusDays(random.nextInt(options.getDays()));
+
+        boolean in = random.nextDouble() < options.getInRatio();
+        item.type = in ? "EN" : "SD";
+        // valores log-uniformes: muitos lançamentos pequenos e poucos grandes
+        double value = in ? logUniform(50, 15000) : -logUniform(5, 2000);
+        item.value = String.format(Locale.ROOT, "%.2f", value);
+
+        int words = 2 + random.nextInt(2);
+        StringBuilder sb = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            if (w > 0) {
+                sb.append(' ');
+            }
+            sb.append(vocabulary[random.nextInt(vocabulary.length)]);
+        }
+        item.description = sb.append(' ').append(random.nextInt(1000)).toString();
+        return item;
+    }
+
+    private double logUniform(double min, double max) {
+        return Math.exp(Math.log(min) + random.nextDouble() * (Math.log(max) - Math.log(min)));
+    }
+
+    // carteiras quentes recebem hotShare dos lançamentos; as demais seguem uma Zipf com expoente skew
+    private int nextWalletIndex() {
+        int hot = Math.min(options.getHotWallets(), options.getWallets());
+        if (hot > 0 && (hot == options.getWallets() || random.nextDouble() < options.getHotShare())) {
+            return random.nextInt(hot);
+        }
+        int index = Arrays.binarySearch(walletCdf, random.nextDouble());
+        return hot + (index >= 0 ? index : Math.min(-index - 1, walletCdf.length - 1));
+    }
+
+    private void buildWalletCdf() {
+        int cold = options.getWallets() - Math.min(options.getHotWallets(), options.getWallets());
+        walletCdf = new double[Math.max(cold, 1)];
+        double total = 0;
+        for (int i = 0; i < walletCdf.length; i++) {
+            total += 1 / Math.pow(i + 1, options.getSkew());
+            walletCdf[i] = total;
+        }
+        for (int i = 0; i < walletCdf.length; i++) {
+            walletCdf[i] /= total;
+        }
+    }
+
+    private static String[] buildVocabulary(int size) {
+        String[] words = new String[Math.max(size, 1)];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = i < WORDS.length ? WORDS[i] : WORDS[i % WORDS.length] + (i / WORDS.length);
+        }
+        return words;
+    }
+
+    private static class Item {
+        private long wallet;
+        private LocalDate date;
+        private String type;
+        private String description;
+        private String value;
+    }
+
+    @Data
+    public static class Options {
+        private long seed = 42;
+        private int users = 100;
+        private int wallets = 1000;
+        private long items = 1_000_000;
+        private int hotWallets = 5;
+        private double hotShare = 0.3;
+        private double skew = 1.0;
+        private int days = 730;
+        private LocalDate endDate = LocalDate.now();
+        private double inRatio = 0.4;
+        private int vocabulary = 200;
+        private int batchSize = 5000;
+    }
+
+    @Data
+    public static class Summary {
+        private long firstUser;
+        private long firstWallet;
+        private long lastWallet;
+        private List<Long> hotWallets;
+        private long items;
+        private long millis;
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.wallet.dataset;
+
+import com.wallet.entity.Wallet;
+import com.wallet.entity.WalletItem;
+import com.wallet.enums.TypeEnum;
+import com.wallet.service.WalletItemService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// banco próprio: os contextos dos outros testes compartilham jdbc:h2:mem:db e guardam blocos de ids da sequence
+// já reservados, que colidiriam com os ids gravados direto pelo gerador
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:dataset;DB_CLOSE_DELAY=-1", "reactive.url=r2dbc:h2:mem:///dataset"})
+@ActiveProfiles("test")
+public class DatasetGeneratorTest {
+
+    @Autowired
+    DataSource dataSource;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    WalletItemService walletItemService;
+
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.update("delete from wallet_items");
+        jdbcTemplate.update("delete from wallet_balance");
+        jdbcTemplate.update("delete from wallet_rollup");
+        jdbcTemplate.update("delete from wallet_checkpoint");
+        jdbcTemplate.update("delete from users_wallet");
+        jdbcTemplate.update("delete from wallet");
+        jdbcTemplate.update("delete from users");
+    }
+
+    @Test
+    public void testGenerate() throws SQLException {
+        DatasetGenerator.Summary summary = new DatasetGenerator(options()).generate(dataSource);
+
+        assertEquals(5000L, jdbcTemplate.queryForObject("select count(*) from wallet_items", Long.class));
+        assertEquals(20L, jdbcTemplate.queryForObject("select count(*) from users_wallet", Long.class));
+
+        // as duas carteiras quentes recebem metade dos lançamentos
+        Long hot = jdbcTemplate.queryForObject("select count(*) from wallet_items where wallet in (?, ?)", Long.class,
+                summary.getHotWallets().get(0), summary.getHotWallets().get(1));
+        assertTrue(hot > 2000);
+
+        Long mismatched = jdbcTemplate.queryForObject("select count(*) from wallet_balance b where b.balance <> " +
+                "(select coalesce(sum(value), 0) from wallet_items wi where wi.wallet = b.wallet)", Long.class);
+        assertEquals(0L, mismatched);
+
+        // as sequences foram acertadas e o JPA continua gerando ids livres
+        Wallet wallet = new Wallet();
+        wallet.setId(summary.getFirstWallet());
+        WalletItem saved = walletItemService.save(new WalletItem(null, wallet, new Date(), TypeEnum.EN, "Depois da carga", BigDecimal.TEN));
+        assertNotNull(saved.getId());
+    }
+
+    @Test
+    public void testSameSeedSameData() throws SQLException {
+        DatasetGenerator.Summary first = new DatasetGenerator(options()).generate(dataSource);
+        DatasetGenerator.Summary second = new DatasetGenerator(options()).generate(dataSource);
+
+        String query = "select wallet - ? as idx, count(*) as total, sum(value) as amount, min(date) as first_date " +
+                "from wallet_items where wallet between ? and ? group by wallet order by wallet";
+        List<Map<String, Object>> a = jdbcTemplate.queryForList(query, first.getFirstWallet(), first.getFirstWallet(), first.getLastWallet());
+        List<Map<String, Object>> b = jdbcTemplate.queryForList(query, second.getFirstWallet(), second.getFirstWallet(), second.getLastWallet());
+
+        assertEquals(a, b);
+    }
+
+    private static DatasetGenerator.Options options() {
+        DatasetGenerator.Options options = new DatasetGenerator.Options();
+        options.setSeed(7);
+        options.setUsers(4);
+        options.setWallets(20);
+        options.setItems(5000);
+        options.setHotWallets(2);
+        options.setHotShare(0.5);
+        options.setEndDate(LocalDate.of(2021, 3, 1));
+        options.setBatchSize(1000);
+        return options;
+    }
+
+}
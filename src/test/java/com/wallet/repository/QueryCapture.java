@@ -0,0 +1,126 @@
+package com.wallet.repository;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Envolve o DataSource e grava as consultas preparadas (SQL e parâmetros) executadas dentro de {@link #capture},
+ * para que o plano do SQL gerado pelo Spring Data possa ser inspecionado com EXPLAIN.
+ */
+public class QueryCapture implements BeanPostProcessor {
+
+    private final ThreadLocal<List<Query>> captured = new ThreadLocal<>();
+
+    public List<Query> capture(Runnable call) {
+        List<Query> queries = new ArrayList<>();
+        captured.set(queries);
+        try {
+            call.run();
+        } finally {
+            captured.remove();
+        }
+        return queries;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource)) {
+            return bean;
+        }
+        Class<?>[] interfaces = bean instanceof Closeable ? new Class<?>[]{DataSource.class, Closeable.class} : new Class<?>[]{DataSource.class};
+        return Proxy.newProxyInstance(getClass().getClassLoader(), interfaces, (proxy, method, args) -> {
+            Object result = invoke(bean, method, args);
+            return result instanceof Connection ? connection((Connection) result) : result;
+        });
+    }
+
+    private Connection connection(Connection target) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result instanceof PreparedStatement && method.getName().equals("prepareStatement")) {
+                return statement((PreparedStatement) result, (String) args[0]);
+            }
+            return result;
+        });
+    }
+
+    private PreparedStatement statement(PreparedStatement target, String sql) {
+        Map<Integer, Binding> bindings = new LinkedHashMap<>();
+
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                bindings.put((Integer) args[0], new Binding(method, args));
+            } else if (name.equals("clearParameters")) {
+                bindings.clear();
+            } else if ((name.equals("executeQuery") || name.equals("execute")) && (args == null || args.length == 0) && captured.get() != null) {
+                captured.get().add(new Query(sql, new ArrayList<>(bindings.values())));
+            }
+            return invoke(target, method, args);
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static class Binding {
+
+        private final Method method;
+        private final Object[] args;
+
+        private Binding(Method method, Object[] args) {
+            this.method = method;
+            this.args = args.clone();
+        }
+    }
+
+    public static class Query {
+
+        private final String sql;
+        private final List<Binding> bindings;
+
+        private Query(String sql, List<Binding> bindings) {
+            this.sql = sql;
+            this.bindings = bindings;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        /**
+         * Repete no statement informado os mesmos set* feitos pelo Hibernate.
+         */
+        public void bind(PreparedStatement ps) throws SQLException {
+            for (Binding binding : bindings) {
+                try {
+                    binding.method.invoke(ps, binding.args);
+                } catch (IllegalAccessException | InvocationTargetException e) {
+                    throw new SQLException("Falha ao repetir o parâmetro " + binding.args[0], e);
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return sql;
+        }
+    }
+}
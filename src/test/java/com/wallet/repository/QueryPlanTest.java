@@ -0,0 +1,260 @@
+package com.wallet.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.dataset.DatasetGenerator;
+import com.wallet.enums.GranularityEnum;
+import com.wallet.enums.TypeEnum;
+import com.wallet.service.WalletItemArchiveService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Roda EXPLAIN sobre o SQL que cada consulta dos repositórios gera, com uma massa gerada pelo
+ * {@link DatasetGenerator}, e falha se o plano voltar a ler a tabela inteira. No PostgreSQL
+ * (-Dspring.datasource.url=jdbc:postgresql://...) também confere o custo estimado contra plan.max_cost.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+// importada e não @TestConfiguration, que o component scan também pegaria ao rodar a aplicação pelo profile perf
+@Import(QueryCapture.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class QueryPlanTest {
+
+    // um seq scan em wallet_items com a massa abaixo custa na casa dos milhares
+    private static final double MAX_COST = Double.parseDouble(System.getProperty("plan.max_cost", "400"));
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Autowired
+    QueryCapture queryCapture;
+    @Autowired
+    DataSource dataSource;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    WalletItemRepository walletItemRepository;
+    @Autowired
+    WalletItemReadRepository walletItemReadRepository;
+    @Autowired
+    WalletItemArchiveRepository walletItemArchiveRepository;
+    @Autowired
+    WalletItemArchiveService archiveService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    UserWalletRepository userWalletRepository;
+    @Autowired
+    WalletBalanceRepository walletBalanceRepository;
+    @Autowired
+    WalletRollupRepository walletRollupRepository;
+    @Autowired
+    WalletCheckpointRepository walletCheckpointRepository;
+
+    private boolean postgres;
+    private Long wallet;
+    private Long user;
+    private LocalDate endDate;
+    private Date init;
+    private Date end;
+
+    @BeforeAll
+    public void setUp() throws SQLException {
+        DatasetGenerator.Options options = new DatasetGenerator.Options();
+        options.setUsers(20);
+        options.setWallets(60);
+        options.setItems(40000);
+        options.setHotWallets(3);
+        options.setEndDate(LocalDate.of(2021, 3, 1));
+        DatasetGenerator.Summary summary = new DatasetGenerator(options).generate(dataSource);
+
+        // os lançamentos com mais de seis meses vão para o arquivo, como faria o WalletItemArchiveJob
+        long lastId = 0;
+        List<Long> moved;
+        while (!(moved = archiveService.archive(options.getEndDate().minusMonths(6), lastId, 5000)).isEmpty()) {
+            lastId = moved.get(moved.size() - 1);
+        }
+
+        try (Connection c = dataSource.getConnection()) {
+            postgres = "PostgreSQL".equals(c.getMetaData().getDatabaseProductName());
+        }
+        // estatísticas atualizadas, como estariam após o autovacuum
+        jdbcTemplate.execute(postgres ? "vacuum analyze" : "analyze");
+
+        wallet = summary.getLastWallet();
+        user = summary.getFirstUser();
+        endDate = options.getEndDate();
+        init = toDate(options.getEndDate().minusMonths(1));
+        end = toDate(options.getEndDate());
+    }
+
+    @AfterAll
+    public void tearDown() {
+        jdbcTemplate.update("delete from wallet_items");
+        jdbcTemplate.update("delete from wallet_items_archive");
+        jdbcTemplate.update("delete from wallet_balance");
+        jdbcTemplate.update("delete from wallet_rollup");
+        jdbcTemplate.update("delete from wallet_checkpoint");
+        jdbcTemplate.update("delete from users_wallet");
+        jdbcTemplate.update("delete from wallet");
+        jdbcTemplate.update("delete from users");
+    }
+
+    @Test
+    public void testWalletItemQueries() {
+        assertIndexed(() -> walletItemRepository.findAllByWalletIdAndDateGreaterThanEqualAndDateLessThanEqual(wallet, init, end, PageRequest.of(1, 10)));
+        assertIndexed(() -> walletItemRepository.findByWalletIdAndType(wallet, TypeEnum.EN));
+        assertIndexed(() -> walletItemRepository.sumByWalletId(wallet));
+        assertIndexed(() -> walletItemRepository.sumByWalletIdAndType(wallet, TypeEnum.SD));
+        assertIndexed(() -> walletItemRepository.sumBetweenDates(wallet, init, end));
+        assertIndexed(() -> walletItemRepository.sumBeforeDate(wallet, end));
+        assertIndexed(() -> walletItemRepository.findFirstDate(wallet));
+    }
+
+    @Test
+    public void testWalletItemReadQueries() {
+        Date lastDate = new Date(init.getTime() + 86400000L);
+
+        assertIndexed(() -> walletItemReadRepository.findBetweenDates(wallet, init, end, PageRequest.of(1, 10)));
+        assertIndexed(() -> walletItemReadRepository.findBetweenDates(wallet, init, end, 11));
+        assertIndexed(() -> walletItemReadRepository.findBetweenDatesAfter(wallet, init, end, lastDate, 1L, 11));
+        assertIndexed(() -> walletItemReadRepository.countBetweenDates(wallet, init, end));
+        assertIndexed(() -> walletItemReadRepository.findByType(wallet, TypeEnum.EN));
+        assertIndexed(() -> walletItemReadRepository.findByType(wallet, TypeEnum.SD, 11));
+        assertIndexed(() -> walletItemReadRepository.findByTypeAfter(wallet, TypeEnum.SD, lastDate, 1L, 11));
+        assertIndexed(() -> walletItemReadRepository.countByType(wallet, TypeEnum.EN));
+        assertIndexed(() -> walletItemReadRepository.sumByWalletId(wallet));
+        assertIndexed(() -> transactionTemplate.executeWithoutResult(s ->
+                walletItemReadRepository.exportBetweenDates(wallet, toDate(endDate.minusYears(1)), end, i -> { })));
+    }
+
+    @Test
+    public void testWalletItemArchiveQueries() {
+        assertIndexed(() -> walletItemArchiveRepository.sumByWalletIdAndType(wallet, TypeEnum.SD));
+        assertIndexed(() -> walletItemArchiveRepository.sumBetweenDates(wallet, toDate(endDate.minusYears(1)), init));
+        assertIndexed(() -> walletItemArchiveRepository.sumBeforeDate(wallet, init));
+        assertIndexed(() -> walletItemArchiveRepository.findFirstDate(wallet));
+        assertIndexed(() -> walletItemArchiveRepository.sumByDateAndType(wallet));
+        // o próximo arquivamento, com três meses ainda por mover
+        assertIndexed(() -> transactionTemplate.executeWithoutResult(s ->
+                walletItemArchiveRepository.lockArchivable(toDate(endDate.minusMonths(3)), 0, 1000)));
+    }
+
+    @Test
+    public void testUserQueries() {
+        assertIndexed(() -> userRepository.findByEmailEquals("dataset-" + user + "@wallet.test"));
+    }
+
+    @Test
+    public void testUserWalletQueries() {
+        assertIndexed(() -> userWalletRepository.findByUsersIdAndWalletId(user, wallet));
+        assertIndexed(() -> userWalletRepository.findWalletIdsByUsersId(user));
+    }
+
+    @Test
+    public void testWalletBalanceQueries() {
+        assertIndexed(() -> transactionTemplate.executeWithoutResult(s -> walletBalanceRepository.findByWalletForUpdate(wallet)));
+    }
+
+    @Test
+    public void testWalletRollupQueries() {
+        assertIndexed(() -> walletRollupRepository.findBuckets(wallet, GranularityEnum.MONTH, endDate.minusYears(1), endDate));
+        assertIndexed(() -> walletRollupRepository.findBuckets(wallet, GranularityEnum.DAY, endDate.minusMonths(1), endDate));
+    }
+
+    @Test
+    public void testWalletCheckpointQueries() {
+        assertIndexed(() -> walletCheckpointRepository.findFirstByWalletAndDateLessThanEqualOrderByDateDesc(wallet, endDate));
+        assertIndexed(() -> walletCheckpointRepository.findFirstByWalletOrderByDateDesc(wallet));
+    }
+
+    private void assertIndexed(Runnable call) {
+        List<QueryCapture.Query> queries = queryCapture.capture(call);
+        assertFalse(queries.isEmpty(), "Nenhuma consulta capturada");
+
+        for (QueryCapture.Query query : queries) {
+            if (postgres) {
+                JsonNode plan = explainPostgres(query);
+                List<String> seqScans = new ArrayList<>();
+                collectSeqScans(plan, seqScans);
+                if (!seqScans.isEmpty()) {
+                    fail("Seq Scan em " + seqScans + ": " + query + "\n" + plan.toPrettyString());
+                }
+                double cost = plan.get("Total Cost").asDouble();
+                assertTrue(cost <= MAX_COST, "Custo " + cost + " acima de " + MAX_COST + ": " + query + "\n" + plan.toPrettyString());
+            } else {
+                String plan = explain("explain ", query);
+                assertFalse(plan.contains(".tableScan"), "Leitura da tabela inteira: " + plan);
+            }
+        }
+    }
+
+    private JsonNode explainPostgres(QueryCapture.Query query) {
+        try {
+            return MAPPER.readTree(explain("explain (format json) ", query)).get(0).get("Plan");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String explain(String prefix, QueryCapture.Query query) {
+        try (Connection c = dataSource.getConnection(); PreparedStatement ps = c.prepareStatement(prefix + query.getSql())) {
+            query.bind(ps);
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Falha no EXPLAIN de " + query, e);
+        }
+    }
+
+    // em tabelas de uma página o seq scan é o melhor plano possível e não conta como regressão
+    private void collectSeqScans(JsonNode node, List<String> seqScans) {
+        if ("Seq Scan".equals(node.path("Node Type").asText())) {
+            String relation = node.path("Relation Name").asText();
+            Integer pages = jdbcTemplate.queryForObject("select relpages from pg_class where relname = ?", Integer.class, relation);
+            if (pages > 1) {
+                seqScans.add(relation);
+            }
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectSeqScans(child, seqScans);
+        }
+    }
+
+    private static Date toDate(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+}
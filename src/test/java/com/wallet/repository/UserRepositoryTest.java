@@ -2,6 +2,7 @@ package com.wallet.repository;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Optional;
@@ -14,6 +15,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
@@ -58,6 +60,16 @@ public class UserRepositoryTest {
         assertNotNull(response);
     }
 
+    @Test
+    public void testSaveDuplicatedEmail(){
+        User user = new User();
+        user.setName("Outro");
+        user.setPassword("123456");
+        user.setEmail(EMAIL);
+
+        assertThrows(DataIntegrityViolationException.class, () -> repository.save(user));
+    }
+
     @Test
     public void testFindByEmail(){
         Optional<User> response = repository.findByEmailEquals(EMAIL);
@@ -20,6 +20,7 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Date;
 import java.util.List;
+import java.util.ArrayList;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -81,11 +82,30 @@ public class WalletItemRepositoryTest {
 
     }
 
+    @Test
+    public void testSaveInBatches(){
+
+        Wallet reference = new Wallet();
+        reference.setId(savedWalletId);
+
+        List<WalletItem> items = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            items.add(new WalletItem(null, reference, DATE, TYPE, DESCRIPTION, VALUE));
+        }
+
+        List<WalletItem> response = repository.saveInBatches(items);
+
+        assertEquals(response.size(), 120);
+        assertTrue(response.stream().allMatch(wi -> wi.getId() != null));
+        assertEquals(response.stream().map(WalletItem::getId).distinct().count(), 120);
+        assertEquals(repository.findByWalletIdAndType(savedWalletId, TYPE).size(), 121);
+    }
+
     @Test()
     public void testSaveInvalidWalletItem(){
         assertThrows(ConstraintViolationException.class, () ->{
             WalletItem wi = new WalletItem(null, null, DATE, null, DESCRIPTION, null);
-            repository.save(wi);
+            repository.saveAndFlush(wi);
         });
     }
 
@@ -0,0 +1,63 @@
+package com.wallet.security;
+
+import com.wallet.security.utils.JwtClaims;
+import com.wallet.security.utils.JwtClaimsCache;
+import com.wallet.security.utils.JwtTokenUtil;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class JwtTokenUtilTest {
+
+    private static final String EMAIL = "email@teste.com";
+
+    @Autowired
+    JwtTokenUtil jwtTokenUtil;
+    @Autowired
+    JwtClaimsCache claimsCache;
+
+    @Test
+    public void testGetClaims() {
+        String token = jwtTokenUtil.getToken(new JwtUser(1L, EMAIL, "123456"));
+
+        JwtClaims claims = jwtTokenUtil.getClaims(token);
+
+        assertEquals(1L, claims.getId());
+        assertEquals(EMAIL, claims.getUsername());
+        assertNotNull(claims.getCreated());
+        assertNotNull(claims.getExpiration());
+    }
+
+    @Test
+    public void testGetClaimsFromCache() {
+        String token = jwtTokenUtil.getToken(new JwtUser(1L, EMAIL, "123456"));
+        long hits = claimsCache.getHits();
+        long misses = claimsCache.getMisses();
+
+        JwtClaims first = jwtTokenUtil.getClaims(token);
+        JwtClaims second = jwtTokenUtil.getClaims(token);
+
+        assertSame(first, second);
+        assertEquals(misses + 1, claimsCache.getMisses());
+        assertEquals(hits + 1, claimsCache.getHits());
+    }
+
+    @Test
+    public void testInvalidToken() {
+        String token = jwtTokenUtil.getToken(new JwtUser(1L, EMAIL, "123456"));
+        String tampered = token.substring(0, token.length() - 4) + "AAAA";
+
+        assertThrows(JwtException.class, () -> jwtTokenUtil.getClaims(tampered));
+        assertThrows(JwtException.class, () -> jwtTokenUtil.getClaims(""));
+    }
+
+}
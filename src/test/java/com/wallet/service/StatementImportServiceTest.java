@@ -0,0 +1,120 @@
+package com.wallet.service;
+
+import com.wallet.entity.Wallet;
+import com.wallet.enums.TypeEnum;
+import com.wallet.importer.ImportJob;
+import com.wallet.importer.StatementFormat;
+import com.wallet.repository.WalletBalanceRepository;
+import com.wallet.repository.WalletItemRepository;
+import com.wallet.repository.WalletRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class StatementImportServiceTest {
+
+    private static final String CSV = "date,description,value\n"
+            + "01-03-2021,Salario de marco,3500.00\n"
+            + "02-03-2021,\"Mercado, feira\",-150.25\n"
+            + "02-03-2021,\"Mercado, feira\",-150.25\n"
+            + "03-03-2021,Conta de luz,abc\n";
+
+    private static final String OFX = "OFXHEADER:100\nDATA:OFXSGML\n<OFX><BANKMSGSRSV1><STMTTRNRS><STMTRS><BANKTRANLIST>"
+            + "<STMTTRN><TRNTYPE>DEBIT<DTPOSTED>20210305120000[-3:BRT]<TRNAMT>-80.10<FITID>1<MEMO>Farmacia centro</STMTTRN>"
+            + "<STMTTRN><TRNTYPE>CREDIT<DTPOSTED>20210306<TRNAMT>200<FITID>2<NAME>Transferencia recebida</STMTTRN>"
+            + "</BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>";
+
+    @Autowired
+    StatementImportService service;
+    @Autowired
+    WalletService walletService;
+    @Autowired
+    WalletItemService walletItemService;
+    @Autowired
+    WalletItemRepository walletItemRepository;
+    @Autowired
+    WalletBalanceRepository balanceRepository;
+    @Autowired
+    WalletRepository walletRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private Wallet wallet;
+
+    @BeforeEach
+    public void setUp() {
+        Wallet w = new Wallet();
+        w.setName("Carteira Importacao");
+        w.setValue(BigDecimal.ZERO);
+        wallet = walletService.save(w);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.update("delete from import_hash");
+        walletItemRepository.deleteAll();
+        balanceRepository.deleteAll();
+        walletRepository.deleteAll();
+    }
+
+    @Test
+    public void testImportCsvDropsDuplicates() throws Exception {
+        ImportJob job = await(service.start(wallet.getId(), StatementFormat.CSV, write(CSV)));
+
+        assertEquals(job.getStatus(), ImportJob.Status.DONE);
+        assertEquals(job.getRowsRead().get(), 3);
+        assertEquals(job.getInserted().get(), 2);
+        assertEquals(job.getDuplicates().get(), 1);
+        assertEquals(job.getRejected().get(), 1);
+        assertTrue(job.getErrors().get(0).startsWith("Linha 5"));
+        assertEquals(walletItemService.countByWalletAndType(wallet.getId(), TypeEnum.SD), 1);
+        assertEquals(walletItemService.sumByWalletId(wallet.getId()).compareTo(new BigDecimal("3349.75")), 0);
+        assertEquals(walletItemRepository.sumByWalletId(wallet.getId()).compareTo(new BigDecimal("3349.75")), 0);
+
+        ImportJob again = await(service.start(wallet.getId(), StatementFormat.CSV, write(CSV)));
+
+        assertEquals(again.getInserted().get(), 0);
+        assertEquals(again.getDuplicates().get(), 3);
+    }
+
+    @Test
+    public void testImportOfx() throws Exception {
+        ImportJob job = await(service.start(wallet.getId(), StatementFormat.OFX, write(OFX)));
+
+        assertEquals(job.getStatus(), ImportJob.Status.DONE);
+        assertEquals(job.getInserted().get(), 2);
+        assertEquals(job.getProgress(), 100);
+        assertEquals(walletItemService.countByWalletAndType(wallet.getId(), TypeEnum.EN), 1);
+        assertEquals(walletItemService.countByWalletAndType(wallet.getId(), TypeEnum.SD), 1);
+        assertEquals(walletItemService.sumByWalletId(wallet.getId()).compareTo(new BigDecimal("119.90")), 0);
+        assertEquals(walletItemRepository.sumByWalletId(wallet.getId()).compareTo(new BigDecimal("119.90")), 0);
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = Files.createTempFile("statement-test-", ".txt");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private ImportJob await(ImportJob job) throws InterruptedException {
+        for (int i = 0; i < 100 && !job.isFinished(); i++) {
+            Thread.sleep(50);
+        }
+        return job;
+    }
+}
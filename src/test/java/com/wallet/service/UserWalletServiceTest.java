@@ -0,0 +1,107 @@
+package com.wallet.service;
+
+import com.wallet.entity.User;
+import com.wallet.entity.UserWallet;
+import com.wallet.entity.Wallet;
+import com.wallet.repository.UserWalletRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class UserWalletServiceTest {
+
+    private static final Long USER = 7L;
+    private static final Long OTHER_USER = 8L;
+
+    @MockBean
+    UserWalletRepository repository;
+
+    @Autowired
+    UserWalletService service;
+
+    @BeforeEach
+    public void setUp() {
+        service.evict(USER);
+        BDDMockito.given(repository.findWalletIdsByUsersId(USER)).willReturn(Arrays.asList(5L, 2L));
+    }
+
+    @Test
+    public void testHasAccess() {
+        assertTrue(service.hasAccess(USER, 2L));
+        assertTrue(service.hasAccess(USER, 5L));
+        assertFalse(service.hasAccess(USER, 3L));
+        assertFalse(service.hasAccess(null, 2L));
+
+        // as carteiras do usuário são carregadas uma única vez
+        Mockito.verify(repository, Mockito.times(1)).findWalletIdsByUsersId(USER);
+    }
+
+    @Test
+    public void testAsyncAccessSharesCache() throws Exception {
+        assertTrue(service.hasAccess(USER, 5L, u -> CompletableFuture.completedFuture(Arrays.asList(5L, 2L))).toCompletableFuture().get());
+        assertFalse(service.hasAccess(USER, 3L, u -> {
+            throw new AssertionError("as carteiras já estão no cache");
+        }).toCompletableFuture().get());
+
+        // a lista carregada pelo caminho assíncrono também serve ao síncrono
+        assertTrue(service.hasAccess(USER, 2L));
+        Mockito.verify(repository, Mockito.never()).findWalletIdsByUsersId(USER);
+    }
+
+    @Test
+    public void testSaveEvictsUser() {
+        assertFalse(service.hasAccess(USER, 3L));
+
+        User user = new User();
+        user.setId(USER);
+        Wallet wallet = new Wallet();
+        wallet.setId(3L);
+        UserWallet uw = new UserWallet();
+        uw.setUsers(user);
+        uw.setWallet(wallet);
+
+        BDDMockito.given(repository.save(Mockito.any(UserWallet.class))).willReturn(uw);
+        BDDMockito.given(repository.findWalletIdsByUsersId(USER)).willReturn(Arrays.asList(5L, 2L, 3L));
+        service.save(uw);
+
+        assertTrue(service.hasAccess(USER, 3L));
+        Mockito.verify(repository, Mockito.times(2)).findWalletIdsByUsersId(USER);
+    }
+
+    @Test
+    public void testSaveEvictsPreviousOwner() {
+        assertTrue(service.hasAccess(USER, 5L));
+
+        User other = new User();
+        other.setId(OTHER_USER);
+        Wallet wallet = new Wallet();
+        wallet.setId(5L);
+        UserWallet uw = new UserWallet();
+        uw.setId(10L);
+        uw.setUsers(other);
+        uw.setWallet(wallet);
+
+        BDDMockito.given(repository.findUsersIdById(10L)).willReturn(Optional.of(USER));
+        BDDMockito.given(repository.save(Mockito.any(UserWallet.class))).willReturn(uw);
+        BDDMockito.given(repository.findWalletIdsByUsersId(USER)).willReturn(Arrays.asList(2L));
+        service.save(uw);
+
+        assertFalse(service.hasAccess(USER, 5L));
+        Mockito.verify(repository, Mockito.times(2)).findWalletIdsByUsersId(USER);
+    }
+
+}
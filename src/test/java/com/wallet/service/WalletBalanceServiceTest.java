@@ -0,0 +1,158 @@
+package com.wallet.service;
+
+import com.wallet.entity.Wallet;
+import com.wallet.entity.WalletBalance;
+import com.wallet.entity.WalletItem;
+import com.wallet.enums.TypeEnum;
+import com.wallet.repository.WalletBalanceRepository;
+import com.wallet.repository.WalletItemRepository;
+import com.wallet.repository.WalletRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class WalletBalanceServiceTest {
+
+    private static final Date DATE = new Date();
+    private static final String DESCRIPTION = "Conta de Luz";
+
+    @Autowired
+    WalletBalanceService balanceService;
+    @Autowired
+    WalletItemService walletItemService;
+    @Autowired
+    WalletService walletService;
+    @Autowired
+    WalletBalanceRepository balanceRepository;
+    @Autowired
+    WalletItemRepository walletItemRepository;
+    @Autowired
+    WalletRepository walletRepository;
+
+    private Wallet wallet;
+
+    @BeforeEach
+    public void setUp() {
+        Wallet w = new Wallet();
+        w.setName("Carteira Teste");
+        w.setValue(BigDecimal.valueOf(250));
+        wallet = walletService.save(w);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        walletItemRepository.deleteAll();
+        balanceRepository.deleteAll();
+        walletRepository.deleteAll();
+    }
+
+    @Test
+    public void testBalanceFollowsWrites() {
+        WalletItem entrada = walletItemService.save(new WalletItem(null, wallet, DATE, TypeEnum.EN, DESCRIPTION, BigDecimal.valueOf(100)));
+        walletItemService.save(new WalletItem(null, wallet, DATE, TypeEnum.SD, DESCRIPTION, BigDecimal.valueOf(30)));
+
+        assertBalance(130, 100, 30);
+
+        walletItemService.save(new WalletItem(entrada.getId(), wallet, DATE, TypeEnum.SD, DESCRIPTION, BigDecimal.valueOf(80)));
+
+        assertBalance(110, 0, 110);
+
+        walletItemService.deleteById(entrada.getId());
+
+        assertBalance(30, 0, 30);
+        assertEquals(walletItemRepository.sumByWalletId(wallet.getId()).compareTo(walletItemService.sumByWalletId(wallet.getId())), 0);
+    }
+
+    @Test
+    public void testVersionFollowsWrites() {
+        assertEquals(0L, (long) balanceService.findVersion(wallet.getId()).orElse(-1L));
+
+        WalletItem item = walletItemService.save(new WalletItem(null, wallet, DATE, TypeEnum.EN, DESCRIPTION, BigDecimal.valueOf(100)));
+        assertEquals(1L, (long) balanceService.findVersion(wallet.getId()).orElse(-1L));
+
+        // alterar só a descrição não muda o saldo, mas muda o que as leituras devolvem
+        walletItemService.save(new WalletItem(item.getId(), wallet, DATE, TypeEnum.EN, "Conta de Água", BigDecimal.valueOf(100)));
+        assertEquals(2L, (long) balanceService.findVersion(wallet.getId()).orElse(-1L));
+
+        walletItemService.deleteById(item.getId());
+        assertEquals(3L, (long) balanceService.findVersion(wallet.getId()).orElse(-1L));
+    }
+
+    @Test
+    public void testVerifyRepairsDivergentBalance() {
+        walletItemService.save(new WalletItem(null, wallet, DATE, TypeEnum.EN, DESCRIPTION, BigDecimal.valueOf(65)));
+
+        assertTrue(balanceService.verify(wallet.getId()));
+
+        balanceRepository.save(new WalletBalance(wallet.getId(), BigDecimal.ONE, BigDecimal.ONE, BigDecimal.ZERO, 0));
+
+        assertFalse(balanceService.verify(wallet.getId()));
+        assertBalance(65, 65, 0);
+    }
+
+    @Test
+    public void testMissingBalanceIsSeededFromItems() {
+        walletItemRepository.save(new WalletItem(null, wallet, DATE, TypeEnum.EN, DESCRIPTION, BigDecimal.valueOf(20)));
+        balanceRepository.deleteById(wallet.getId());
+
+        walletItemService.save(new WalletItem(null, wallet, DATE, TypeEnum.SD, DESCRIPTION, BigDecimal.valueOf(5)));
+
+        assertBalance(25, 20, 5);
+    }
+
+    @Test
+    public void testConcurrentFirstWritesSeedBalanceOnce() throws Exception {
+        // os buckets do dia já existem, a disputa fica só na linha de saldo
+        walletItemService.save(new WalletItem(null, wallet, DATE, TypeEnum.EN, DESCRIPTION, BigDecimal.TEN));
+        balanceRepository.deleteById(wallet.getId());
+
+        int writers = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = IntStream.range(0, writers)
+                    .mapToObj(i -> executor.submit(() -> {
+                        start.await();
+                        return walletItemService.saveAll(Collections.singletonList(
+                                new WalletItem(null, wallet, DATE, TypeEnum.EN, DESCRIPTION, BigDecimal.TEN)));
+                    }))
+                    .collect(Collectors.toList());
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertBalance(50, 50, 0);
+    }
+
+    private void assertBalance(double balance, double totalIn, double totalOut) {
+        WalletBalance stored = balanceService.findByWalletId(wallet.getId()).orElseThrow(IllegalStateException::new);
+
+        assertEquals(stored.getBalance().compareTo(BigDecimal.valueOf(balance)), 0);
+        assertEquals(stored.getTotalIn().compareTo(BigDecimal.valueOf(totalIn)), 0);
+        assertEquals(stored.getTotalOut().compareTo(BigDecimal.valueOf(totalOut)), 0);
+    }
+}
@@ -0,0 +1,131 @@
+package com.wallet.service;
+
+import com.wallet.entity.Wallet;
+import com.wallet.entity.WalletCheckpoint;
+import com.wallet.entity.WalletItem;
+import com.wallet.enums.TypeEnum;
+import com.wallet.repository.WalletBalanceRepository;
+import com.wallet.repository.WalletCheckpointRepository;
+import com.wallet.repository.WalletItemRepository;
+import com.wallet.repository.WalletRepository;
+import com.wallet.repository.WalletRollupRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class WalletCheckpointServiceTest {
+
+    private static final LocalDate JANUARY_END = LocalDate.of(2021, 1, 31);
+    private static final LocalDate FEBRUARY_END = LocalDate.of(2021, 2, 28);
+    private static final String DESCRIPTION = "Conta de Luz";
+
+    @Autowired
+    WalletCheckpointService checkpointService;
+    @Autowired
+    WalletItemService walletItemService;
+    @Autowired
+    WalletService walletService;
+    @Autowired
+    WalletCheckpointRepository checkpointRepository;
+    @Autowired
+    WalletRollupRepository rollupRepository;
+    @Autowired
+    WalletBalanceRepository balanceRepository;
+    @Autowired
+    WalletItemRepository walletItemRepository;
+    @Autowired
+    WalletRepository walletRepository;
+
+    private Wallet wallet;
+
+    @BeforeEach
+    public void setUp() {
+        Wallet w = new Wallet();
+        w.setName("Carteira Teste");
+        w.setValue(BigDecimal.valueOf(250));
+        wallet = walletService.save(w);
+
+        walletItemService.save(item(LocalDate.of(2021, 1, 5), TypeEnum.EN, 100));
+        walletItemService.save(item(LocalDate.of(2021, 1, 31), TypeEnum.SD, -30));
+        walletItemService.save(item(LocalDate.of(2021, 2, 10), TypeEnum.EN, 50));
+        walletItemService.save(item(LocalDate.of(2021, 3, 2), TypeEnum.SD, -5));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        walletItemRepository.deleteAll();
+        checkpointRepository.deleteAll();
+        rollupRepository.deleteAll();
+        balanceRepository.deleteAll();
+        walletRepository.deleteAll();
+    }
+
+    @Test
+    public void testCheckpointAndBalanceAt() {
+        assertEquals(2, checkpointService.checkpoint(wallet.getId(), FEBRUARY_END));
+        // rodar de novo não grava nada
+        assertEquals(0, checkpointService.checkpoint(wallet.getId(), FEBRUARY_END));
+
+        assertCheckpoint(JANUARY_END, 70);
+        assertCheckpoint(FEBRUARY_END, 120);
+
+        assertBalanceAt(LocalDate.of(2020, 12, 31), 0);
+        assertBalanceAt(LocalDate.of(2021, 1, 30), 100);
+        assertBalanceAt(JANUARY_END, 70);
+        assertBalanceAt(LocalDate.of(2021, 2, 10), 120);
+        assertBalanceAt(LocalDate.of(2021, 3, 2), 115);
+    }
+
+    @Test
+    public void testBackDatedWritesPatchLaterCheckpoints() {
+        checkpointService.checkpoint(wallet.getId(), FEBRUARY_END);
+
+        WalletItem backDated = walletItemService.save(item(LocalDate.of(2021, 2, 1), TypeEnum.EN, 10));
+        assertCheckpoint(JANUARY_END, 70);
+        assertCheckpoint(FEBRUARY_END, 130);
+
+        // movido para janeiro com outro valor: sai de fevereiro e entra nos dois checkpoints
+        walletItemService.save(new WalletItem(backDated.getId(), wallet, toDate(LocalDate.of(2021, 1, 15)), TypeEnum.EN, DESCRIPTION, BigDecimal.valueOf(40)));
+        assertCheckpoint(JANUARY_END, 110);
+        assertCheckpoint(FEBRUARY_END, 160);
+
+        walletItemService.deleteById(backDated.getId());
+        assertCheckpoint(JANUARY_END, 70);
+        assertCheckpoint(FEBRUARY_END, 120);
+
+        // lançamentos depois do último checkpoint não alteram nada
+        walletItemService.save(item(LocalDate.of(2021, 3, 20), TypeEnum.EN, 1000));
+        assertCheckpoint(FEBRUARY_END, 120);
+        assertBalanceAt(LocalDate.of(2021, 3, 31), 1115);
+    }
+
+    private WalletItem item(LocalDate date, TypeEnum type, double value) {
+        return new WalletItem(null, wallet, toDate(date), type, DESCRIPTION, BigDecimal.valueOf(value));
+    }
+
+    private static Date toDate(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private void assertCheckpoint(LocalDate date, double balance) {
+        WalletCheckpoint checkpoint = checkpointRepository.findById(new WalletCheckpoint.Key(wallet.getId(), date))
+                .orElseThrow(IllegalStateException::new);
+        assertEquals(0, checkpoint.getBalance().compareTo(BigDecimal.valueOf(balance)));
+    }
+
+    private void assertBalanceAt(LocalDate date, double balance) {
+        assertEquals(0, checkpointService.balanceAt(wallet.getId(), date).compareTo(BigDecimal.valueOf(balance)));
+    }
+}
@@ -0,0 +1,229 @@
+package com.wallet.service;
+
+import com.wallet.dto.WalletItemDTO;
+import com.wallet.entity.Wallet;
+import com.wallet.entity.WalletItem;
+import com.wallet.entity.WalletItemArchive;
+import com.wallet.enums.GranularityEnum;
+import com.wallet.enums.TypeEnum;
+import com.wallet.job.WalletItemArchiveJob;
+import com.wallet.repository.WalletBalanceRepository;
+import com.wallet.repository.WalletCheckpointRepository;
+import com.wallet.repository.WalletItemArchiveRepository;
+import com.wallet.repository.WalletItemReadRepository;
+import com.wallet.repository.WalletItemRepository;
+import com.wallet.repository.WalletRepository;
+import com.wallet.repository.WalletRollupRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class WalletItemArchiveServiceTest {
+
+    private static final LocalDate MARCH = LocalDate.of(2021, 3, 1);
+
+    @Autowired
+    WalletItemArchiveService archiveService;
+    @Autowired
+    WalletItemService walletItemService;
+    @Autowired
+    WalletService walletService;
+    @Autowired
+    WalletBalanceService balanceService;
+    @Autowired
+    WalletCheckpointService checkpointService;
+    @Autowired
+    WalletRollupService rollupService;
+    @Autowired
+    WalletItemReadRepository readRepository;
+    @Autowired
+    WalletItemRepository walletItemRepository;
+    @Autowired
+    WalletItemArchiveRepository archiveRepository;
+    @Autowired
+    WalletCheckpointRepository checkpointRepository;
+    @Autowired
+    WalletRollupRepository rollupRepository;
+    @Autowired
+    WalletBalanceRepository balanceRepository;
+    @Autowired
+    WalletRepository walletRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    private Wallet wallet;
+
+    @BeforeEach
+    public void setUp() {
+        Wallet w = new Wallet();
+        w.setName("Carteira Teste");
+        w.setValue(BigDecimal.ZERO);
+        wallet = walletService.save(w);
+
+        walletItemService.save(item(LocalDate.of(2021, 1, 5), TypeEnum.EN, 100));
+        walletItemService.save(item(LocalDate.of(2021, 1, 31), TypeEnum.SD, -30));
+        walletItemService.save(item(LocalDate.of(2021, 2, 10), TypeEnum.EN, 50));
+        walletItemService.save(item(LocalDate.of(2021, 3, 2), TypeEnum.SD, -5));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        archiveRepository.deleteAll();
+        walletItemRepository.deleteAll();
+        checkpointRepository.deleteAll();
+        rollupRepository.deleteAll();
+        balanceRepository.deleteAll();
+        walletRepository.deleteAll();
+    }
+
+    @Test
+    public void testReadsCoverBothTiers() {
+        List<Long> before = ids(walletItemService.findBetweenDates(wallet.getId(), toDate(LocalDate.of(2021, 1, 1)), toDate(MARCH.plusMonths(1)), 0).getContent());
+
+        // lotes de um item, cada um retomando do último id movido
+        long lastId = Long.MIN_VALUE;
+        List<Long> moved;
+        while (!(moved = archiveService.archive(MARCH, lastId, 1)).isEmpty()) {
+            lastId = moved.get(0);
+        }
+
+        assertEquals(3, archiveRepository.count());
+        assertEquals(1, walletItemRepository.count());
+
+        Date start = toDate(LocalDate.of(2021, 1, 1));
+        Date end = toDate(MARCH.plusMonths(1));
+        assertEquals(before, ids(readRepository.findBetweenDates(wallet.getId(), start, end, 10)));
+        assertEquals(4, walletItemService.countBetweenDates(wallet.getId(), start, end));
+        assertEquals(2, walletItemService.findByWalletAndType(wallet.getId(), TypeEnum.SD).size());
+        assertEquals(0, new BigDecimal("115").compareTo(readRepository.sumByWalletId(wallet.getId())));
+
+        List<WalletItemDTO> exported = new ArrayList<>();
+        walletItemService.exportBetweenDates(wallet.getId(), start, end, exported::add);
+        assertEquals(before, ids(exported));
+
+        // a segunda página por cursor começa no arquivo e termina na tabela principal
+        WalletItemDTO third = readRepository.findBetweenDates(wallet.getId(), start, end, 3).get(2);
+        assertEquals(ids(readRepository.findBetweenDates(wallet.getId(), start, end, 10)).subList(3, 4),
+                ids(readRepository.findBetweenDatesAfter(wallet.getId(), start, end, third.getDate(), third.getId(), 10)));
+    }
+
+    @Test
+    public void testTotalsSurviveArchiving() {
+        assertEquals(3, new WalletItemArchiveJob(archiveService, 1, 2, 0).archive(MARCH));
+        assertEquals(3, archiveRepository.count());
+
+        // recalculados dos itens, nada diverge do que foi mantido a cada escrita
+        assertTrue(balanceService.verify(wallet.getId()));
+        assertEquals(0, new BigDecimal("115").compareTo(walletItemService.balanceAt(wallet.getId(), toDate(LocalDate.of(2021, 3, 31)))));
+        assertEquals(2, checkpointService.checkpoint(wallet.getId(), LocalDate.of(2021, 2, 28)));
+        assertEquals(0, new BigDecimal("120").compareTo(checkpointService.balanceAt(wallet.getId(), LocalDate.of(2021, 2, 28))));
+
+        List<String> summary = rollupService.findBuckets(wallet.getId(), GranularityEnum.MONTH, LocalDate.of(2021, 1, 1), MARCH).stream()
+                .map(r -> r.getPeriod() + r.getType().name() + r.getTotal().stripTrailingZeros().toPlainString())
+                .collect(Collectors.toList());
+        rollupService.rebuild(wallet.getId());
+        assertEquals(summary, rollupService.findBuckets(wallet.getId(), GranularityEnum.MONTH, LocalDate.of(2021, 1, 1), MARCH).stream()
+                .map(r -> r.getPeriod() + r.getType().name() + r.getTotal().stripTrailingZeros().toPlainString())
+                .collect(Collectors.toList()));
+        assertEquals(Arrays.asList("2021-01-01EN100", "2021-01-01SD-30", "2021-02-01EN50", "2021-03-01SD-5"), summary);
+    }
+
+    @Test
+    public void testUpdateAndDeleteArchivedItems() {
+        assertEquals(3, new WalletItemArchiveJob(archiveService, 1, 10, 0).archive(MARCH));
+        List<Long> archived = archiveRepository.findAll().stream().map(WalletItemArchive::getId).sorted().collect(Collectors.toList());
+
+        WalletItem found = walletItemService.findById(archived.get(0)).orElseThrow(IllegalStateException::new);
+        assertEquals(wallet.getId(), found.getWallet().getId());
+        found.setValue(BigDecimal.valueOf(150));
+        walletItemService.save(found);
+        walletItemService.deleteById(archived.get(1));
+
+        // 150 no lugar de 100 e sem a saída de -30
+        assertEquals(1, archiveRepository.count());
+        assertEquals(2, walletItemRepository.count());
+        assertEquals(0, new BigDecimal("195").compareTo(walletItemService.sumByWalletId(wallet.getId())));
+        assertTrue(balanceService.verify(wallet.getId()));
+        assertEquals(Arrays.asList("2021-01-01EN150", "2021-02-01EN50", "2021-03-01SD-5"), summary());
+        assertThrows(EmptyResultDataAccessException.class, () -> walletItemService.deleteById(archived.get(1)));
+    }
+
+    // a alteração espera o lote que travou o lançamento e o encontra no arquivo, sem incluí-lo de novo
+    @Test
+    public void testUpdateWaitsForConcurrentArchiving() throws Exception {
+        WalletItem first = walletItemRepository.findAll().stream().min(Comparator.comparing(WalletItem::getId)).orElseThrow(IllegalStateException::new);
+        CountDownLatch locked = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<Long>> archiving = executor.submit(() -> transactionTemplate.execute(status -> {
+                List<Long> ids = archiveService.archive(MARCH, Long.MIN_VALUE, 10);
+                locked.countDown();
+                sleep(300);
+                return ids;
+            }));
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+            first.setValue(BigDecimal.valueOf(150));
+            walletItemService.save(first);
+            assertEquals(3, archiving.get().size());
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(2, archiveRepository.count());
+        assertEquals(0, new BigDecimal("165").compareTo(walletItemService.sumByWalletId(wallet.getId())));
+        assertTrue(balanceService.verify(wallet.getId()));
+    }
+
+    private List<String> summary() {
+        return rollupService.findBuckets(wallet.getId(), GranularityEnum.MONTH, LocalDate.of(2021, 1, 1), MARCH).stream()
+                .map(r -> r.getPeriod() + r.getType().name() + r.getTotal().stripTrailingZeros().toPlainString())
+                .collect(Collectors.toList());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private WalletItem item(LocalDate date, TypeEnum type, int value) {
+        return new WalletItem(null, wallet, toDate(date), type, "Lançamento", BigDecimal.valueOf(value));
+    }
+
+    private static List<Long> ids(List<WalletItemDTO> items) {
+        return items.stream().map(WalletItemDTO::getId).collect(Collectors.toList());
+    }
+
+    private static Date toDate(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,141 @@
+package com.wallet.service;
+
+import com.wallet.entity.Wallet;
+import com.wallet.entity.WalletBalance;
+import com.wallet.entity.WalletItem;
+import com.wallet.enums.TypeEnum;
+import com.wallet.repository.WalletBalanceRepository;
+import com.wallet.repository.WalletCheckpointRepository;
+import com.wallet.repository.WalletItemRepository;
+import com.wallet.repository.WalletRepository;
+import com.wallet.repository.WalletRollupRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {"group_commit.enabled=true", "group_commit.max_batch=50", "group_commit.max_wait_us=200000"})
+@ActiveProfiles("test")
+public class WalletItemGroupCommitTest {
+
+    private static final int CALLERS = 20;
+
+    @Autowired
+    WalletItemService walletItemService;
+    @Autowired
+    WalletService walletService;
+    @Autowired
+    WalletBalanceService balanceService;
+    @Autowired
+    MeterRegistry registry;
+    @Autowired
+    WalletItemRepository walletItemRepository;
+    @Autowired
+    WalletCheckpointRepository checkpointRepository;
+    @Autowired
+    WalletRollupRepository rollupRepository;
+    @Autowired
+    WalletBalanceRepository balanceRepository;
+    @Autowired
+    WalletRepository walletRepository;
+
+    private Wallet wallet;
+    private ExecutorService callers;
+
+    @BeforeEach
+    public void setUp() {
+        Wallet w = new Wallet();
+        w.setName("Carteira Teste");
+        w.setValue(BigDecimal.ZERO);
+        wallet = walletService.save(w);
+        callers = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        callers.shutdownNow();
+        walletItemRepository.deleteAll();
+        checkpointRepository.deleteAll();
+        rollupRepository.deleteAll();
+        balanceRepository.deleteAll();
+        walletRepository.deleteAll();
+    }
+
+    @Test
+    public void testConcurrentSavesShareCommit() throws Exception {
+        List<Future<WalletItem>> results = saveConcurrently(Collections.nCopies(CALLERS, wallet));
+
+        Set<Long> ids = new HashSet<>();
+        for (Future<WalletItem> result : results) {
+            WalletItem saved = result.get();
+            assertNotNull(saved.getId());
+            assertEquals(wallet.getId(), saved.getWallet().getId());
+            ids.add(saved.getId());
+        }
+        assertEquals(CALLERS, ids.size());
+        assertEquals(CALLERS, walletItemRepository.count());
+        assertEquals(0, BigDecimal.valueOf(CALLERS * 10).compareTo(balanceService.findByWalletId(wallet.getId())
+                .map(WalletBalance::getBalance).orElse(BigDecimal.ZERO)));
+        assertTrue(registry.get("wallet.group_commit.batch_size").summary().max() > 1);
+    }
+
+    @Test
+    public void testInvalidItemFailsOnlyItsCaller() throws Exception {
+        Wallet missing = new Wallet();
+        missing.setId(wallet.getId() + 1000);
+
+        List<Wallet> targets = new ArrayList<>(Collections.nCopies(CALLERS, wallet));
+        targets.set(1, missing);
+        List<Future<WalletItem>> results = saveConcurrently(targets);
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> results.get(1).get());
+        assertNotNull(error.getCause());
+        for (int i = 0; i < results.size(); i++) {
+            if (i != 1) {
+                assertNotNull(results.get(i).get().getId());
+            }
+        }
+        assertEquals(CALLERS - 1, walletItemRepository.count());
+    }
+
+    // as threads largam juntas para caírem na mesma janela
+    private List<Future<WalletItem>> saveConcurrently(List<Wallet> targets) {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<WalletItem>> results = new ArrayList<>(targets.size());
+        for (int i = 0; i < targets.size(); i++) {
+            WalletItem item = new WalletItem(null, targets.get(i), new Date(), TypeEnum.EN, "Lançamento " + i, BigDecimal.TEN);
+            results.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return walletItemService.save(item);
+            }, callers));
+        }
+        start.countDown();
+        return results;
+    }
+}
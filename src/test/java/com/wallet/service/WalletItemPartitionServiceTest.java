@@ -0,0 +1,159 @@
+package com.wallet.service;
+
+import com.wallet.entity.Wallet;
+import com.wallet.entity.WalletItem;
+import com.wallet.enums.TypeEnum;
+import com.wallet.repository.WalletBalanceRepository;
+import com.wallet.repository.WalletItemRepository;
+import com.wallet.repository.WalletRepository;
+import com.wallet.repository.WalletRollupRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Os casos de partição só rodam no PostgreSQL com o schema das migrations:
+ * -Dspring.datasource.url=jdbc:postgresql://... -Dspring.flyway.enabled=true -Dspring.jpa.hibernate.ddl-auto=none
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class WalletItemPartitionServiceTest {
+
+    // longe o bastante para cair na partição default
+    private static final LocalDate FAR_MONTH = LocalDate.of(2100, 1, 1);
+    private static final String FAR_PARTITION = "wallet_items_2100_01";
+
+    @Autowired
+    WalletItemPartitionService partitionService;
+    @Autowired
+    WalletItemService walletItemService;
+    @Autowired
+    WalletService walletService;
+    @Autowired
+    WalletItemRepository walletItemRepository;
+    @Autowired
+    WalletRollupRepository rollupRepository;
+    @Autowired
+    WalletBalanceRepository balanceRepository;
+    @Autowired
+    WalletRepository walletRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    public void tearDown() {
+        walletItemRepository.deleteAll();
+        rollupRepository.deleteAll();
+        balanceRepository.deleteAll();
+        walletRepository.deleteAll();
+        if (partitionService.isPartitioned()) {
+            jdbcTemplate.execute("drop table if exists " + FAR_PARTITION);
+        }
+    }
+
+    @Test
+    public void testCurrentAndNextMonthsHavePartitions() {
+        assumeTrue(partitionService.isPartitioned());
+
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        assertEquals(Collections.emptyList(), partitionService.findMissingMonths(month, month.plusMonths(3)));
+        assertEquals(Collections.singletonList(FAR_MONTH), partitionService.findMissingMonths(FAR_MONTH, FAR_MONTH));
+    }
+
+    @Test
+    public void testCreateMonthMovesItemsFromDefault() {
+        assumeTrue(partitionService.isPartitioned());
+
+        Wallet w = new Wallet();
+        w.setName("Carteira Teste");
+        w.setValue(BigDecimal.ZERO);
+        Wallet wallet = walletService.save(w);
+        Date date = Date.from(FAR_MONTH.plusDays(14).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        WalletItem item = walletItemService.save(new WalletItem(null, wallet, date, TypeEnum.EN, "Salário", BigDecimal.TEN));
+        assertEquals("wallet_items_default", partitionOf(item));
+
+        partitionService.createMonth(FAR_MONTH);
+
+        assertEquals(FAR_PARTITION, partitionOf(item));
+        assertTrue(partitionService.findMissingMonths(FAR_MONTH, FAR_MONTH).isEmpty());
+        assertEquals(1, walletItemService.findByWalletAndType(wallet.getId(), TypeEnum.EN).size());
+    }
+
+    // as instâncias rodam o job juntas na subida: só uma cria a partição, as demais não falham
+    @Test
+    public void testConcurrentCreateMonth() throws Exception {
+        assumeTrue(partitionService.isPartitioned());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> partitionService.createMonth(FAR_MONTH)));
+            }
+            int created = 0;
+            for (Future<Boolean> result : results) {
+                created += result.get() ? 1 : 0;
+            }
+            assertEquals(1, created);
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(partitionService.findMissingMonths(FAR_MONTH, FAR_MONTH).isEmpty());
+    }
+
+    @Test
+    public void testDetachRequiresArchivedPartition() {
+        assumeTrue(partitionService.isPartitioned());
+
+        Wallet w = new Wallet();
+        w.setName("Carteira Teste");
+        w.setValue(BigDecimal.ZERO);
+        Wallet wallet = walletService.save(w);
+        partitionService.createMonth(FAR_MONTH);
+        Date date = Date.from(FAR_MONTH.plusDays(14).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        WalletItem item = walletItemService.save(new WalletItem(null, wallet, date, TypeEnum.EN, "Salário", BigDecimal.TEN));
+
+        // o detach é desfeito: o lançamento continua lido e somado
+        assertThrows(IllegalStateException.class, () -> partitionService.detach(FAR_PARTITION));
+        assertEquals(FAR_PARTITION, partitionOf(item));
+
+        walletItemService.deleteById(item.getId());
+        assertTrue(partitionService.detach(FAR_PARTITION));
+        assertFalse(partitionService.detach(FAR_PARTITION));
+        assertEquals(Collections.singletonList(FAR_MONTH), partitionService.findMissingMonths(FAR_MONTH, FAR_MONTH));
+    }
+
+    @Test
+    public void testHistoryExpiresAfterItsLastMonth() {
+        assumeTrue(partitionService.isPartitioned());
+
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        assertFalse(partitionService.findExpired(month.minusYears(20)).contains("wallet_items_history"));
+        assertTrue(partitionService.findExpired(month.plusMonths(2)).contains("wallet_items_history"));
+        assertFalse(partitionService.findExpired(FAR_MONTH).contains("wallet_items_default"));
+    }
+
+    private String partitionOf(WalletItem item) {
+        return jdbcTemplate.queryForObject("select tableoid::regclass::text from wallet_items where id = ?", String.class, item.getId());
+    }
+}
@@ -1,9 +1,16 @@
 package com.wallet.service;
 
+import com.wallet.cache.WalletCache;
+import com.wallet.dto.WalletItemDTO;
 import com.wallet.entity.Wallet;
+import com.wallet.entity.WalletBalance;
 import com.wallet.entity.WalletItem;
 import com.wallet.enums.TypeEnum;
+import com.wallet.repository.WalletItemReadRepository;
 import com.wallet.repository.WalletItemRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.BDDMockito;
 import org.mockito.Mockito;
@@ -19,9 +26,11 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
 @ActiveProfiles("test")
@@ -30,14 +39,37 @@ public class WalletItemServiceTest {
     @MockBean
     WalletItemRepository repository;
 
+    @MockBean
+    WalletItemReadRepository readRepository;
+
+    @MockBean
+    WalletBalanceService balanceService;
+
+    @MockBean
+    WalletRollupService rollupService;
+
+    @MockBean
+    WalletCheckpointService checkpointService;
+
     @Autowired
     WalletItemService service;
 
+    @Autowired
+    WalletCache walletCache;
+
+    @Autowired
+    MeterRegistry registry;
+
     private static final Date DATE = new Date();
     private static final TypeEnum TYPE = TypeEnum.EN;
     private static final String DESCRIPTION = "Conta de luz";
     private static final BigDecimal VALUE = BigDecimal.valueOf(65);
 
+    @BeforeEach
+    public void setUp() {
+        walletCache.evict(1L);
+    }
+
     @Test
     public void testSave(){
 
@@ -53,13 +85,13 @@ public class WalletItemServiceTest {
     @Test
     public void testFindBetweenDates(){
 
-        List<WalletItem> list = new ArrayList<>();
-        list.add(getMockWalletItem());
-        Page<WalletItem> page = new PageImpl<>(list);
+        List<WalletItemDTO> list = new ArrayList<>();
+        list.add(getMockWalletItemDTO());
+        Page<WalletItemDTO> page = new PageImpl<>(list);
 
-        BDDMockito.given(repository.findAllByWalletIdAndDateGreaterThanEqualAndDateLessThanEqual(Mockito.anyLong(), Mockito.any(Date.class), Mockito.any(Date.class), Mockito.any(PageRequest.class))).willReturn(page);
+        BDDMockito.given(readRepository.findBetweenDates(Mockito.anyLong(), Mockito.any(Date.class), Mockito.any(Date.class), Mockito.any(PageRequest.class))).willReturn(page);
 
-        Page<WalletItem> response = service.findBetweenDates(1L, new Date(), new Date(), 0);
+        Page<WalletItemDTO> response = service.findBetweenDates(1L, new Date(), new Date(), 0);
 
         assertNotNull(response);
         assertEquals(response.getContent().size(), 1);
@@ -69,28 +101,82 @@ public class WalletItemServiceTest {
 
     @Test
     public void testFindByType() {
-        List<WalletItem> list = new ArrayList<>();
-        list.add(getMockWalletItem());
+        List<WalletItemDTO> list = new ArrayList<>();
+        list.add(getMockWalletItemDTO());
 
-        BDDMockito.given(repository.findByWalletIdAndType(Mockito.anyLong(), Mockito.any(TypeEnum.class))).willReturn(list);
+        BDDMockito.given(readRepository.findByType(Mockito.anyLong(), Mockito.any(TypeEnum.class))).willReturn(list);
 
-        List<WalletItem> response = service.findByWalletAndType(1L, TypeEnum.EN);
+        List<WalletItemDTO> response = service.findByWalletAndType(1L, TypeEnum.EN);
 
         assertNotNull(response);
-        assertEquals(response.get(0).getType(), TYPE);
+        assertEquals(response.get(0).getType(), TYPE.getValue());
     }
 
     @Test
     public void testSumByWallet() {
         BigDecimal value = BigDecimal.valueOf(45);
 
-        BDDMockito.given(repository.sumByWalletId(Mockito.anyLong())).willReturn(value);
+        BDDMockito.given(balanceService.findByWalletId(Mockito.anyLong())).willReturn(Optional.of(new WalletBalance(1L, value, value, BigDecimal.ZERO, 0)));
+
+        BigDecimal response = service.sumByWalletId(1L);
+
+        assertEquals(response.compareTo(value), 0);
+        Mockito.verify(readRepository, Mockito.never()).sumByWalletId(Mockito.anyLong());
+    }
+
+    @Test
+    public void testSumByWalletWithoutBalance() {
+        BigDecimal value = BigDecimal.valueOf(45);
+
+        BDDMockito.given(balanceService.findByWalletId(Mockito.anyLong())).willReturn(Optional.empty());
+        BDDMockito.given(readRepository.sumByWalletId(Mockito.anyLong())).willReturn(value);
 
         BigDecimal response = service.sumByWalletId(1L);
 
         assertEquals(response.compareTo(value), 0);
     }
 
+    @Test
+    public void testFindByTypeFromCache() {
+        List<WalletItemDTO> list = new ArrayList<>();
+        list.add(getMockWalletItemDTO());
+
+        BDDMockito.given(readRepository.findByType(Mockito.anyLong(), Mockito.any(TypeEnum.class))).willReturn(list);
+
+        service.findByWalletAndType(1L, TypeEnum.EN);
+        List<WalletItemDTO> response = service.findByWalletAndType(1L, TypeEnum.EN);
+
+        assertEquals(response.size(), 1);
+        Mockito.verify(readRepository, Mockito.times(1)).findByType(1L, TypeEnum.EN);
+    }
+
+    @Test
+    public void testSaveEvictsOnlyItsWallet() {
+        walletCache.evict(2L);
+        BDDMockito.given(readRepository.findByType(Mockito.anyLong(), Mockito.any(TypeEnum.class))).willReturn(new ArrayList<>());
+        BDDMockito.given(repository.save(Mockito.any(WalletItem.class))).willReturn(getMockWalletItem());
+
+        service.findByWalletAndType(1L, TypeEnum.EN);
+        service.findByWalletAndType(2L, TypeEnum.EN);
+        service.save(new WalletItem());
+        service.findByWalletAndType(1L, TypeEnum.EN);
+        service.findByWalletAndType(2L, TypeEnum.EN);
+
+        Mockito.verify(readRepository, Mockito.times(2)).findByType(1L, TypeEnum.EN);
+        Mockito.verify(readRepository, Mockito.times(1)).findByType(2L, TypeEnum.EN);
+    }
+
+    @Test
+    public void testServiceAndRepositoryTimers() {
+        BDDMockito.given(readRepository.findByType(Mockito.anyLong(), Mockito.any(TypeEnum.class))).willReturn(new ArrayList<>());
+
+        service.findByWalletAndType(1L, TypeEnum.SD);
+
+        Timer serviceTimer = registry.find("wallet.service").tags("class", "WalletItemServiceImpl", "method", "findByWalletAndType", "outcome", "SUCCESS").timer();
+        assertNotNull(serviceTimer);
+        assertTrue(serviceTimer.count() > 0);
+    }
+
     private WalletItem getMockWalletItem(){
 
         Wallet w = new Wallet();
@@ -101,4 +187,15 @@ public class WalletItemServiceTest {
 
     }
 
+    private WalletItemDTO getMockWalletItemDTO() {
+        WalletItemDTO dto = new WalletItemDTO();
+        dto.setId(1L);
+        dto.setWallet(1L);
+        dto.setDate(DATE);
+        dto.setType(TYPE.getValue());
+        dto.setDescription(DESCRIPTION);
+        dto.setValue(VALUE);
+        return dto;
+    }
+
 }
@@ -0,0 +1,132 @@
+package com.wallet.service;
+
+import com.wallet.entity.Wallet;
+import com.wallet.entity.WalletItem;
+import com.wallet.entity.WalletRollup;
+import com.wallet.enums.GranularityEnum;
+import com.wallet.enums.TypeEnum;
+import com.wallet.repository.WalletBalanceRepository;
+import com.wallet.repository.WalletItemRepository;
+import com.wallet.repository.WalletRepository;
+import com.wallet.repository.WalletRollupRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class WalletRollupServiceTest {
+
+    private static final LocalDate JANUARY = LocalDate.of(2021, 1, 1);
+    private static final LocalDate FEBRUARY = LocalDate.of(2021, 2, 1);
+    private static final String DESCRIPTION = "Conta de Luz";
+
+    @Autowired
+    WalletRollupService rollupService;
+    @Autowired
+    WalletItemService walletItemService;
+    @Autowired
+    WalletService walletService;
+    @Autowired
+    WalletRollupRepository rollupRepository;
+    @Autowired
+    WalletBalanceRepository balanceRepository;
+    @Autowired
+    WalletItemRepository walletItemRepository;
+    @Autowired
+    WalletRepository walletRepository;
+
+    private Wallet wallet;
+
+    @BeforeEach
+    public void setUp() {
+        Wallet w = new Wallet();
+        w.setName("Carteira Teste");
+        w.setValue(BigDecimal.valueOf(250));
+        wallet = walletService.save(w);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        walletItemRepository.deleteAll();
+        rollupRepository.deleteAll();
+        balanceRepository.deleteAll();
+        walletRepository.deleteAll();
+    }
+
+    @Test
+    public void testRollupsFollowWrites() {
+        WalletItem entrada = walletItemService.save(item(JANUARY.plusDays(9), TypeEnum.EN, 100));
+        WalletItem saida = walletItemService.save(item(JANUARY.plusDays(19), TypeEnum.SD, 30));
+        walletItemService.saveAll(Arrays.asList(item(FEBRUARY.plusDays(4), TypeEnum.EN, 50), item(FEBRUARY.plusDays(4), TypeEnum.EN, 5)));
+
+        List<WalletRollup> months = months();
+        assertEquals(3, months.size());
+        assertBucket(months.get(0), JANUARY, TypeEnum.EN, 100, 1);
+        assertBucket(months.get(1), JANUARY, TypeEnum.SD, 30, 1);
+        assertBucket(months.get(2), FEBRUARY, TypeEnum.EN, 55, 2);
+
+        // a alteração tira o lançamento do período e do tipo antigos
+        walletItemService.save(new WalletItem(entrada.getId(), wallet, toDate(FEBRUARY.plusDays(4)), TypeEnum.SD, DESCRIPTION, BigDecimal.valueOf(80)));
+        walletItemService.deleteById(saida.getId());
+
+        months = months();
+        assertEquals(2, months.size());
+        assertBucket(months.get(0), FEBRUARY, TypeEnum.EN, 55, 2);
+        assertBucket(months.get(1), FEBRUARY, TypeEnum.SD, 80, 1);
+
+        List<WalletRollup> days = rollupService.findBuckets(wallet.getId(), GranularityEnum.DAY, FEBRUARY.plusDays(4), FEBRUARY.plusDays(4));
+        assertEquals(2, days.size());
+        assertBucket(days.get(1), FEBRUARY.plusDays(4), TypeEnum.SD, 80, 1);
+    }
+
+    @Test
+    public void testRebuildMatchesIncrementalRollups() {
+        walletItemService.save(item(JANUARY.plusDays(2), TypeEnum.EN, 100));
+        walletItemService.save(item(JANUARY.plusDays(2), TypeEnum.SD, 30));
+        walletItemService.save(item(FEBRUARY.plusDays(27), TypeEnum.EN, 12.5));
+        List<WalletRollup> incremental = months();
+
+        // lançamento gravado por fora do serviço, como numa carga direta no banco
+        walletItemRepository.save(item(FEBRUARY, TypeEnum.SD, 7));
+        rollupService.rebuild(wallet.getId());
+
+        List<WalletRollup> rebuilt = months();
+        assertEquals(incremental.size() + 1, rebuilt.size());
+        assertBucket(rebuilt.get(0), JANUARY, TypeEnum.EN, 100, 1);
+        assertBucket(rebuilt.get(1), JANUARY, TypeEnum.SD, 30, 1);
+        assertBucket(rebuilt.get(2), FEBRUARY, TypeEnum.EN, 12.5, 1);
+        assertBucket(rebuilt.get(3), FEBRUARY, TypeEnum.SD, 7, 1);
+    }
+
+    private List<WalletRollup> months() {
+        return rollupService.findBuckets(wallet.getId(), GranularityEnum.MONTH, JANUARY.plusDays(15), FEBRUARY.plusMonths(1));
+    }
+
+    private WalletItem item(LocalDate date, TypeEnum type, double value) {
+        return new WalletItem(null, wallet, toDate(date), type, DESCRIPTION, BigDecimal.valueOf(value));
+    }
+
+    private static Date toDate(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static void assertBucket(WalletRollup bucket, LocalDate period, TypeEnum type, double total, long items) {
+        assertEquals(period, bucket.getPeriod());
+        assertEquals(type, bucket.getType());
+        assertEquals(0, bucket.getTotal().compareTo(BigDecimal.valueOf(total)));
+        assertEquals(items, bucket.getItems());
+    }
+}